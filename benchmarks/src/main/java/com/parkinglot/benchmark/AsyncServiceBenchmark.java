@@ -0,0 +1,90 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.dao.ParkingLotRegistry;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.service.AsyncParkingService;
+import com.parkinglot.service.AsyncParkingServiceImpl;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of gate clients each parking and leaving once, spread over the levels:
+ * the blocking service called client after client, against the async service
+ * with every request in flight at once.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AsyncServiceBenchmark {
+
+    private static final String SYNC_LOT = "bench-sync";
+    private static final String ASYNC_LOT = "bench-async";
+
+    @Param({"8"})
+    int levels;
+
+    @Param({"1024"})
+    int capacity;
+
+    @Param({"1000"})
+    int clients;
+
+    ParkingService syncService;
+    AsyncParkingService asyncService;
+    Car[] cars;
+    PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ParkingException {
+        console = QuietConsole.silence();
+        syncService = new ParkingServiceImpl(SYNC_LOT);
+        syncService.createParkingLot(levels, capacity);
+        ParkingLotRegistry.getInstance().createParkingLot(ASYNC_LOT, levels, capacity);
+        asyncService = new AsyncParkingServiceImpl(ASYNC_LOT);
+        cars = new Car[clients];
+        for (int i = 0; i < clients; i++)
+            cars[i] = new Car(ParkingServiceBenchmark.registration(i), "White");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        asyncService.shutdown();
+        ParkingLotRegistry.getInstance().removeParkingLot(ASYNC_LOT);
+        syncService.cleanup();
+        QuietConsole.restore(console);
+    }
+
+    @Benchmark
+    public int blocking() throws ParkingException {
+        int freed = 0;
+        for (int i = 0; i < clients; i++) {
+            int level = 1 + i % levels;
+            int slot = syncService.park(level, cars[i]).get();
+            if (syncService.unPark(level, slot) != null)
+                freed++;
+        }
+        return freed;
+    }
+
+    @Benchmark
+    public int async() {
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            int level = 1 + i % levels;
+            inFlight[i] = asyncService.park(level, cars[i]).thenCompose(slot -> asyncService.unPark(level, slot));
+        }
+        CompletableFuture.allOf(inFlight).join();
+        return inFlight.length;
+    }
+}
@@ -0,0 +1,101 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.dao.InMemoryParkingLotLevelDAOImpl;
+import com.parkinglot.dao.ParkingLotLevelDAO;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Colour, and colour and type, queries on one large level answered from the
+ * level's slot bitmaps, against the slot by slot scan of {@code Optional}s the
+ * level used before. Every slot number returned is read, so the lazily boxed
+ * result list pays for its elements too.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ColorQueryBenchmark {
+
+    private static final String[] COLORS = { "White", "Black", "Silver", "Grey", "Blue", "Red", "Green", "Yellow" };
+
+    @Param({"100000"})
+    int lotSize;
+
+    @Param({"50", "90"})
+    int fillPercent;
+
+    ParkingLotLevelDAO<Vehicle> level;
+    List<Optional<Vehicle>> legacySlots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        level = InMemoryParkingLotLevelDAOImpl.newInstance(1, lotSize, null);
+        legacySlots = new ArrayList<>(lotSize);
+        Random random = new Random(42);
+        VehicleType[] types = VehicleType.values();
+        for (int slot = 1; slot <= lotSize; slot++) {
+            Vehicle vehicle = null;
+            if (random.nextInt(100) < fillPercent) {
+                vehicle = types[random.nextInt(types.length)].newVehicle(
+                        ParkingServiceBenchmark.registration(slot), COLORS[random.nextInt(COLORS.length)]);
+                level.parkAt(slot, vehicle);
+            }
+            legacySlots.add(Optional.ofNullable(vehicle));
+        }
+    }
+
+    @Benchmark
+    public long slotNumbersFromColor() {
+        return sum(level.getSlotNumbersFromColor("white"));
+    }
+
+    @Benchmark
+    public long legacySlotNumbersFromColor() {
+        return sum(legacyScan("white", null));
+    }
+
+    @Benchmark
+    public long slotNumbersFromColorAndType() {
+        return sum(level.getSlotNumbersFromColor("white", VehicleType.VAN));
+    }
+
+    @Benchmark
+    public long legacySlotNumbersFromColorAndType() {
+        return sum(legacyScan("white", VehicleType.VAN));
+    }
+
+    @Benchmark
+    public List<String> regNumberForColorAndType() {
+        return level.getRegNumberForColor("white", VehicleType.VAN);
+    }
+
+    private List<Integer> legacyScan(String color, VehicleType type) {
+        List<Integer> slotList = new ArrayList<>();
+        for (int i = 0; i < legacySlots.size(); i++) {
+            Optional<Vehicle> slot = legacySlots.get(i);
+            if (slot.isPresent() && slot.get().getColor().equalsIgnoreCase(color)
+                    && (type == null || slot.get().getType() == type))
+                slotList.add(i + 1);
+        }
+        return slotList;
+    }
+
+    private static long sum(List<Integer> slots) {
+        long sum = 0;
+        for (int i = 0; i < slots.size(); i++)
+            sum += slots.get(i);
+        return sum;
+    }
+}
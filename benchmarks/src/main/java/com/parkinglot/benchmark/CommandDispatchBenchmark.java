@@ -0,0 +1,157 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.cmd.CmdRequestProcessor;
+import com.parkinglot.cmd.CmdRequestProcessorImpl;
+import com.parkinglot.cmd.Command;
+import com.parkinglot.cmd.CommandParser;
+import com.parkinglot.constants.CommandLineInputParameters;
+import com.parkinglot.constants.Constants;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commands per second of a log replay: the single pass parser and opcode table,
+ * against the split, boxed map lookup and string switch the processor used
+ * before, both on their own and end to end through a live lot.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandDispatchBenchmark {
+
+    private static final int LINES = 4096;
+    private static final int PARKED = 16;
+
+    String[] lines;
+    int next;
+    Command command;
+    CmdRequestProcessor processor;
+    ParkingService service;
+    PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ParkingException {
+        console = QuietConsole.silence();
+        service = new ParkingServiceImpl();
+        service.createParkingLot(1, 1024);
+        for (int i = 0; i < PARKED; i++)
+            service.park(1, new Car(ParkingServiceBenchmark.registration(i), "White"));
+        processor = new CmdRequestProcessorImpl();
+        processor.setService(service);
+        command = new Command();
+
+        // park into the first free slot, look it up, leave it again
+        lines = new String[LINES];
+        for (int i = 0; i < LINES; i += 4) {
+            String registration = ParkingServiceBenchmark.registration(PARKED + i);
+            lines[i] = Constants.PARK + " " + registration + " Green";
+            lines[i + 1] = Constants.SLOTS_NUMBER_FOR_REG_NUMBER + " " + registration;
+            lines[i + 2] = Constants.SLOTS_NUMBER_FOR_CARS_WITH_COLOR + " Green";
+            lines[i + 3] = Constants.LEAVE + " " + (PARKED + 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.cleanup();
+        QuietConsole.restore(console);
+    }
+
+    private String nextLine() {
+        String line = lines[next];
+        next = (next + 1) & (LINES - 1);
+        return line;
+    }
+
+    @Benchmark
+    public int parse() {
+        CommandParser.parse(nextLine(), command);
+        return command.getOpcode().ordinal() + command.getNumber();
+    }
+
+    @Benchmark
+    public int legacyParse() {
+        String input = nextLine();
+        if (!legacyValidate(input))
+            return -1;
+        String[] inputs = input.split(" ");
+        switch (inputs[0]) {
+            case Constants.LEAVE:
+                return Integer.parseInt(inputs[1]);
+            case Constants.PARK:
+                return inputs[1].length() + inputs[2].length();
+            default:
+                return inputs[1].length();
+        }
+    }
+
+    @Benchmark
+    public void replay() throws ParkingException {
+        if (CommandParser.parse(nextLine(), command))
+            processor.execute(command);
+    }
+
+    @Benchmark
+    public void legacyReplay() throws ParkingException {
+        String input = nextLine();
+        if (!legacyValidate(input))
+            return;
+        String[] inputs = input.split(" ");
+        switch (inputs[0]) {
+            case Constants.PARK:
+                service.park(new Car(inputs[1], inputs[2]));
+                break;
+            case Constants.LEAVE:
+                service.unPark(1, Integer.parseInt(inputs[1]));
+                break;
+            case Constants.SLOTS_NUMBER_FOR_CARS_WITH_COLOR:
+                service.getSlotNumbersFromColor(1, inputs[1]);
+                break;
+            case Constants.SLOTS_NUMBER_FOR_REG_NUMBER:
+                service.getSlotLocationFromRegistrationNo(inputs[1]);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // CmdRequestProcessor.validate as it was
+    private static boolean legacyValidate(String inputString) {
+        boolean valid = true;
+        try {
+            String[] inputs = inputString.split(" ");
+            int params = CommandLineInputParameters.getCommandsParameterMap().get(inputs[0]);
+            switch (inputs.length) {
+                case 1:
+                    if (params != 0)
+                        valid = false;
+                    break;
+                case 2:
+                    if (params != 1)
+                        valid = false;
+                    break;
+                case 3:
+                    if (params != 2)
+                        valid = false;
+                    break;
+                default:
+                    valid = false;
+            }
+        }
+        catch (Exception e) {
+            valid = false;
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,89 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Departure;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Park/leave throughput when gates work on their own level versus all on one level.
+ * Run with increasing thread counts, e.g. {@code -t 1 -t 2 -t 4 -t 8}.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Lot {
+
+        @Param({"8"})
+        int levels;
+
+        @Param({"1024"})
+        int capacity;
+
+        @Param({"true", "false"})
+        boolean levelPerThread;
+
+        ParkingService service;
+        PrintStream console;
+
+        @Setup(Level.Trial)
+        public void setUp() throws ParkingException {
+            console = QuietConsole.silence();
+            service = new ParkingServiceImpl();
+            service.createParkingLot(levels, capacity);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            service.cleanup();
+            QuietConsole.restore(console);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Gate {
+
+        int level;
+        Car car;
+
+        @Setup(Level.Trial)
+        public void setUp(Lot lot, ThreadParams threadParams) {
+            int thread = threadParams.getThreadIndex();
+            level = lot.levelPerThread ? 1 + thread % lot.levels : 1;
+            car = new Car("KA-01-GT-" + thread, "White");
+        }
+    }
+
+    @Benchmark
+    public Departure parkAndLeave(Lot lot, Gate gate) throws ParkingException {
+        int slot = lot.service.park(gate.level, gate.car).get();
+        return lot.service.unPark(gate.level, slot);
+    }
+
+    @Benchmark
+    @Group("parkWhileStatus")
+    @GroupThreads(3)
+    public Departure parkWhileStatusWriter(Lot lot, Gate gate) throws ParkingException {
+        return parkAndLeave(lot, gate);
+    }
+
+    @Benchmark
+    @Group("parkWhileStatus")
+    @GroupThreads(1)
+    public void parkWhileStatusReader(Lot lot) throws ParkingException {
+        lot.service.getStatus(lot.levelPerThread ? lot.levels : 1);
+    }
+}
@@ -0,0 +1,114 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.dao.InMemoryParkingLotLevelDAOImpl;
+import com.parkinglot.dao.ParkingLotLevelDAO;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.strategy.NearestFirstParkingStrategy;
+import com.parkinglot.model.strategy.ParkingStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The level DAO and its allocation strategy without the service around them, to
+ * catch regressions in {@link InMemoryParkingLotLevelDAOImpl} and
+ * {@link NearestFirstParkingStrategy}. Single threaded, as the DAO contract requires.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelDAOBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    int lotSize;
+
+    @Param({"10", "50", "90"})
+    int fillPercent;
+
+    ParkingLotLevelDAO<Vehicle> level;
+    ParkingStrategy strategy;
+    String[] parked;
+    Car car;
+    SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        level = InMemoryParkingLotLevelDAOImpl.newInstance(1, lotSize, null);
+        parked = new String[Math.max(1, lotSize * fillPercent / 100)];
+        for (int i = 0; i < parked.length; i++) {
+            parked[i] = ParkingServiceBenchmark.registration(i);
+            level.park(new Car(parked[i], ParkingServiceBenchmark.COLOURS[i % ParkingServiceBenchmark.COLOURS.length]));
+        }
+
+        strategy = new NearestFirstParkingStrategy(lotSize);
+        for (int i = 1; i <= lotSize; i++)
+            strategy.add(i);
+        for (int i = 0; i < parked.length; i++)
+            strategy.claimSlot();
+
+        car = new Car("KA-99-GT-0001", "Green");
+        random = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        level.cleanUp();
+    }
+
+    @Benchmark
+    public Departure parkAndUnPark() {
+        return level.unPark(level.park(car));
+    }
+
+    @Benchmark
+    public int slotNoFromRegistrationNo() {
+        return level.getSlotNoFromRegistrationNo(parked[random.nextInt(parked.length)]);
+    }
+
+    @Benchmark
+    public List<String> regNumberForColor() {
+        return level.getRegNumberForColor("White");
+    }
+
+    @Benchmark
+    public List<Integer> slotNumbersFromColor() {
+        return level.getSlotNumbersFromColor("White");
+    }
+
+    @Benchmark
+    public List<String> status() {
+        return level.getStatus();
+    }
+
+    @Benchmark
+    public List<String> statusAfterParkAndUnPark() {
+        level.unPark(level.park(car));
+        return level.getStatus();
+    }
+
+    @Benchmark
+    public StatusDelta statusChangesAfterPark() {
+        long version = level.getStatusVersion();
+        int slot = level.park(car);
+        StatusDelta delta = level.getStatusChanges(version);
+        level.unPark(slot);
+        return delta;
+    }
+
+    @Benchmark
+    public int strategyClaimAndFree() {
+        int slot = strategy.claimSlot();
+        strategy.add(slot);
+        return slot;
+    }
+}
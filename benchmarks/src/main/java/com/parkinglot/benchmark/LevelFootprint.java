@@ -0,0 +1,53 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.dao.InMemoryParkingLotLevelDAOImpl;
+import com.parkinglot.dao.ParkingLotLevelDAO;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Vehicle;
+
+/**
+ * Retained heap of one level, empty and full. Vehicles are allocated before the
+ * full measurement starts, so only the level's own bookkeeping is counted.
+ * <p>
+ * {@code java -cp target/benchmarks.jar com.parkinglot.benchmark.LevelFootprint 100000}
+ *
+ * @author Vinod Kandula
+ */
+public class LevelFootprint {
+
+    public static void main(String[] args) {
+        int capacity = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String[] colours = {"White", "Black", "Red", "Blue", "Silver"};
+
+        Vehicle[] vehicles = new Vehicle[capacity];
+        for (int i = 0; i < capacity; i++)
+            vehicles[i] = new Car(String.format("KA-%02d-HH-%04d", i / 10_000, i % 10_000), colours[i % colours.length]);
+
+        long baseline = usedHeap();
+        ParkingLotLevelDAO<Vehicle> level = InMemoryParkingLotLevelDAOImpl.newInstance(1, capacity, null);
+        long empty = usedHeap() - baseline;
+
+        for (Vehicle vehicle : vehicles)
+            level.park(vehicle);
+        long full = usedHeap() - baseline;
+
+        System.out.printf("capacity=%d empty=%.2f MB full=%.2f MB (%.1f bytes/slot full)%n", capacity,
+                empty / 1048576.0, full / 1048576.0, (double) full / capacity);
+        if (level.getAvailableSlotsCount() != 0 || vehicles.length != capacity)
+            throw new IllegalStateException();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,95 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry gate latency on a multi level lot where only the top level has room:
+ * the lot-wide park backed by the level availability index, against asking
+ * every level for its free count until one has room; and finding a car through
+ * the lot-wide registration index against asking level by level.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LotWideParkBenchmark {
+
+    @Param({"4", "24", "96"})
+    int levels;
+
+    @Param({"1000"})
+    int capacity;
+
+    ParkingService service;
+    Car car;
+    // parked on the highest full level, the worst case for probing
+    String lastParked;
+    PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ParkingException {
+        console = QuietConsole.silence();
+        service = new ParkingServiceImpl();
+        service.createParkingLot(levels, capacity);
+        int n = 0;
+        for (int level = 1; level < levels; level++) {
+            for (int i = 0; i < capacity; i++)
+                service.park(level, new Car(ParkingServiceBenchmark.registration(n++), "White"));
+        }
+        lastParked = ParkingServiceBenchmark.registration(n - 1);
+        car = new Car("KA-99-GT-0001", "Green");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.cleanup();
+        QuietConsole.restore(console);
+    }
+
+    @Benchmark
+    public SlotLocation indexedLookup() throws ParkingException {
+        return service.getSlotLocationFromRegistrationNo(lastParked);
+    }
+
+    @Benchmark
+    public int probingLookup() throws ParkingException {
+        for (int level = 1; level <= levels; level++) {
+            int slot = service.getSlotNoFromRegistrationNo(level, lastParked);
+            if (slot != Constants.NOT_FOUND)
+                return slot;
+        }
+        return Constants.NOT_FOUND;
+    }
+
+    @Benchmark
+    public Departure indexedPark() throws ParkingException {
+        SlotLocation location = service.park(car);
+        return service.unPark(location.getLevel(), location.getSlotNumber());
+    }
+
+    @Benchmark
+    public Departure probingPark() throws ParkingException {
+        for (int level = 1; level <= levels; level++) {
+            if (service.getAvailableSlotsCount(level).get() > 0) {
+                int slot = service.park(level, car).get();
+                if (slot != Constants.NOT_AVAILABLE)
+                    return service.unPark(level, slot);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.dao.InMemoryParkingLotDAOImpl;
+import com.parkinglot.dao.ParkingLotDAO;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lot-wide colour queries on a multi-level site, fanned out over the levels on
+ * the fork/join pool, against the caller looping over the levels one by one.
+ * The speedup is bounded by the cores available; on one core this shows the
+ * cost of the fan-out.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LotWideQueryBenchmark {
+
+    private static final String[] COLORS = { "White", "Black", "Silver", "Grey" };
+
+    @Param({"8"})
+    int levels;
+
+    @Param({"100000"})
+    int levelSize;
+
+    ParkingLotDAO<Vehicle> lot;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        lot = InMemoryParkingLotDAOImpl.newInstance(levels, levelSize);
+        Random random = new Random(42);
+        for (int level = 1; level <= levels; level++) {
+            for (int slot = 1; slot <= levelSize / 2; slot++) {
+                VehicleType type = random.nextBoolean() ? VehicleType.CAR : VehicleType.VAN;
+                lot.park(level, type.newVehicle(level + "-" + ParkingServiceBenchmark.registration(slot),
+                        COLORS[random.nextInt(COLORS.length)]));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<String> regNumberForColor() {
+        return lot.getRegNumberForColor("White", null);
+    }
+
+    @Benchmark
+    public List<String> serialRegNumberForColor() {
+        List<String> registrations = new ArrayList<>();
+        for (int level = 1; level <= levels; level++)
+            registrations.addAll(lot.getRegNumberForColor(level, "White"));
+        return registrations;
+    }
+
+    @Benchmark
+    public List<SlotLocation> slotLocationsFromColor() {
+        return lot.getSlotLocationsFromColor("White", VehicleType.VAN);
+    }
+
+    @Benchmark
+    public List<SlotLocation> serialSlotLocationsFromColor() {
+        List<SlotLocation> locations = new ArrayList<>();
+        for (int level = 1; level <= levels; level++) {
+            for (int slot : lot.getSlotNumbersFromColor(level, "White", VehicleType.VAN))
+                locations.add(new SlotLocation(level, slot));
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,105 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Departure;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end cost of every {@link ParkingService} operation on one level, across
+ * lot sizes and fill levels. Thread counts are chosen on the command line, e.g.
+ * {@code java -jar target/benchmarks.jar ParkingServiceBenchmark -t 1 -t 4}.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParkingServiceBenchmark {
+
+    static final String[] COLOURS = {"White", "Black", "Red", "Blue", "Silver"};
+
+    static String registration(int i) {
+        return String.format("KA-%02d-HH-%04d", i / 10_000, i % 10_000);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Lot {
+
+        @Param({"100", "10000", "1000000"})
+        int lotSize;
+
+        @Param({"10", "50", "90"})
+        int fillPercent;
+
+        ParkingService service;
+        String[] parked;
+        PrintStream console;
+
+        @Setup(Level.Trial)
+        public void setUp() throws ParkingException {
+            console = QuietConsole.silence();
+            service = new ParkingServiceImpl();
+            service.createParkingLot(1, lotSize);
+            parked = new String[Math.max(1, lotSize * fillPercent / 100)];
+            for (int i = 0; i < parked.length; i++) {
+                parked[i] = registration(i);
+                service.park(1, new Car(parked[i], COLOURS[i % COLOURS.length]));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            service.cleanup();
+            QuietConsole.restore(console);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Gate {
+
+        Car car;
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams threadParams) {
+            car = new Car("KA-99-GT-" + threadParams.getThreadIndex(), "Green");
+            random = new SplittableRandom(threadParams.getThreadIndex());
+        }
+    }
+
+    @Benchmark
+    public Departure parkAndLeave(Lot lot, Gate gate) throws ParkingException {
+        int slot = lot.service.park(1, gate.car).get();
+        return lot.service.unPark(1, slot);
+    }
+
+    @Benchmark
+    public int slotNoFromRegistrationNo(Lot lot, Gate gate) throws ParkingException {
+        return lot.service.getSlotNoFromRegistrationNo(1, lot.parked[gate.random.nextInt(lot.parked.length)]);
+    }
+
+    @Benchmark
+    public void regNumberForColor(Lot lot) throws ParkingException {
+        lot.service.getRegNumberForColor(1, "White");
+    }
+
+    @Benchmark
+    public void slotNumbersFromColor(Lot lot) throws ParkingException {
+        lot.service.getSlotNumbersFromColor(1, "White");
+    }
+
+    @Benchmark
+    public void status(Lot lot) throws ParkingException {
+        lot.service.getStatus(1);
+    }
+}
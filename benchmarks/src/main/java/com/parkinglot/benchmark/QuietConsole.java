@@ -0,0 +1,39 @@
+package com.parkinglot.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Swaps {@code System.out} for a sink that drops everything, so benchmarks
+ * measure the service and not the terminal.
+ *
+ * @author Vinod Kandula
+ */
+final class QuietConsole {
+
+    private static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    });
+
+    private QuietConsole() {
+    }
+
+    /**
+     * @return the previous {@code System.out}, to hand back to {@link #restore(PrintStream)}
+     */
+    static PrintStream silence() {
+        PrintStream console = System.out;
+        System.setOut(DISCARD);
+        return console;
+    }
+
+    static void restore(PrintStream console) {
+        System.setOut(console);
+    }
+}
@@ -0,0 +1,63 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.reservation.TimingWheel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a reservation's timer: scheduling a hold and cancelling it when the
+ * vehicle arrives, with a standing population of pending holds, on the timing
+ * wheel and on a delay queue executor (one heap entry per timer).
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReservationBenchmark {
+
+    private static final Runnable NOTHING = () -> {
+    };
+
+    @Param({"1000", "1000000"})
+    int pending;
+
+    TimingWheel wheel;
+    ScheduledThreadPoolExecutor executor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wheel = new TimingWheel(100);
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        // holds spread over the next hour, none of which come due during the run
+        for (int i = 0; i < pending; i++) {
+            long delay = TimeUnit.MINUTES.toMillis(10) + i % 3_000_000;
+            wheel.schedule(delay, TimeUnit.MILLISECONDS, NOTHING);
+            executor.schedule(NOTHING, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wheel.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean wheelHoldAndClaim() {
+        return wheel.schedule(15, TimeUnit.MINUTES, NOTHING).cancel();
+    }
+
+    @Benchmark
+    public boolean executorHoldAndClaim() {
+        ScheduledFuture<?> future = executor.schedule(NOTHING, 15, TimeUnit.MINUTES);
+        return future.cancel(false);
+    }
+}
@@ -0,0 +1,82 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.model.strategy.ClosestToExitParkingStrategy;
+import com.parkinglot.model.strategy.FarthestFirstParkingStrategy;
+import com.parkinglot.model.strategy.NearestFirstParkingStrategy;
+import com.parkinglot.model.strategy.ParkingStrategy;
+import com.parkinglot.model.strategy.RoundRobinParkingStrategy;
+import com.parkinglot.model.strategy.ZonedParkingStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one car entering and a random other car leaving, for each allocation
+ * strategy, at a steady fill level. Frees land anywhere in the level, so the
+ * free set fragments the way it does in a real lot.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrategyBenchmark {
+
+    @Param({"nearestFirst", "farthestFirst", "roundRobin", "zoned", "closestToExit"})
+    String strategyName;
+
+    @Param({"100", "10000", "1000000"})
+    int lotSize;
+
+    @Param({"50", "90"})
+    int fillPercent;
+
+    ParkingStrategy strategy;
+    int[] occupied;
+    SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        strategy = create(strategyName, lotSize);
+        for (int i = 1; i <= lotSize; i++)
+            strategy.add(i);
+        occupied = new int[Math.max(1, lotSize * fillPercent / 100)];
+        for (int i = 0; i < occupied.length; i++)
+            occupied[i] = strategy.claimSlot();
+        random = new SplittableRandom(7);
+    }
+
+    static ParkingStrategy create(String name, int lotSize) {
+        switch (name) {
+            case "nearestFirst":
+                return new NearestFirstParkingStrategy(lotSize);
+            case "farthestFirst":
+                return new FarthestFirstParkingStrategy(lotSize);
+            case "roundRobin":
+                return new RoundRobinParkingStrategy(lotSize);
+            case "zoned": {
+                // small, regular and large bays, regular filled first
+                int small = lotSize / 4;
+                int large = lotSize / 4;
+                return new ZonedParkingStrategy(new int[]{small, lotSize - small - large, large}, new int[]{1, 0, 2});
+            }
+            case "closestToExit":
+                return ClosestToExitParkingStrategy.withExitAt(lotSize, lotSize / 3);
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+
+    @Benchmark
+    public int enterAndLeave() {
+        int slot = strategy.claimSlot();
+        int leaving = random.nextInt(occupied.length);
+        strategy.add(occupied[leaving]);
+        occupied[leaving] = slot;
+        return slot;
+    }
+}
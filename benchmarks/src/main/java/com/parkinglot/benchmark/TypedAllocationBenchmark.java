@@ -0,0 +1,67 @@
+package com.parkinglot.benchmark;
+
+import com.parkinglot.model.ElectricCar;
+import com.parkinglot.model.SlotType;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.strategy.NearestFirstParkingStrategy;
+import com.parkinglot.model.strategy.ParkingStrategy;
+import com.parkinglot.model.strategy.TypedParkingStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claim and give back one slot on a mixed level, for an electric car that finds
+ * its charging bays free, and for one that falls back past full charging and car
+ * pools to the vans, against nearest-first on an untyped level of the same size.
+ *
+ * @author Vinod Kandula
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TypedAllocationBenchmark {
+
+    private static final int CAPACITY = 10_000;
+
+    @Param({"preferred", "fallback"})
+    String pool;
+
+    ParkingStrategy typed;
+    ParkingStrategy untyped;
+    Vehicle electric;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // a tenth bikes, charging bays and vans each, the rest cars
+        SlotType[] layout = new SlotType[CAPACITY];
+        for (int i = 0; i < CAPACITY; i++)
+            layout[i] = i % 10 == 0 ? SlotType.MOTORBIKE : i % 10 == 1 ? SlotType.EV_CHARGING
+                    : i % 10 == 2 ? SlotType.VAN : SlotType.CAR;
+        typed = new TypedParkingStrategy(layout);
+        untyped = new NearestFirstParkingStrategy(CAPACITY);
+        for (int i = 1; i <= CAPACITY; i++) {
+            untyped.add(i);
+            if (pool.equals("preferred") || layout[i - 1] == SlotType.VAN || layout[i - 1] == SlotType.MOTORBIKE)
+                typed.add(i);
+        }
+        electric = new ElectricCar("KA-01-EV-0001", "White");
+    }
+
+    @Benchmark
+    public int typedClaimAndAdd() {
+        int slot = typed.claimSlot(electric);
+        typed.add(slot);
+        return slot;
+    }
+
+    @Benchmark
+    public int untypedClaimAndAdd() {
+        int slot = untyped.claimSlot(electric);
+        untyped.add(slot);
+        return slot;
+    }
+}
@@ -0,0 +1,236 @@
+package com.parkinglot;
+
+import com.parkinglot.cmd.CmdRequestProcessor;
+import com.parkinglot.cmd.CmdRequestProcessorImpl;
+import com.parkinglot.cmd.Command;
+import com.parkinglot.cmd.CommandParser;
+import com.parkinglot.cmd.MappedCommandReader;
+import com.parkinglot.exception.ErrorCode;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.server.ParkingServer;
+import com.parkinglot.service.BufferedResultSink;
+import com.parkinglot.service.ChannelResultSink;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import com.parkinglot.service.ResultSink;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * @author Vinod Kandula
+ */
+public class Main {
+
+    private static final String MAPPED_FILE_MODE = "--mmap";
+    private static final String SERVER_MODE = "--server";
+
+    // -Dparkinglot.metrics.interval=<seconds> prints the metrics table to stderr that often
+    private static final String METRICS_INTERVAL_PROPERTY = "parkinglot.metrics.interval";
+
+    // -Dparkinglot.server.host=<address> to listen beyond this machine
+    private static final String SERVER_HOST_PROPERTY = "parkinglot.server.host";
+
+    // -Dparkinglot.data.dir=<dir> keeps the lot across restarts
+    private static final String DATA_DIR_PROPERTY = "parkinglot.data.dir";
+
+    public static void main(String[] args) {
+        CmdRequestProcessor cmdRequestProcessor = new CmdRequestProcessorImpl();
+        ParkingService parkingService = new ParkingServiceImpl();
+        cmdRequestProcessor.setService(parkingService);
+        // however the process ends, the journal is flushed and closed and the lot's threads stopped;
+        // a server is stopped first so no command runs against the lot while it goes away
+        AtomicReference<ParkingServer> server = new AtomicReference<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(server.get(), parkingService), "parking-shutdown"));
+        BufferedReader bufferReader = null;
+        ResultSink resultSink = null;
+        String input = null;
+        Command command = new Command();
+
+        try {
+            /*System.out.println("\n\n\n\n\n");
+            System.out.println("===================================================================");
+            System.out.println("===================      GOJEK PARKING LOT     ====================");
+            System.out.println("===================================================================");
+            printUsage();*/
+            String dataDirectory = System.getProperty(DATA_DIR_PROPERTY);
+            if (dataDirectory != null) {
+                parkingService.setDataDirectory(Paths.get(dataDirectory));
+                parkingService.recover();
+            }
+            Long metricsInterval = Long.getLong(METRICS_INTERVAL_PROPERTY);
+            if (metricsInterval != null && metricsInterval > 0)
+                parkingService.getMetrics().startDump(metricsInterval, TimeUnit.SECONDS, System.err);
+            switch (args.length) {
+                case 0: {
+                    // Interactive: command-line input/output
+                    System.out.println("Please Enter 'exit' to end Execution");
+                    System.out.println("Input:");
+                    while (true) {
+                        try {
+                            bufferReader = new BufferedReader(new InputStreamReader(System.in));
+                            input = bufferReader.readLine().trim();
+                            if (input.equalsIgnoreCase("exit")) {
+                                break;
+                            }
+                            else {
+                                if (CommandParser.parse(input, command)) {
+                                    try {
+                                        cmdRequestProcessor.execute(command);
+                                    }
+                                    catch (Exception e) {
+                                        System.out.println(e.getMessage());
+                                    }
+                                }
+                                else {
+                                    System.out.println("Input arguments Validation Failed");
+                                    //printUsage();
+                                }
+                            }
+                        }
+                        catch (Exception e) {
+                            throw new ParkingException(ErrorCode.INVALID_REQUEST.getMessage(), e);
+                        }
+                    }
+                    break;
+                }
+                case 1: {
+                    // File input/output
+                    File inputFile = new File(args[0]);
+                    // Output is only flushed when the whole file has been processed
+                    resultSink = new BufferedResultSink(System.out);
+                    parkingService.setResultSink(resultSink);
+                    try {
+                        bufferReader = new BufferedReader(new FileReader(inputFile));
+                        int lineNo = 1;
+                        while ((input = bufferReader.readLine()) != null) {
+                            input = input.trim();
+                            if (CommandParser.parse(input, command)) {
+                                try {
+                                    cmdRequestProcessor.execute(command);
+                                }
+                                catch (Exception e) {
+                                    resultSink.write(e.getMessage());
+                                }
+                            }
+                            else
+                                resultSink.write("Incorrect Command Found at line: " + lineNo + " ,Input: " + input);
+                            lineNo++;
+                        }
+                    }
+                    catch (Exception e) {
+                        throw new ParkingException(ErrorCode.INVALID_FILE.getMessage(), e);
+                    }
+                    break;
+                }
+                case 2: {
+                    if (SERVER_MODE.equals(args[0])) {
+                        // Long running: the line protocol over TCP until the process is stopped
+                        String host = System.getProperty(SERVER_HOST_PROPERTY);
+                        try {
+                            InetSocketAddress address = host != null
+                                    ? new InetSocketAddress(host, Integer.parseInt(args[1]))
+                                    : new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(args[1]));
+                            server.set(new ParkingServer(cmdRequestProcessor, parkingService, address));
+                            System.out.println("Listening on " + address.getHostString() + ":" + server.get().getPort());
+                            // serves on its own thread, which the shutdown hook joins
+                            server.get().start();
+                        }
+                        catch (IOException | IllegalArgumentException e) {
+                            throw new ParkingException(ErrorCode.INVALID_REQUEST.getMessage(), e);
+                        }
+                        break;
+                    }
+                    if (!MAPPED_FILE_MODE.equals(args[0])) {
+                        System.out.println("Invalid input. Usage Style: java -jar <jar_file_path> " + MAPPED_FILE_MODE + " <input_file_path>"
+                                + " or java -jar <jar_file_path> " + SERVER_MODE + " <port>");
+                        break;
+                    }
+                    // Large files: memory mapped input, one big buffered channel for output
+                    resultSink = new ChannelResultSink(new FileOutputStream(FileDescriptor.out).getChannel());
+                    parkingService.setResultSink(resultSink);
+                    try (MappedCommandReader reader = new MappedCommandReader(new File(args[1]).toPath())) {
+                        while (reader.next(command)) {
+                            if (command.isValid()) {
+                                try {
+                                    cmdRequestProcessor.execute(command);
+                                }
+                                catch (Exception e) {
+                                    resultSink.write(e.getMessage());
+                                }
+                            }
+                            else
+                                resultSink.write("Incorrect Command Found at line: " + reader.getLineNo() + " ,Input: " + reader.getLine());
+                        }
+                    }
+                    catch (Exception e) {
+                        throw new ParkingException(ErrorCode.INVALID_FILE.getMessage(), e);
+                    }
+                    break;
+                }
+                default:
+                    System.out.println("Invalid input. Usage Style: java -jar <jar_file_path> <input_file_path>");
+            }
+        }
+        catch (ParkingException e) {
+            if (resultSink != null)
+                resultSink.flush();
+            e.printStackTrace();
+            System.out.println(e.getMessage());
+        }
+        finally {
+            if (resultSink != null)
+                resultSink.flush();
+            try {
+                if (bufferReader != null)
+                    bufferReader.close();
+            }
+            catch (IOException e) {
+            }
+        }
+    }
+
+    private static void shutdown(ParkingServer server, ParkingService parkingService) {
+        if (server != null) {
+            try {
+                server.close();
+            }
+            catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        parkingService.cleanup();
+    }
+
+    private static void printUsage() {
+        StringBuilder buffer = new StringBuilder();
+        buffer = buffer.append(
+                "--------------Please Enter one of the below commands. {variable} to be replaced -----------------------")
+                .append("\n");
+        buffer = buffer.append("A) For creating parking lot of size n               ---> create_parking_lot {capacity}")
+                .append("\n");
+        buffer = buffer
+                .append("B) To park a car                                    ---> park <<car_number>> {car_clour}")
+                .append("\n");
+        buffer = buffer.append("C) Remove(Unpark) car from parking                  ---> leave {slot_number}")
+                .append("\n");
+        buffer = buffer.append("D) Print status of parking slot                     ---> status").append("\n");
+        buffer = buffer.append(
+                "E) Get cars registration no for the given car color ---> registration_numbers_for_cars_with_colour {car_color}")
+                .append("\n");
+        buffer = buffer.append(
+                "F) Get slot numbers for the given car color         ---> slot_numbers_for_cars_with_colour {car_color}")
+                .append("\n");
+        buffer = buffer.append(
+                "G) Get slot number for the given car number         ---> slot_number_for_registration_number {car_number}")
+                .append("\n");
+        System.out.println(buffer.toString());
+    }
+
+
+}
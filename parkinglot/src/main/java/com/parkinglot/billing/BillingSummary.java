@@ -0,0 +1,24 @@
+package com.parkinglot.billing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Revenue and dwell time of a level since the lot was created. Money is in the
+ * tariff's minor unit; dwell percentiles are within about 3%.
+ *
+ * @author Vinod Kandula
+ */
+@AllArgsConstructor
+@Data
+public final class BillingSummary {
+
+    private final int level;
+    private final long departures;
+    private final long revenue;
+    private final long totalDwellMillis;
+    private final long meanDwellMillis;
+    private final long medianDwellMillis;
+    private final long p90DwellMillis;
+    private final long maxDwellMillis;
+}
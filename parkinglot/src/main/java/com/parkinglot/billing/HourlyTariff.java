@@ -0,0 +1,44 @@
+package com.parkinglot.billing;
+
+import com.parkinglot.model.Vehicle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A rate per started hour, capped per started day, with an optional free grace
+ * period for vehicles that leave straight away.
+ *
+ * @author Vinod Kandula
+ */
+public class HourlyTariff implements Tariff {
+
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private final long graceMillis;
+    private final long hourlyRate;
+    private final long dailyCap;
+
+    /**
+     * @param hourlyRate minor units per started hour
+     * @param dailyCap   most charged for any one day; a full day costs exactly this
+     */
+    public HourlyTariff(long graceMillis, long hourlyRate, long dailyCap) {
+        if (graceMillis < 0 || hourlyRate < 0 || dailyCap < 0)
+            throw new IllegalArgumentException("Tariff figures must not be negative");
+        this.graceMillis = graceMillis;
+        this.hourlyRate = hourlyRate;
+        this.dailyCap = dailyCap;
+    }
+
+    @Override
+    public long fee(Vehicle vehicle, long entryMillis, long exitMillis) {
+        long stay = exitMillis - entryMillis;
+        if (stay <= graceMillis)
+            return 0;
+        long days = stay / DAY;
+        // any part of an hour is charged as a whole one
+        long hours = (stay % DAY + HOUR - 1) / HOUR;
+        return days * dailyCap + Math.min(dailyCap, hours * hourlyRate);
+    }
+}
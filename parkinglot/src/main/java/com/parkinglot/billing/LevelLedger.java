@@ -0,0 +1,61 @@
+package com.parkinglot.billing;
+
+import com.parkinglot.metrics.LatencyHistogram;
+import com.parkinglot.model.Vehicle;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revenue and dwell time of one level, kept up to date by every leave rather
+ * than worked out from the slots when asked. A departure costs the tariff's
+ * arithmetic, a striped add and a histogram record, whose count and sum double
+ * as the departure count and total dwell. Reads may run at any time and may
+ * miss a departure that is in flight.
+ *
+ * @author Vinod Kandula
+ */
+public class LevelLedger {
+
+    private final int level;
+    private volatile Tariff tariff = Tariff.FREE;
+    private final LongAdder revenue = new LongAdder();
+    // the histogram is unit-free; here it holds milliseconds
+    private final LatencyHistogram dwellTime = new LatencyHistogram();
+
+    public LevelLedger(int level) {
+        this.level = level;
+    }
+
+    public void setTariff(Tariff tariff) {
+        this.tariff = tariff == null ? Tariff.FREE : tariff;
+    }
+
+    public Tariff getTariff() {
+        return tariff;
+    }
+
+    /**
+     * Prices a stay and adds it to the totals.
+     *
+     * @return the fee
+     */
+    public long depart(Vehicle vehicle, long entryMillis, long exitMillis) {
+        long stay = Math.max(0, exitMillis - entryMillis);
+        long fee = tariff.fee(vehicle, entryMillis, exitMillis);
+        revenue.add(fee);
+        dwellTime.record(stay);
+        return fee;
+    }
+
+    public BillingSummary summary() {
+        long count = dwellTime.getCount();
+        long dwell = dwellTime.getSum();
+        return new BillingSummary(level, count, revenue.sum(), dwell, count == 0 ? 0 : dwell / count,
+                dwellTime.getValueAtPercentile(50), dwellTime.getValueAtPercentile(90), dwellTime.getMax());
+    }
+
+    public void reset() {
+        revenue.reset();
+        dwellTime.reset();
+    }
+}
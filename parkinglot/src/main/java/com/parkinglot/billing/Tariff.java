@@ -0,0 +1,20 @@
+package com.parkinglot.billing;
+
+import com.parkinglot.model.Vehicle;
+
+/**
+ * Prices a stay. Called on the leave path under the level's write lock, so it
+ * must be plain arithmetic: no lookups, no allocation.
+ *
+ * @author Vinod Kandula
+ */
+@FunctionalInterface
+public interface Tariff {
+
+    public static final Tariff FREE = (vehicle, entryMillis, exitMillis) -> 0;
+
+    /**
+     * @return the fee in the currency's minor unit, e.g. paise or cents
+     */
+    public long fee(Vehicle vehicle, long entryMillis, long exitMillis);
+}
@@ -0,0 +1,36 @@
+package com.parkinglot.cmd;
+
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.service.Service;
+
+import java.util.List;
+
+/**
+ * @author Vinod Kandula
+ */
+public interface CmdRequestProcessor {
+
+    public void setService(Service service);
+
+    public void execute(String action) throws ParkingException;
+
+    /**
+     * Executes a command that has already been tokenized and validated.
+     */
+    public void execute(Command command) throws ParkingException;
+
+    /**
+     * Runs a burst of park and leave commands, one lock acquisition per level.
+     * Any other command in the batch is answered with an invalid request message.
+     *
+     * @return one result message per input line, in input order
+     */
+    public List<String> executeBatch(List<String> inputs);
+
+    /**
+     * @return true when the line is a known command with the right number of parameters
+     */
+    public default boolean validate(String inputString) {
+        return CommandParser.isValid(inputString);
+    }
+}
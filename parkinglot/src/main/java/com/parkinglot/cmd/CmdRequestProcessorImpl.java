@@ -0,0 +1,121 @@
+package com.parkinglot.cmd;
+
+import com.parkinglot.exception.ErrorCode;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.SlotOperation;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Vinod Kandula
+ */
+public class CmdRequestProcessorImpl implements CmdRequestProcessor {
+
+    private ParkingService parkingService;
+
+    // indexed by opcode ordinal
+    private final CommandHandler[] handlers = dispatchTable();
+
+    // execute(String) parses into this, so the processor stays safe to share between threads
+    private final ThreadLocal<Command> scratch = ThreadLocal.withInitial(Command::new);
+
+    @Override
+    public void setService(Service service) {
+        this.parkingService = (ParkingService) service;
+    }
+
+    @Override
+    public void execute(String input) throws ParkingException {
+        Command command = scratch.get();
+        // callers validate first; anything else is ignored
+        if (CommandParser.parse(input, command))
+            execute(command);
+    }
+
+    @Override
+    public void execute(Command command) throws ParkingException {
+        handlers[command.getOpcode().ordinal()].execute(command);
+    }
+
+    private CommandHandler[] dispatchTable() {
+        int level = 1;
+        CommandHandler[] table = new CommandHandler[Opcode.values().length];
+        table[Opcode.CREATE_PARKING_LOT.ordinal()] = command -> {
+            if (command.getNumber() <= 0)
+                throw new ParkingException(ErrorCode.INVALID_VALUE.getMessage().replace("{variable}", "capacity"));
+            parkingService.createParkingLot(level, command.getNumber());
+        };
+        table[Opcode.PARK.ordinal()] = command ->
+                parkingService.park(new Car(command.getFirstParameter(), command.getSecondParameter()));
+        table[Opcode.LEAVE.ordinal()] = command -> {
+            if (command.getNumber() == Command.NO_NUMBER)
+                throw new ParkingException(ErrorCode.INVALID_VALUE.getMessage().replace("{variable}", "slot_number"));
+            parkingService.unPark(level, command.getNumber());
+        };
+        table[Opcode.STATUS.ordinal()] = command -> parkingService.streamStatus(level);
+        table[Opcode.REG_NUMBER_FOR_CARS_WITH_COLOR.ordinal()] = command ->
+                parkingService.getRegNumberForColor(level, command.getFirstParameter());
+        table[Opcode.SLOTS_NUMBER_FOR_CARS_WITH_COLOR.ordinal()] = command ->
+                parkingService.getSlotNumbersFromColor(level, command.getFirstParameter());
+        table[Opcode.SLOTS_NUMBER_FOR_REG_NUMBER.ordinal()] = command ->
+                parkingService.getSlotLocationFromRegistrationNo(command.getFirstParameter());
+        return table;
+    }
+
+    private interface CommandHandler {
+
+        void execute(Command command) throws ParkingException;
+    }
+
+    @Override
+    public List<String> executeBatch(List<String> inputs) {
+        int level = 1;
+        String[] results = new String[inputs.size()];
+        Map<Integer, List<SlotOperation>> operationsByLevel = new LinkedHashMap<>();
+        Map<Integer, List<Integer>> positionsByLevel = new LinkedHashMap<>();
+        Command command = scratch.get();
+        for (int i = 0; i < results.length; i++) {
+            SlotOperation operation = null;
+            if (CommandParser.parse(inputs.get(i), command)) {
+                if (command.getOpcode() == Opcode.PARK)
+                    operation = SlotOperation.park(new Car(command.getFirstParameter(), command.getSecondParameter()));
+                else if (command.getOpcode() == Opcode.LEAVE) {
+                    if (command.getNumber() == Command.NO_NUMBER) {
+                        results[i] = ErrorCode.INVALID_VALUE.getMessage().replace("{variable}", "slot_number");
+                        continue;
+                    }
+                    operation = SlotOperation.leave(command.getNumber());
+                }
+            }
+            if (operation == null) {
+                results[i] = ErrorCode.INVALID_REQUEST.getMessage();
+                continue;
+            }
+            operationsByLevel.computeIfAbsent(level, k -> new ArrayList<>()).add(operation);
+            positionsByLevel.computeIfAbsent(level, k -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<Integer, List<SlotOperation>> entry : operationsByLevel.entrySet()) {
+            List<Integer> positions = positionsByLevel.get(entry.getKey());
+            List<String> messages;
+            try {
+                messages = parkingService.applyBatch(entry.getKey(), entry.getValue());
+            }
+            catch (ParkingException e) {
+                messages = new ArrayList<>();
+                for (int i = 0; i < positions.size(); i++)
+                    messages.add(e.getMessage());
+            }
+            for (int i = 0; i < positions.size(); i++)
+                results[positions.get(i)] = messages.get(i);
+        }
+        return Arrays.asList(results);
+    }
+}
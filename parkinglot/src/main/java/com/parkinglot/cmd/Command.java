@@ -0,0 +1,62 @@
+package com.parkinglot.cmd;
+
+/**
+ * One parsed input line. Instances are reused from line to line by the readers
+ * and {@link CommandParser} that fill them, so callers must not hold on to a
+ * command after the next read.
+ *
+ * @author Vinod Kandula
+ */
+public class Command {
+
+    public static final int NO_NUMBER = Integer.MIN_VALUE;
+
+    // null when the line is not a known command
+    Opcode opcode;
+    // keyword of the opcode, one of the Constants command names
+    String action;
+    boolean valid;
+    String firstParameter;
+    String secondParameter;
+    int number = NO_NUMBER;
+
+    void reset() {
+        opcode = null;
+        action = null;
+        valid = false;
+        firstParameter = null;
+        secondParameter = null;
+        number = NO_NUMBER;
+    }
+
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    /**
+     * @return true when the action is known and has the expected number of parameters
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    public String getFirstParameter() {
+        return firstParameter;
+    }
+
+    public String getSecondParameter() {
+        return secondParameter;
+    }
+
+    /**
+     * @return the numeric parameter of leave and create_parking_lot, or {@link #NO_NUMBER}
+     *         when it is not a valid integer
+     */
+    public int getNumber() {
+        return number;
+    }
+}
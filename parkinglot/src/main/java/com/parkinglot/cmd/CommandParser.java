@@ -0,0 +1,120 @@
+package com.parkinglot.cmd;
+
+/**
+ * Tokenizes a command line in one pass into a reusable {@link Command}: the
+ * keyword is matched in place against the {@link Opcode} table, numeric
+ * parameters are parsed straight from the characters, and the only objects
+ * created are the registration and colour parameter Strings.
+ * Parameters are separated by runs of spaces or tabs; leading and trailing
+ * blanks are ignored.
+ *
+ * @author Vinod Kandula
+ */
+public final class CommandParser {
+
+    private static final int MAX_TOKENS = 3;
+
+    private CommandParser() {
+    }
+
+    /**
+     * Fills the command from the line.
+     *
+     * @return {@link Command#isValid()}
+     */
+    public static boolean parse(CharSequence line, Command command) {
+        command.reset();
+        int end = line.length();
+        int i = skipBlanks(line, 0, end);
+
+        // keyword
+        int keywordStart = i;
+        i = skipToken(line, i, end);
+        if (i == keywordStart)
+            return false;
+        Opcode opcode = Opcode.match(line, keywordStart, i);
+        if (opcode == null)
+            return false;
+
+        // parameters
+        int firstStart = -1, firstEnd = -1, secondStart = -1, secondEnd = -1;
+        int tokens = 1;
+        while ((i = skipBlanks(line, i, end)) < end) {
+            if (tokens == MAX_TOKENS)
+                return false;
+            int start = i;
+            i = skipToken(line, i, end);
+            if (tokens == 1) {
+                firstStart = start;
+                firstEnd = i;
+            }
+            else {
+                secondStart = start;
+                secondEnd = i;
+            }
+            tokens++;
+        }
+        command.opcode = opcode;
+        command.action = opcode.getKeyword();
+        if (tokens - 1 != opcode.getParameterCount())
+            return false;
+        command.valid = true;
+        if (opcode.isNumeric())
+            command.number = number(line, firstStart, firstEnd);
+        else if (firstStart >= 0)
+            command.firstParameter = line.subSequence(firstStart, firstEnd).toString();
+        if (secondStart >= 0)
+            command.secondParameter = line.subSequence(secondStart, secondEnd).toString();
+        return true;
+    }
+
+    /**
+     * Checks the keyword and parameter count without creating anything.
+     */
+    public static boolean isValid(CharSequence line) {
+        int end = line.length();
+        int i = skipBlanks(line, 0, end);
+        int keywordStart = i;
+        i = skipToken(line, i, end);
+        Opcode opcode = i == keywordStart ? null : Opcode.match(line, keywordStart, i);
+        if (opcode == null)
+            return false;
+        int parameters = 0;
+        while ((i = skipBlanks(line, i, end)) < end) {
+            i = skipToken(line, i, end);
+            parameters++;
+        }
+        return parameters == opcode.getParameterCount();
+    }
+
+    private static int number(CharSequence line, int start, int end) {
+        boolean negative = line.charAt(start) == '-';
+        int i = negative || line.charAt(start) == '+' ? start + 1 : start;
+        if (i == end || end - i > 9)
+            return Command.NO_NUMBER;
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9)
+                return Command.NO_NUMBER;
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static int skipBlanks(CharSequence line, int i, int end) {
+        while (i < end && isBlank(line.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static int skipToken(CharSequence line, int i, int end) {
+        while (i < end && !isBlank(line.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+}
@@ -0,0 +1,168 @@
+package com.parkinglot.cmd;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a command file through memory mapped regions and tokenizes each line in
+ * place. The command keyword is matched on the raw bytes and numeric parameters
+ * are parsed from them directly; Strings are only created for registration and
+ * colour parameters, which the service needs anyway.
+ *
+ * @author Vinod Kandula
+ */
+public class MappedCommandReader implements Closeable {
+
+    private static final long REGION_SIZE = 1L << 28;
+    private static final int MAX_TOKENS = 3;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    private final int[] tokenStart = new int[MAX_TOKENS + 1];
+    private final int[] tokenEnd = new int[MAX_TOKENS + 1];
+    private byte[] scratch = new byte[128];
+    private int lineStart;
+    private int lineEnd;
+    private int lineNo;
+
+    public MappedCommandReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        map(0);
+    }
+
+    /**
+     * Fills the command from the next line of the file.
+     *
+     * @return false once the file is exhausted
+     */
+    public boolean next(Command command) throws IOException {
+        while (true) {
+            int start = region.position();
+            int limit = region.limit();
+            int end = start;
+            while (end < limit && region.get(end) != '\n')
+                end++;
+            if (end == limit) {
+                if (regionStart + limit < fileSize) {
+                    if (start == 0)
+                        throw new IOException("Line " + (lineNo + 1) + " is longer than " + REGION_SIZE + " bytes");
+                    // the line runs past this region, continue from its first byte
+                    map(regionStart + start);
+                    continue;
+                }
+                if (start == limit)
+                    return false;
+                region.position(limit);
+            }
+            else {
+                region.position(end + 1);
+            }
+            lineNo++;
+            parse(command, start, end);
+            return true;
+        }
+    }
+
+    /**
+     * @return the 1-based number of the line last read
+     */
+    public int getLineNo() {
+        return lineNo;
+    }
+
+    /**
+     * @return the trimmed text of the line last read; only meant for error messages
+     */
+    public String getLine() {
+        return text(lineStart, lineEnd);
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+
+    private void map(long start) throws IOException {
+        regionStart = start;
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, fileSize - start));
+    }
+
+    private void parse(Command command, int start, int end) {
+        command.reset();
+        while (start < end && isBlank(region.get(start)))
+            start++;
+        while (end > start && isBlank(region.get(end - 1)))
+            end--;
+        lineStart = start;
+        lineEnd = end;
+
+        int tokens = 0;
+        int i = start;
+        while (i < end) {
+            if (tokens > MAX_TOKENS)
+                return;
+            tokenStart[tokens] = i;
+            while (i < end && !isBlank(region.get(i)))
+                i++;
+            tokenEnd[tokens++] = i;
+            while (i < end && isBlank(region.get(i)))
+                i++;
+        }
+        if (tokens == 0 || tokens > MAX_TOKENS)
+            return;
+
+        Opcode opcode = Opcode.match(region, tokenStart[0], tokenEnd[0]);
+        if (opcode == null)
+            return;
+        command.opcode = opcode;
+        command.action = opcode.getKeyword();
+        command.valid = opcode.getParameterCount() == tokens - 1;
+        if (!command.valid)
+            return;
+
+        if (opcode.isNumeric())
+            command.number = number(tokenStart[1], tokenEnd[1]);
+        else if (tokens > 1)
+            command.firstParameter = text(tokenStart[1], tokenEnd[1]);
+        if (tokens > 2)
+            command.secondParameter = text(tokenStart[2], tokenEnd[2]);
+    }
+
+    private int number(int start, int end) {
+        boolean negative = region.get(start) == '-';
+        int i = negative || region.get(start) == '+' ? start + 1 : start;
+        if (i == end || end - i > 9)
+            return Command.NO_NUMBER;
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = region.get(i) - '0';
+            if (digit < 0 || digit > 9)
+                return Command.NO_NUMBER;
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private String text(int start, int end) {
+        int length = end - start;
+        if (scratch.length < length)
+            scratch = new byte[Math.max(length, scratch.length << 1)];
+        for (int i = 0; i < length; i++)
+            scratch[i] = region.get(start + i);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
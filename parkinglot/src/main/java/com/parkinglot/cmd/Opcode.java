@@ -0,0 +1,102 @@
+package com.parkinglot.cmd;
+
+import com.parkinglot.constants.Constants;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The command set. Keywords are looked up by length first, which tells them all
+ * apart, so matching a keyword costs one array read and one comparison.
+ *
+ * @author Vinod Kandula
+ */
+public enum Opcode {
+
+    CREATE_PARKING_LOT(Constants.CREATE_PARKING_LOT, 1, true),
+    PARK(Constants.PARK, 2, false),
+    LEAVE(Constants.LEAVE, 1, true),
+    STATUS(Constants.STATUS, 0, false),
+    REG_NUMBER_FOR_CARS_WITH_COLOR(Constants.REG_NUMBER_FOR_CARS_WITH_COLOR, 1, false),
+    SLOTS_NUMBER_FOR_CARS_WITH_COLOR(Constants.SLOTS_NUMBER_FOR_CARS_WITH_COLOR, 1, false),
+    SLOTS_NUMBER_FOR_REG_NUMBER(Constants.SLOTS_NUMBER_FOR_REG_NUMBER, 1, false);
+
+    private static final Opcode[][] BY_LENGTH;
+
+    static {
+        int longest = 0;
+        for (Opcode opcode : values())
+            longest = Math.max(longest, opcode.keyword.length());
+        BY_LENGTH = new Opcode[longest + 1][];
+        for (Opcode opcode : values()) {
+            Opcode[] sameLength = BY_LENGTH[opcode.keyword.length()];
+            Opcode[] grown = sameLength == null ? new Opcode[1] : Arrays.copyOf(sameLength, sameLength.length + 1);
+            grown[grown.length - 1] = opcode;
+            BY_LENGTH[opcode.keyword.length()] = grown;
+        }
+    }
+
+    private final String keyword;
+    private final byte[] keywordBytes;
+    private final int parameterCount;
+    private final boolean numeric;
+
+    Opcode(String keyword, int parameterCount, boolean numeric) {
+        this.keyword = keyword;
+        this.keywordBytes = keyword.getBytes(StandardCharsets.US_ASCII);
+        this.parameterCount = parameterCount;
+        this.numeric = numeric;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * @return true when the single parameter is an integer, parsed into {@link Command#getNumber()}
+     */
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    /**
+     * @return the opcode whose keyword is {@code line[start, end)}, or null
+     */
+    public static Opcode match(CharSequence line, int start, int end) {
+        int length = end - start;
+        if (length >= BY_LENGTH.length || BY_LENGTH[length] == null)
+            return null;
+        for (Opcode opcode : BY_LENGTH[length]) {
+            String keyword = opcode.keyword;
+            int i = 0;
+            while (i < length && keyword.charAt(i) == line.charAt(start + i))
+                i++;
+            if (i == length)
+                return opcode;
+        }
+        return null;
+    }
+
+    /**
+     * @return the opcode whose keyword is the ASCII bytes {@code [start, end)} of the buffer, or null
+     */
+    public static Opcode match(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length >= BY_LENGTH.length || BY_LENGTH[length] == null)
+            return null;
+        for (Opcode opcode : BY_LENGTH[length]) {
+            byte[] keyword = opcode.keywordBytes;
+            int i = 0;
+            while (i < length && keyword[i] == buffer.get(start + i))
+                i++;
+            if (i == length)
+                return opcode;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,402 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.billing.LevelLedger;
+import com.parkinglot.constants.Constants;
+import com.parkinglot.metrics.LatencyHistogram;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.Reservation;
+import com.parkinglot.model.VehicleType;
+import com.parkinglot.model.strategy.NearestFirstParkingStrategy;
+import com.parkinglot.model.strategy.ParkingStrategy;
+import com.parkinglot.reservation.ReservationBook;
+import com.parkinglot.reservation.TimingWheel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * @author Vinod Kandula
+ */
+public class InMemoryParkingLotDAOImpl<T extends Vehicle> implements ParkingLotDAO<T> {
+
+    private Map<Integer, ParkingLotLevelDAO<T>> levelParkingMap;
+    // free slot counts per level, kept current by every park and leave
+    private LevelAvailabilityIndex availabilityIndex;
+    // registration -> (level, slot) across all levels
+    private RegistrationLocationIndex registrationIndex;
+    // runs the lot-wide queries, a task per level and per range of a big level's matches
+    private ForkJoinPool queryPool = ForkJoinPool.commonPool();
+    // one lock per level, indexed by level, shared by every service on the lot
+    private ReentrantReadWriteLock[] levelLocks;
+    private final ReentrantReadWriteLock noSuchLevelLock = new ReentrantReadWriteLock();
+
+    private static final long RESERVATION_TICK_MILLIS = 100;
+    // created with the first reservation, so lots without any run no wheel thread
+    private volatile ReservationBook reservations;
+
+    public static <T extends Vehicle> InMemoryParkingLotDAOImpl<T> newInstance(int parkingLevels, int capacity) {
+        return new InMemoryParkingLotDAOImpl<T>(parkingLevels, capacity);
+    }
+
+    public static <T extends Vehicle> InMemoryParkingLotDAOImpl<T> newInstance(int parkingLevels, int capacity, List<ParkingStrategy> parkingStrategies) {
+        Map<Integer, Integer> capacityMap = new HashMap<>();
+        for (int i = 1; i <= parkingLevels; i++)
+            capacityMap.put(i, capacity);
+        return new InMemoryParkingLotDAOImpl<T>(parkingLevels, capacityMap, parkingStrategies);
+    }
+
+    /**
+     * @param parkingStrategies allocation strategy per level, level 1 first; a missing
+     *                          or null entry means nearest-first
+     */
+    public static <T extends Vehicle> InMemoryParkingLotDAOImpl<T> newInstance(int parkingLevels, Map<Integer, Integer> capacityMap, List<ParkingStrategy> parkingStrategies) {
+        return new InMemoryParkingLotDAOImpl<T>(parkingLevels, capacityMap, parkingStrategies);
+    }
+
+    private InMemoryParkingLotDAOImpl(int parkingLevels, int capacity) {
+        if (levelParkingMap == null)
+            levelParkingMap = new HashMap<>();
+        for (int i = 1; i <= parkingLevels; i++) {
+            levelParkingMap.put(i, InMemoryParkingLotLevelDAOImpl.newInstance(i, capacity, new NearestFirstParkingStrategy(capacity)));
+        }
+        buildIndexes();
+    }
+
+    private InMemoryParkingLotDAOImpl(int parkingLevels, Map<Integer, Integer> capacityList, List<ParkingStrategy> parkingStrategies) {
+        if (levelParkingMap == null)
+            levelParkingMap = new HashMap<>();
+        for (int i = 1; i <= parkingLevels; i++) {
+            levelParkingMap.put(i, InMemoryParkingLotLevelDAOImpl.newInstance(i, capacityList.get(i), strategyFor(parkingStrategies, i)));
+        }
+        buildIndexes();
+    }
+
+    private void buildIndexes() {
+        levelLocks = new ReentrantReadWriteLock[levelParkingMap.size() + 1];
+        for (int level = 1; level < levelLocks.length; level++)
+            levelLocks[level] = new ReentrantReadWriteLock();
+        registrationIndex = new RegistrationLocationIndex();
+        availabilityIndex = new LevelAvailabilityIndex(levelParkingMap.size());
+        for (Map.Entry<Integer, ParkingLotLevelDAO<T>> entry : levelParkingMap.entrySet())
+            availabilityIndex.update(entry.getKey(), entry.getValue().getAvailableSlotsCount());
+    }
+
+    private static ParkingStrategy strategyFor(List<ParkingStrategy> parkingStrategies, int level) {
+        if (parkingStrategies == null || parkingStrategies.size() < level)
+            return null;
+        return parkingStrategies.get(level - 1);
+    }
+
+    @Override
+    public int park(int level, T vehicle) {
+        ParkingLotLevelDAO<T> levelDataManager = levelParkingMap.get(level);
+        // decoded once from the vehicle's compact form
+        String registrationNo = vehicle.getRegistrationNumber();
+        if (!registrationIndex.reserve(registrationNo, level))
+            return Constants.VEHICLE_ALREADY_EXIST;
+        int slot = Constants.NOT_AVAILABLE;
+        try {
+            slot = levelDataManager.park(vehicle);
+        }
+        finally {
+            parked(level, levelDataManager, registrationNo, slot);
+        }
+        return slot;
+    }
+
+    private void parked(int level, ParkingLotLevelDAO<T> levelDataManager, String registrationNo, int slot) {
+        if (slot > 0) {
+            registrationIndex.confirm(registrationNo, level, slot);
+            availabilityIndex.update(level, levelDataManager.getAvailableSlotsCount());
+        }
+        else
+            registrationIndex.release(registrationNo, level);
+    }
+
+    @Override
+    public Departure unPark(int level, int slotNumber) {
+        ParkingLotLevelDAO<T> levelDataManager = levelParkingMap.get(level);
+        Departure departure = levelDataManager.unPark(slotNumber);
+        if (departure != null) {
+            registrationIndex.remove(departure.getVehicle().getRegistrationNumber(), level, slotNumber);
+            availabilityIndex.update(level, levelDataManager.getAvailableSlotsCount());
+        }
+        return departure;
+    }
+
+    @Override
+    public int parkAt(int level, int slotNumber, T vehicle, long entryTime) {
+        ParkingLotLevelDAO<T> levelDataManager = levelParkingMap.get(level);
+        // decoded once from the vehicle's compact form
+        String registrationNo = vehicle.getRegistrationNumber();
+        if (!registrationIndex.reserve(registrationNo, level))
+            return Constants.VEHICLE_ALREADY_EXIST;
+        int slot = Constants.NOT_AVAILABLE;
+        try {
+            slot = levelDataManager.parkAt(slotNumber, vehicle, entryTime);
+        }
+        finally {
+            parked(level, levelDataManager, registrationNo, slot);
+        }
+        return slot;
+    }
+
+    @Override
+    public int hold(int level, VehicleType vehicleType) {
+        ParkingLotLevelDAO<T> levelDataManager = levelParkingMap.get(level);
+        int slot = levelDataManager.hold(vehicleType);
+        if (slot > 0)
+            availabilityIndex.update(level, levelDataManager.getAvailableSlotsCount());
+        return slot;
+    }
+
+    @Override
+    public boolean releaseHold(int level, int slotNumber) {
+        ParkingLotLevelDAO<T> levelDataManager = levelParkingMap.get(level);
+        boolean released = levelDataManager.releaseHold(slotNumber);
+        if (released)
+            availabilityIndex.update(level, levelDataManager.getAvailableSlotsCount());
+        return released;
+    }
+
+    @Override
+    public int parkHeld(int level, int slotNumber, T vehicle) {
+        ParkingLotLevelDAO<T> levelDataManager = levelParkingMap.get(level);
+        // decoded once from the vehicle's compact form
+        String registrationNo = vehicle.getRegistrationNumber();
+        if (!registrationIndex.reserve(registrationNo, level))
+            return Constants.VEHICLE_ALREADY_EXIST;
+        int slot = Constants.NOT_AVAILABLE;
+        try {
+            slot = levelDataManager.parkHeld(slotNumber, vehicle);
+        }
+        finally {
+            parked(level, levelDataManager, registrationNo, slot);
+        }
+        return slot;
+    }
+
+    @Override
+    public int getAvailableLevel() {
+        return availabilityIndex.firstAvailable();
+    }
+
+    @Override
+    public int getAvailableLevel(int after) {
+        return availabilityIndex.nextAvailable(after);
+    }
+
+    @Override
+    public T getVehicle(int level, int slotNumber) {
+        return levelParkingMap.get(level).getVehicle(slotNumber);
+    }
+
+    @Override
+    public long getEntryTime(int level, int slotNumber) {
+        return levelParkingMap.get(level).getEntryTime(slotNumber);
+    }
+
+    @Override
+    public LevelLedger getLedger(int level) {
+        return levelParkingMap.get(level).getLedger();
+    }
+
+    @Override
+    public List<String> getStatus(int level) {
+        return levelParkingMap.get(level).getStatus();
+    }
+
+    @Override
+    public long getStatusVersion(int level) {
+        return levelParkingMap.get(level).getStatusVersion();
+    }
+
+    @Override
+    public StatusDelta getStatusChanges(int level, long sinceVersion) {
+        return levelParkingMap.get(level).getStatusChanges(sinceVersion);
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(int level, String color) {
+        return levelParkingMap.get(level).getRegNumberForColor(color);
+    }
+
+    @Override
+    public List<Integer> getSlotNumbersFromColor(int level, String color) {
+        return levelParkingMap.get(level).getSlotNumbersFromColor(color);
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(int level, String color, VehicleType type) {
+        return levelParkingMap.get(level).getRegNumberForColor(color, type);
+    }
+
+    @Override
+    public List<Integer> getSlotNumbersFromColor(int level, String color, VehicleType type) {
+        return levelParkingMap.get(level).getSlotNumbersFromColor(color, type);
+    }
+
+    @Override
+    public int getSlotNoFromRegistrationNo(int level, String registrationNo) {
+        return levelParkingMap.get(level).getSlotNoFromRegistrationNo(registrationNo);
+    }
+
+    @Override
+    public int forEachSlot(int level, String color, VehicleType type, int fromSlot, int toSlot, IntConsumer action) {
+        return levelParkingMap.get(level).forEachSlot(color, type, fromSlot, toSlot, action);
+    }
+
+    @Override
+    public int forEachStatusLine(int level, int fromSlot, int toSlot, Consumer<String> action) {
+        return levelParkingMap.get(level).forEachStatusLine(fromSlot, toSlot, action);
+    }
+
+    @Override
+    public Map<Integer, List<String>> getStatus() {
+        List<List<String>> levels = LevelFanOut.map(queryPool, levelParkingMap.size(), this::getStatus);
+        Map<Integer, List<String>> status = new LinkedHashMap<>();
+        for (int level = 1; level <= levels.size(); level++)
+            status.put(level, levels.get(level - 1));
+        return status;
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(String color, VehicleType type) {
+        return flatten(LevelFanOut.map(queryPool, levelParkingMap.size(), level -> {
+            ParkingLotLevelDAO<T> levelDataManager = levelParkingMap.get(level);
+            return LevelFanOut.mapSlots(queryPool, levelDataManager.getSlotNumbersFromColor(color, type),
+                    slot -> levelDataManager.getVehicle(slot).getRegistrationNumber());
+        }));
+    }
+
+    @Override
+    public List<SlotLocation> getSlotLocationsFromColor(String color, VehicleType type) {
+        return flatten(LevelFanOut.map(queryPool, levelParkingMap.size(), level ->
+                LevelFanOut.mapSlots(queryPool, levelParkingMap.get(level).getSlotNumbersFromColor(color, type),
+                        slot -> new SlotLocation(level, slot))));
+    }
+
+    private static <R> List<R> flatten(List<List<R>> levels) {
+        int size = 0;
+        for (List<R> level : levels)
+            size += level.size();
+        List<R> results = new ArrayList<>(size);
+        for (List<R> level : levels)
+            results.addAll(level);
+        return results;
+    }
+
+    /**
+     * Runs the lot-wide queries in this pool instead of the common pool.
+     */
+    public void setQueryPool(ForkJoinPool queryPool) {
+        this.queryPool = queryPool;
+    }
+
+    /**
+     * Writes every later park and leave on any level to the log before applying it;
+     * a park the log refuses leaves the registration free again.
+     */
+    public void setChangeLog(SlotChangeLog changeLog) {
+        for (ParkingLotLevelDAO<T> levelDataManager : levelParkingMap.values())
+            levelDataManager.setChangeLog(changeLog);
+    }
+
+    @Override
+    public SlotLocation getSlotLocation(String registrationNo) {
+        return registrationIndex.get(registrationNo);
+    }
+
+    @Override
+    public int getAvailableSlotsCount(int level) {
+        return levelParkingMap.get(level).getAvailableSlotsCount();
+    }
+
+    @Override
+    public int getCapacity(int level) {
+        return this.levelParkingMap.get(level).getCapacity();
+    }
+
+    @Override
+    public LatencyHistogram getAllocationTime(int level) {
+        return this.levelParkingMap.get(level).getAllocationTime();
+    }
+
+    @Override
+    public int getLevelCount() {
+        return levelParkingMap.size();
+    }
+
+    @Override
+    public ReadWriteLock getLevelLock(int level) {
+        return level >= 1 && level < levelLocks.length ? levelLocks[level] : noSuchLevelLock;
+    }
+
+    @Override
+    public ReservationBook openReservations() {
+        ReservationBook book = reservations;
+        if (book == null) {
+            synchronized (this) {
+                book = reservations;
+                if (book == null) {
+                    TimingWheel wheel = new TimingWheel(RESERVATION_TICK_MILLIS);
+                    wheel.start("parking-reservations");
+                    book = new ReservationBook(wheel, this::expire);
+                    reservations = book;
+                }
+            }
+        }
+        return book;
+    }
+
+    @Override
+    public ReservationBook getReservations() {
+        return reservations;
+    }
+
+    // runs on the wheel's thread
+    private void expire(Reservation reservation) {
+        int level = reservation.getLevel();
+        Lock writeLock = getLevelLock(level).writeLock();
+        writeLock.lock();
+        try {
+            if (levelParkingMap != null)
+                releaseHold(level, reservation.getSlotNumber());
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        ReservationBook book = reservations;
+        if (book != null) {
+            book.close();
+            reservations = null;
+        }
+        for (ParkingLotLevelDAO<T> levelDataManager : levelParkingMap.values()) {
+            levelDataManager.cleanUp();
+        }
+        levelParkingMap = null;
+        availabilityIndex = null;
+        registrationIndex = null;
+    }
+
+    public Object clone() throws CloneNotSupportedException {
+        throw new CloneNotSupportedException();
+    }
+
+}
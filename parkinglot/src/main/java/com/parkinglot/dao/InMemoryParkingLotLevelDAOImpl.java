@@ -0,0 +1,316 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.billing.LevelLedger;
+import com.parkinglot.constants.Constants;
+import com.parkinglot.metrics.LatencyHistogram;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import com.parkinglot.model.strategy.NearestFirstParkingStrategy;
+import com.parkinglot.model.strategy.ParkingStrategy;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * @author Vinod Kandula
+ */
+public class InMemoryParkingLotLevelDAOImpl<T extends Vehicle> implements ParkingLotLevelDAO<T> {
+
+    // For Multilevel Parking lot - 0 -> Ground floor 1 -> First Floor etc
+    private AtomicInteger level			    = new AtomicInteger(0);
+    private AtomicInteger	capacity		= new AtomicInteger();
+    private AtomicInteger	availability	= new AtomicInteger();
+    // Allocation Strategy for parking
+    private ParkingStrategy parkingStrategy;
+    // this is per level - slot - vehicle, indexed by slot number (index 0 unused)
+    private T[] slots;
+    // secondary indexes, matched case-insensitively: registration -> slot, colour and type -> slots
+    private RegistrationSlotIndex registrationIndex;
+    private SlotFilterIndex filterIndex;
+    // versioned status board, patched from the slots changed since it was last built
+    private StatusLog statusLog;
+    // slots taken from the strategy for a reservation, empty until parked into or released
+    private BitSet held;
+    // when each occupied slot was parked into, wall clock millis, so a leave is billed without a lookup
+    private long[] entryTimes;
+    private final LevelLedger ledger;
+    // written to ahead of every park and leave when the lot is durable
+    private SlotChangeLog changeLog;
+    // every ALLOCATION_SAMPLE_RATE-th claim is timed, reading the clock costs about as much as the claim
+    private static final int ALLOCATION_SAMPLE_RATE = 8;
+    private final LatencyHistogram allocationTime = new LatencyHistogram();
+    private int claims;
+
+    public static <T extends Vehicle> InMemoryParkingLotLevelDAOImpl<T> newInstance(int level, int capacity,
+                                                                                    ParkingStrategy parkingStrategy) {
+        return new InMemoryParkingLotLevelDAOImpl<T>(level, capacity, parkingStrategy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private InMemoryParkingLotLevelDAOImpl(int level, int capacity, ParkingStrategy parkingStrategy) {
+        this.level.set(level);
+        this.capacity.set(capacity);
+        this.availability.set(capacity);
+        if (parkingStrategy == null)
+            parkingStrategy = new NearestFirstParkingStrategy(capacity);
+        this.parkingStrategy = parkingStrategy;
+
+        slots = (T[]) new Vehicle[capacity + 1];
+        registrationIndex = new RegistrationSlotIndex(capacity, slot -> slots[slot]);
+        filterIndex = new SlotFilterIndex(capacity);
+        statusLog = new StatusLog(capacity, this::statusLine);
+        held = new BitSet(capacity + 1);
+        entryTimes = new long[capacity + 1];
+        ledger = new LevelLedger(level);
+
+        for (int i = 1; i <= capacity; i++) {
+            parkingStrategy.add(i);
+        }
+    }
+
+    @Override
+    public int park(T vehicle) {
+        int availableSlot;
+        if (availability.get() == 0) {
+            return Constants.NOT_AVAILABLE;
+        }
+        else {
+            if (registrationIndex.get(vehicle) != Constants.NOT_FOUND)
+                return Constants.VEHICLE_ALREADY_EXIST;
+
+            availableSlot = claimSlot(vehicle.getType());
+            if (availableSlot == Constants.NOT_AVAILABLE)
+                return Constants.NOT_AVAILABLE;
+            long entryTime = System.currentTimeMillis();
+            if (changeLog != null) {
+                try {
+                    changeLog.parking(level.get(), availableSlot, vehicle, entryTime);
+                }
+                catch (RuntimeException e) {
+                    parkingStrategy.add(availableSlot);
+                    throw e;
+                }
+            }
+            place(availableSlot, vehicle, entryTime);
+            availability.decrementAndGet();
+        }
+        return availableSlot;
+    }
+
+    private int claimSlot(VehicleType vehicleType) {
+        if (++claims % ALLOCATION_SAMPLE_RATE != 0)
+            return parkingStrategy.claimSlot(vehicleType);
+        long start = System.nanoTime();
+        int slot = parkingStrategy.claimSlot(vehicleType);
+        allocationTime.record(System.nanoTime() - start);
+        return slot;
+    }
+
+    private void place(int slotNumber, T vehicle, long entryTime) {
+        slots[slotNumber] = vehicle;
+        entryTimes[slotNumber] = entryTime;
+        registrationIndex.put(vehicle, slotNumber);
+        filterIndex.add(vehicle, slotNumber);
+        statusLog.changed(slotNumber);
+    }
+
+    @Override
+    public Departure unPark(int slotNumber) {
+        checkSlot(slotNumber);
+        T vehicle = slots[slotNumber];
+        if (vehicle == null) // Slot already empty
+            return null;
+        if (changeLog != null)
+            changeLog.leaving(level.get(), slotNumber);
+        registrationIndex.remove(vehicle, slotNumber);
+        filterIndex.remove(vehicle, slotNumber);
+        slots[slotNumber] = null;
+        statusLog.changed(slotNumber);
+        availability.incrementAndGet();
+        parkingStrategy.add(slotNumber);
+        long entryTime = entryTimes[slotNumber];
+        long exitTime = System.currentTimeMillis();
+        long fee = ledger.depart(vehicle, entryTime, exitTime);
+        return new Departure(level.get(), slotNumber, vehicle, entryTime, exitTime, fee);
+    }
+
+    @Override
+    public int parkAt(int slotNumber, T vehicle, long entryTime) {
+        checkSlot(slotNumber);
+        if (slots[slotNumber] != null || held.get(slotNumber))
+            return Constants.NOT_AVAILABLE;
+        if (registrationIndex.get(vehicle) != Constants.NOT_FOUND)
+            return Constants.VEHICLE_ALREADY_EXIST;
+        if (changeLog != null)
+            changeLog.parking(level.get(), slotNumber, vehicle, entryTime);
+        parkingStrategy.removeSlot(slotNumber);
+        place(slotNumber, vehicle, entryTime);
+        availability.decrementAndGet();
+        return slotNumber;
+    }
+
+    @Override
+    public int hold(VehicleType vehicleType) {
+        if (availability.get() == 0)
+            return Constants.NOT_AVAILABLE;
+        int slot = claimSlot(vehicleType);
+        if (slot == Constants.NOT_AVAILABLE)
+            return Constants.NOT_AVAILABLE;
+        held.set(slot);
+        availability.decrementAndGet();
+        return slot;
+    }
+
+    @Override
+    public boolean releaseHold(int slotNumber) {
+        checkSlot(slotNumber);
+        if (!held.get(slotNumber))
+            return false;
+        held.clear(slotNumber);
+        availability.incrementAndGet();
+        parkingStrategy.add(slotNumber);
+        return true;
+    }
+
+    @Override
+    public int parkHeld(int slotNumber, T vehicle) {
+        checkSlot(slotNumber);
+        if (!held.get(slotNumber) || !parkingStrategy.accepts(slotNumber, vehicle.getType()))
+            return Constants.NOT_AVAILABLE;
+        if (registrationIndex.get(vehicle) != Constants.NOT_FOUND)
+            return Constants.VEHICLE_ALREADY_EXIST;
+        long entryTime = System.currentTimeMillis();
+        if (changeLog != null)
+            changeLog.parking(level.get(), slotNumber, vehicle, entryTime);
+        held.clear(slotNumber);
+        place(slotNumber, vehicle, entryTime);
+        return slotNumber;
+    }
+
+    @Override
+    public T getVehicle(int slotNumber) {
+        checkSlot(slotNumber);
+        return slots[slotNumber];
+    }
+
+    @Override
+    public long getEntryTime(int slotNumber) {
+        checkSlot(slotNumber);
+        return slots[slotNumber] == null ? Constants.NOT_FOUND : entryTimes[slotNumber];
+    }
+
+    @Override
+    public LevelLedger getLedger() {
+        return ledger;
+    }
+
+    private void checkSlot(int slotNumber) {
+        if (slotNumber < 1 || slotNumber > capacity.get())
+            throw new IllegalArgumentException("No slot " + slotNumber + " on level " + level.get());
+    }
+
+    @Override
+    public List<String> getStatus() {
+        return statusLog.status();
+    }
+
+    @Override
+    public long getStatusVersion() {
+        return statusLog.version();
+    }
+
+    @Override
+    public StatusDelta getStatusChanges(long sinceVersion) {
+        return statusLog.changesSince(sinceVersion);
+    }
+
+    private String statusLine(int slot) {
+        T vehicle = slots[slot];
+        return vehicle == null ? null : slot + "\t\t" + vehicle.getRegistrationNumber() + "\t\t" + vehicle.getColor();
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(String color) {
+        return getRegNumberForColor(color, null);
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(String color, VehicleType type) {
+        int[] matches = filterIndex.slots(color, type);
+        List<String> statusList = new ArrayList<>(matches.length);
+        for (int slot : matches) {
+            statusList.add(slots[slot].getRegistrationNumber());
+        }
+        return statusList;
+    }
+
+    @Override
+    public List<Integer> getSlotNumbersFromColor(String colour) {
+        return getSlotNumbersFromColor(colour, null);
+    }
+
+    @Override
+    public List<Integer> getSlotNumbersFromColor(String colour, VehicleType type) {
+        return new SlotNumberList(filterIndex.slots(colour, type));
+    }
+
+    @Override
+    public int getSlotNoFromRegistrationNo(String registrationNo) {
+        return registrationIndex.get(registrationNo);
+    }
+
+    @Override
+    public int forEachSlot(String color, VehicleType type, int fromSlot, int toSlot, IntConsumer action) {
+        return filterIndex.forEach(color, type, fromSlot, toSlot, action);
+    }
+
+    @Override
+    public int forEachStatusLine(int fromSlot, int toSlot, Consumer<String> action) {
+        return filterIndex.forEach(null, null, fromSlot, toSlot, slot -> action.accept(statusLine(slot)));
+    }
+
+    @Override
+    public int getAvailableSlotsCount() {
+        return availability.get();
+    }
+
+    @Override
+    public int getCapacity() {
+        return this.capacity.get();
+    }
+
+    @Override
+    public LatencyHistogram getAllocationTime() {
+        return allocationTime;
+    }
+
+    @Override
+    public void setChangeLog(SlotChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    @Override
+    public void cleanUp() {
+        this.level = new AtomicInteger();
+        this.capacity = new AtomicInteger();
+        this.availability = new AtomicInteger();
+        this.parkingStrategy = null;
+        slots = null;
+        registrationIndex = null;
+        filterIndex = null;
+        statusLog = null;
+        held = null;
+        entryTimes = null;
+        changeLog = null;
+    }
+
+    public Object clone() throws CloneNotSupportedException {
+        throw new CloneNotSupportedException();
+    }
+}
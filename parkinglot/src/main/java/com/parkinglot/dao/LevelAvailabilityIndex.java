@@ -0,0 +1,82 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.constants.Constants;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Segment tree over the free slot counts of a lot's levels: every node holds the
+ * largest count below it, so the lowest level with a free slot is found in
+ * O(log levels) without asking any level.
+ * <p>
+ * Updates are serialized on the tree. Lookups do not lock and may briefly see a
+ * half applied update; callers must be ready for the level they get to be full.
+ *
+ * @author Vinod Kandula
+ */
+class LevelAvailabilityIndex {
+
+    // leaves start here; level l lives at node leaves + l - 1, the root at node 1
+    private final int leaves;
+    private final AtomicIntegerArray max;
+
+    LevelAvailabilityIndex(int levels) {
+        int size = 1;
+        while (size < levels)
+            size <<= 1;
+        leaves = size;
+        max = new AtomicIntegerArray(size << 1);
+    }
+
+    synchronized void update(int level, int available) {
+        int node = leaves + level - 1;
+        max.set(node, available);
+        for (node >>>= 1; node > 0; node >>>= 1)
+            max.set(node, Math.max(max.get(node << 1), max.get((node << 1) + 1)));
+    }
+
+    /**
+     * @return the lowest level with a free slot, or NOT_AVAILABLE when every level is full
+     */
+    int firstAvailable() {
+        while (max.get(1) > 0) {
+            int node = 1;
+            while (node < leaves) {
+                node <<= 1;
+                if (max.get(node) == 0)
+                    node++;
+            }
+            if (max.get(node) > 0)
+                return node - leaves + 1;
+            // raced with an update, look again
+        }
+        return Constants.NOT_AVAILABLE;
+    }
+
+    /**
+     * @return the lowest level above {@code after} with a free slot, or NOT_AVAILABLE
+     */
+    int nextAvailable(int after) {
+        if (after < 1)
+            return firstAvailable();
+        while (after < leaves) {
+            int node = leaves + after - 1;
+            // climb until the subtree to the right has a free slot, then take its leftmost one
+            while (node > 1 && ((node & 1) == 1 || max.get(node + 1) == 0))
+                node >>>= 1;
+            if (node == 1)
+                return Constants.NOT_AVAILABLE;
+            node++;
+            while (node < leaves) {
+                node <<= 1;
+                if (max.get(node) == 0)
+                    node++;
+            }
+            if (max.get(node) > 0)
+                return node - leaves + 1;
+            // raced with an update, carry on past this level
+            after = node - leaves + 1;
+        }
+        return Constants.NOT_AVAILABLE;
+    }
+}
@@ -0,0 +1,115 @@
+package com.parkinglot.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+/**
+ * Runs a lot-wide query as fork/join tasks: the levels are split in halves down
+ * to one level a task, and a level with many matches is split again into ranges
+ * of its matching slots. Results are joined in level order, and in slot order
+ * within a level, so the answer reads the same as a serial loop over the levels.
+ *
+ * @author Vinod Kandula
+ */
+final class LevelFanOut {
+
+    // below this many matching slots a level is finished by one task
+    static final int SLOT_RANGE = 1 << 12;
+
+    private LevelFanOut() {
+    }
+
+    /**
+     * @return {@code perLevel} applied to every level from 1 to {@code levels}, in level order
+     */
+    static <R> List<R> map(ForkJoinPool pool, int levels, IntFunction<R> perLevel) {
+        if (levels == 0)
+            return new ArrayList<>();
+        if (levels == 1)
+            return new ArrayList<>(Arrays.asList(perLevel.apply(1)));
+        return run(pool, new Levels<>(1, levels, perLevel));
+    }
+
+    /**
+     * Maps every slot of {@code slots}, a random access list, in ranges that run in
+     * parallel once there are many.
+     */
+    static <R> List<R> mapSlots(ForkJoinPool pool, List<Integer> slots, IntFunction<R> perSlot) {
+        if (slots.size() <= SLOT_RANGE) {
+            List<R> results = new ArrayList<>(slots.size());
+            for (int i = 0; i < slots.size(); i++)
+                results.add(perSlot.apply(slots.get(i)));
+            return results;
+        }
+        return run(pool, new Slots<>(slots, 0, slots.size(), perSlot));
+    }
+
+    // a task of a query already running in a pool forks into that pool instead of queueing behind itself
+    private static <R> R run(ForkJoinPool pool, ForkJoinTask<R> task) {
+        return ForkJoinTask.inForkJoinPool() ? task.invoke() : pool.invoke(task);
+    }
+
+    private static final class Levels<R> extends RecursiveTask<List<R>> {
+
+        private final int from;
+        private final int to;
+        private final IntFunction<R> perLevel;
+
+        Levels(int from, int to, IntFunction<R> perLevel) {
+            this.from = from;
+            this.to = to;
+            this.perLevel = perLevel;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (from == to) {
+                List<R> result = new ArrayList<>(1);
+                result.add(perLevel.apply(from));
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            Levels<R> upper = new Levels<>(middle + 1, to, perLevel);
+            upper.fork();
+            List<R> results = new Levels<>(from, middle, perLevel).compute();
+            results.addAll(upper.join());
+            return results;
+        }
+    }
+
+    private static final class Slots<R> extends RecursiveTask<List<R>> {
+
+        private final List<Integer> slots;
+        private final int from;
+        private final int to;
+        private final IntFunction<R> perSlot;
+
+        Slots(List<Integer> slots, int from, int to, IntFunction<R> perSlot) {
+            this.slots = slots;
+            this.from = from;
+            this.to = to;
+            this.perSlot = perSlot;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (to - from <= SLOT_RANGE) {
+                List<R> results = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++)
+                    results.add(perSlot.apply(slots.get(i)));
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            Slots<R> upper = new Slots<>(slots, middle, to, perSlot);
+            upper.fork();
+            List<R> results = new Slots<>(slots, from, middle, perSlot).compute();
+            results.addAll(upper.join());
+            return results;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.billing.LevelLedger;
+import com.parkinglot.metrics.LatencyHistogram;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import com.parkinglot.reservation.ReservationBook;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Concurrency contract: levels share no mutable state apart from the lot-wide
+ * indexes behind {@link #getAvailableLevel()} and {@link #getSlotLocation(String)},
+ * which are thread safe themselves, so calls against different levels may run in
+ * parallel without coordination. Within one level,
+ * {@link #park} and {@link #unPark} must be serialised by the caller and must
+ * not overlap reads of that level; reads of the same level may run together.
+ * The lot-wide queries read every level, so the caller must keep park and unPark
+ * off all of them for the duration, e.g. by holding every level's read lock.
+ * The lot hands out those locks itself, {@link #getLevelLock(int)}, so every
+ * service driving the same lot serialises on the same ones.
+ * {@link ParkingLotDAO#cleanup()} must not overlap any other call.
+ *
+ * @author Vinod Kandula
+ */
+public interface ParkingLotDAO<T extends Vehicle> {
+
+    /**
+     * @return the slot, NOT_AVAILABLE when the level is full, or VEHICLE_ALREADY_EXIST
+     *         when the registration is parked on any level of the lot
+     */
+    public int park(int level, T vehicle);
+
+    /**
+     * @return the departure with the fee the level billed, or null when the slot was already empty
+     */
+    public Departure unPark(int level, int slotNumber);
+
+    /**
+     * Finds a level to park on without asking each level; the answer may be stale by
+     * the time the caller locks the level, so {@code park} can still report it full.
+     *
+     * @return the lowest level with a free slot, or NOT_AVAILABLE when the lot is full
+     */
+    public int getAvailableLevel();
+
+    /**
+     * Carries on from a level that had free slots but none the vehicle fits in.
+     *
+     * @return the lowest level above {@code after} with a free slot, or NOT_AVAILABLE
+     */
+    public int getAvailableLevel(int after);
+
+    public default int parkAt(int level, int slotNumber, T vehicle) {
+        return parkAt(level, slotNumber, vehicle, System.currentTimeMillis());
+    }
+
+    /**
+     * @param entryTime wall clock millis the stay is billed from, e.g. as saved before a restart
+     */
+    public int parkAt(int level, int slotNumber, T vehicle, long entryTime);
+
+    /**
+     * Keeps a free slot of the level that a vehicle of the type fits in empty for a
+     * reservation; serialised with park and unPark on the level like they are. Holds
+     * are not persisted.
+     *
+     * @return the held slot, or NOT_AVAILABLE when the level has no free slot for the type
+     */
+    public int hold(int level, VehicleType vehicleType);
+
+    public boolean releaseHold(int level, int slotNumber);
+
+    /**
+     * Parks into a held slot, turning the hold into an ordinary parked slot.
+     *
+     * @return the slot, NOT_AVAILABLE when it is not held or the vehicle does not fit
+     *         it, or VEHICLE_ALREADY_EXIST when the registration is parked on any
+     *         level of the lot
+     */
+    public int parkHeld(int level, int slotNumber, T vehicle);
+
+    public T getVehicle(int level, int slotNumber);
+
+    /**
+     * @return when the vehicle in the slot was parked, in wall clock millis, or NOT_FOUND when it is empty
+     */
+    public long getEntryTime(int level, int slotNumber);
+
+    /**
+     * @return the level's billing; its tariff and totals may be used from any thread
+     */
+    public LevelLedger getLedger(int level);
+
+    public List<String> getStatus(int level);
+
+    public long getStatusVersion(int level);
+
+    /**
+     * @return the status lines of the level changed since the given version
+     */
+    public StatusDelta getStatusChanges(int level, long sinceVersion);
+
+    public List<String> getRegNumberForColor(int level, String color);
+
+    public List<Integer> getSlotNumbersFromColor(int level, String color);
+
+    /**
+     * Colour and type filter on one level; either may be null to match anything.
+     */
+    public List<String> getRegNumberForColor(int level, String color, VehicleType type);
+
+    /**
+     * Colour and type filter on one level; either may be null to match anything.
+     */
+    public List<Integer> getSlotNumbersFromColor(int level, String color, VehicleType type);
+
+    public int getSlotNoFromRegistrationNo(int level, String registrationNo);
+
+    /**
+     * Streams the matching occupied slots of a range of the level to the action, in
+     * slot order; either filter may be null to match anything.
+     *
+     * @return the number of slots handed over
+     */
+    public int forEachSlot(int level, String color, VehicleType type, int fromSlot, int toSlot, IntConsumer action);
+
+    /**
+     * Streams the status lines of a range of the level to the action, formatted as
+     * they go, in slot order.
+     *
+     * @return the number of lines handed over
+     */
+    public int forEachStatusLine(int level, int fromSlot, int toSlot, Consumer<String> action);
+
+    /**
+     * Lot-wide status, the levels read in parallel.
+     *
+     * @return the status lines of every level, keyed by level in level order
+     */
+    public Map<Integer, List<String>> getStatus();
+
+    /**
+     * Lot-wide colour and type filter, the levels read in parallel; either filter may
+     * be null to match anything.
+     *
+     * @return registrations in level order, then slot order
+     */
+    public List<String> getRegNumberForColor(String color, VehicleType type);
+
+    /**
+     * Lot-wide colour and type filter, the levels read in parallel; either filter may
+     * be null to match anything.
+     *
+     * @return locations in level order, then slot order
+     */
+    public List<SlotLocation> getSlotLocationsFromColor(String color, VehicleType type);
+
+    /**
+     * Lot-wide lookup; safe to call concurrently with parks and leaves on any level.
+     *
+     * @return where the vehicle is parked, or null when it is not in the lot
+     */
+    public SlotLocation getSlotLocation(String registrationNo);
+
+    public int getAvailableSlotsCount(int level);
+
+    public int getCapacity(int level);
+
+    /**
+     * @return how long the level's allocation strategy took to claim a slot, for a sample of the parks
+     */
+    public LatencyHistogram getAllocationTime(int level);
+
+    /**
+     * @return the number of levels; levels are numbered from 1
+     */
+    public int getLevelCount();
+
+    /**
+     * @return the lock every caller takes to write to the level, or to read it while
+     *         it must not change; levels the lot does not have share one lock, so a
+     *         caller can lock before the lot rejects the level
+     */
+    public ReadWriteLock getLevelLock(int level);
+
+    /**
+     * @return the lot's reservations, started on first use; an expired one has its
+     *         slot released under the level's write lock
+     */
+    public ReservationBook openReservations();
+
+    /**
+     * @return the lot's reservations, or null while none was ever made
+     */
+    public ReservationBook getReservations();
+
+    /**
+     * Blocks until every park and leave made so far is durable; a lot that keeps
+     * nothing returns at once. A caller that defers durability takes it after
+     * releasing the level locks and before acknowledging the changes.
+     *
+     * @throws java.io.UncheckedIOException when the write that should have covered them failed
+     */
+    public default void awaitDurable() {
+    }
+
+    public void cleanup();
+}
@@ -0,0 +1,156 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.billing.LevelLedger;
+import com.parkinglot.metrics.LatencyHistogram;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * @author Vinod Kandula
+ */
+public interface ParkingLotLevelDAO<T extends Vehicle> {
+
+    public int park(T vehicle);
+
+    /**
+     * Frees the slot and bills the stay to the level's ledger.
+     *
+     * @return the departure with its fee, or null when the slot was already empty
+     */
+    public Departure unPark(int slotNumber);
+
+    /**
+     * Parks into a given slot instead of asking the strategy, as of now.
+     *
+     * @return the slot, NOT_AVAILABLE when it is taken, or VEHICLE_ALREADY_EXIST
+     */
+    public default int parkAt(int slotNumber, T vehicle) {
+        return parkAt(slotNumber, vehicle, System.currentTimeMillis());
+    }
+
+    /**
+     * Parks into a given slot with the time the vehicle entered, e.g. when restoring saved state.
+     *
+     * @param entryTime wall clock millis the stay is billed from
+     * @return the slot, NOT_AVAILABLE when it is taken, or VEHICLE_ALREADY_EXIST
+     */
+    public int parkAt(int slotNumber, T vehicle, long entryTime);
+
+    /**
+     * Takes a slot a vehicle of the type fits in from the strategy and keeps it empty
+     * for a reservation: it counts as unavailable and is not handed out again until
+     * released or parked into.
+     *
+     * @return the held slot, or NOT_AVAILABLE when the level has no free slot for the type
+     */
+    public int hold(VehicleType vehicleType);
+
+    /**
+     * Gives a held slot back to the strategy.
+     *
+     * @return false when the slot was not held
+     */
+    public boolean releaseHold(int slotNumber);
+
+    /**
+     * Parks into a slot taken by {@link #hold(VehicleType)}.
+     *
+     * @return the slot, NOT_AVAILABLE when it is not held or the vehicle does not fit
+     *         it, or VEHICLE_ALREADY_EXIST
+     */
+    public int parkHeld(int slotNumber, T vehicle);
+
+    /**
+     * @return the vehicle in the slot, or null when it is empty
+     */
+    public T getVehicle(int slotNumber);
+
+    /**
+     * @return when the vehicle in the slot was parked, in wall clock millis, or NOT_FOUND when it is empty
+     */
+    public long getEntryTime(int slotNumber);
+
+    /**
+     * @return revenue and dwell time of this level, billed by every leave
+     */
+    public LevelLedger getLedger();
+
+    /**
+     * @return the occupied slots in slot order; the list is shared and must not be modified
+     */
+    public List<String> getStatus();
+
+    /**
+     * @return a counter that moves on with every park and leave on this level
+     */
+    public long getStatusVersion();
+
+    /**
+     * @return the status lines changed since the given version, or a full reset
+     *         when that version is too old to patch from
+     */
+    public StatusDelta getStatusChanges(long sinceVersion);
+
+    public List<String> getRegNumberForColor(String color);
+
+    public List<Integer> getSlotNumbersFromColor(String color);
+
+    /**
+     * @param color matched ignoring case, or null for any colour
+     * @param type  or null for any type
+     * @return registrations of the vehicles matching both, in slot order
+     */
+    public List<String> getRegNumberForColor(String color, VehicleType type);
+
+    /**
+     * @param color matched ignoring case, or null for any colour
+     * @param type  or null for any type
+     * @return the slots of the vehicles matching both, in slot order; the list is read-only
+     */
+    public List<Integer> getSlotNumbersFromColor(String color, VehicleType type);
+
+    public int getSlotNoFromRegistrationNo(String registrationNo);
+
+    /**
+     * Hands the occupied slots from {@code fromSlot} to {@code toSlot} inclusive that
+     * match the filters to the action, in slot order, without building a list.
+     *
+     * @param color matched ignoring case, or null for any colour
+     * @param type  or null for any type
+     * @return the number of slots handed over
+     */
+    public int forEachSlot(String color, VehicleType type, int fromSlot, int toSlot, IntConsumer action);
+
+    /**
+     * Formats the status line of each occupied slot from {@code fromSlot} to
+     * {@code toSlot} inclusive as it goes, in slot order; the cached status is
+     * neither used nor built.
+     *
+     * @return the number of lines handed over
+     */
+    public int forEachStatusLine(int fromSlot, int toSlot, Consumer<String> action);
+
+    public int getAvailableSlotsCount();
+
+    public int getCapacity();
+
+    /**
+     * @return how long the allocation strategy took to claim a slot, for a sample of the parks
+     */
+    public LatencyHistogram getAllocationTime();
+
+    /**
+     * Has every later park and leave written to the log before it is applied; set
+     * while nothing else uses the level.
+     */
+    public void setChangeLog(SlotChangeLog changeLog);
+
+    public void cleanUp();
+
+}
@@ -0,0 +1,68 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.strategy.ParkingStrategy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the independent parking lots of this process, keyed by lot id. Every lot
+ * gets its own level DAOs, so lots can be created, used and dropped without
+ * touching each other.
+ *
+ * @author Vinod Kandula
+ */
+public class ParkingLotRegistry {
+
+    public static final String DEFAULT_LOT_ID = "default";
+
+    private static final ParkingLotRegistry instance = new ParkingLotRegistry();
+
+    private final ConcurrentMap<String, ParkingLotDAO<? extends Vehicle>> lots = new ConcurrentHashMap<>();
+
+    public static ParkingLotRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return the new lot, or {@code null} when a lot with this id already exists
+     */
+    public <T extends Vehicle> ParkingLotDAO<T> createParkingLot(String lotId, int parkingLevels, int capacity) {
+        return register(lotId, InMemoryParkingLotDAOImpl.<T>newInstance(parkingLevels, capacity));
+    }
+
+    /**
+     * @param parkingStrategies allocation strategy per level, level 1 first; null entries mean nearest-first
+     * @return the new lot, or {@code null} when a lot with this id already exists
+     */
+    public <T extends Vehicle> ParkingLotDAO<T> createParkingLot(String lotId, int parkingLevels, int capacity,
+                                                                 List<ParkingStrategy> parkingStrategies) {
+        return register(lotId, InMemoryParkingLotDAOImpl.<T>newInstance(parkingLevels, capacity, parkingStrategies));
+    }
+
+    /**
+     * @return the registered lot, or {@code null} when a lot with this id already exists
+     */
+    public <T extends Vehicle> ParkingLotDAO<T> register(String lotId, ParkingLotDAO<T> parkingLot) {
+        return lots.putIfAbsent(lotId, parkingLot) == null ? parkingLot : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Vehicle> ParkingLotDAO<T> getParkingLot(String lotId) {
+        return (ParkingLotDAO<T>) lots.get(lotId);
+    }
+
+    public Set<String> getLotIds() {
+        return Collections.unmodifiableSet(lots.keySet());
+    }
+
+    public void removeParkingLot(String lotId) {
+        ParkingLotDAO<? extends Vehicle> parkingLot = lots.remove(lotId);
+        if (parkingLot != null)
+            parkingLot.cleanup();
+    }
+}
@@ -0,0 +1,59 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.model.SlotLocation;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Lot-wide registration -> (level, slot) index. A park first reserves the
+ * registration with {@link #reserve}, which is atomic across all levels, and
+ * only then takes a slot, so the same car can never be parked on two levels at
+ * once. Registrations are matched case-insensitively, like the level indexes.
+ *
+ * @author Vinod Kandula
+ */
+class RegistrationLocationIndex {
+
+    // slot 0 marks a registration reserved by a park still in progress
+    private static final int RESERVED = 0;
+
+    private final ConcurrentMap<String, SlotLocation> locations = new ConcurrentHashMap<>();
+
+    /**
+     * @return false when the registration is already parked, or being parked, anywhere in the lot
+     */
+    boolean reserve(String registrationNo, int level) {
+        return locations.putIfAbsent(key(registrationNo), new SlotLocation(level, RESERVED)) == null;
+    }
+
+    void confirm(String registrationNo, int level, int slotNumber) {
+        locations.put(key(registrationNo), new SlotLocation(level, slotNumber));
+    }
+
+    void release(String registrationNo, int level) {
+        locations.remove(key(registrationNo), new SlotLocation(level, RESERVED));
+    }
+
+    void remove(String registrationNo, int level, int slotNumber) {
+        locations.remove(key(registrationNo), new SlotLocation(level, slotNumber));
+    }
+
+    /**
+     * @return where the vehicle is parked, or null
+     */
+    SlotLocation get(String registrationNo) {
+        SlotLocation location = locations.get(key(registrationNo));
+        return location == null || location.getSlotNumber() == RESERVED ? null : location;
+    }
+
+    // registrations are normally upper case already, so this rarely allocates
+    private static String key(String registrationNo) {
+        for (int i = 0; i < registrationNo.length(); i++) {
+            if (Character.isLowerCase(registrationNo.charAt(i)))
+                return registrationNo.toUpperCase(Locale.ROOT);
+        }
+        return registrationNo;
+    }
+}
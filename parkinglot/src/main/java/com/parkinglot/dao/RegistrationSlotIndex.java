@@ -0,0 +1,124 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.model.Vehicle;
+
+import java.util.function.IntFunction;
+
+/**
+ * Open addressing registration -> slot index for one level. The table holds only
+ * slot numbers and the registration hash; the registration itself is read back
+ * from the vehicle in the slot, a character at a time, so lookups and updates
+ * allocate nothing. Registrations are matched case-insensitively. Uses linear
+ * probing with backward-shift deletion.
+ *
+ * @author Vinod Kandula
+ */
+class RegistrationSlotIndex {
+
+    private static final int EMPTY = 0;
+
+    private final int[] slots;
+    private final int[] hashes;
+    private final int mask;
+    private final IntFunction<Vehicle> vehicleOfSlot;
+
+    RegistrationSlotIndex(int capacity, IntFunction<Vehicle> vehicleOfSlot) {
+        int size = 2;
+        while (size < capacity * 2)
+            size <<= 1;
+        this.slots = new int[size];
+        this.hashes = new int[size];
+        this.mask = size - 1;
+        this.vehicleOfSlot = vehicleOfSlot;
+    }
+
+    int get(String registrationNo) {
+        int hash = hash(registrationNo);
+        for (int i = hash & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (hashes[i] == hash && vehicleOfSlot.apply(slots[i]).hasRegistration(registrationNo))
+                return slots[i];
+        }
+        return Constants.NOT_FOUND;
+    }
+
+    /**
+     * @return the slot of a vehicle with the same registration, or NOT_FOUND
+     */
+    int get(Vehicle vehicle) {
+        int hash = hash(vehicle);
+        for (int i = hash & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (hashes[i] == hash && sameRegistration(vehicleOfSlot.apply(slots[i]), vehicle))
+                return slots[i];
+        }
+        return Constants.NOT_FOUND;
+    }
+
+    /**
+     * The caller guarantees the registration is not present yet.
+     */
+    void put(Vehicle vehicle, int slot) {
+        int hash = hash(vehicle);
+        int i = hash & mask;
+        while (slots[i] != EMPTY)
+            i = (i + 1) & mask;
+        slots[i] = slot;
+        hashes[i] = hash;
+    }
+
+    void remove(Vehicle vehicle, int slot) {
+        int i = hash(vehicle) & mask;
+        while (slots[i] != slot) {
+            if (slots[i] == EMPTY)
+                return;
+            i = (i + 1) & mask;
+        }
+        int hole = i;
+        for (int j = (hole + 1) & mask; slots[j] != EMPTY; j = (j + 1) & mask) {
+            int home = hashes[j] & mask;
+            // an entry may only move back if its home is not between the hole and its position
+            boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!stays) {
+                slots[hole] = slots[j];
+                hashes[hole] = hashes[j];
+                hole = j;
+            }
+        }
+        slots[hole] = EMPTY;
+        hashes[hole] = 0;
+    }
+
+    private static int hash(String registrationNo) {
+        int h = 0;
+        for (int i = 0; i < registrationNo.length(); i++)
+            h = 31 * h + Character.toUpperCase(registrationNo.charAt(i));
+        return spread(h);
+    }
+
+    // the same hash as the registration String's
+    private static int hash(Vehicle vehicle) {
+        int h = 0;
+        for (int i = 0; i < vehicle.getRegistrationLength(); i++)
+            h = 31 * h + Character.toUpperCase(vehicle.getRegistrationChar(i));
+        return spread(h);
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean sameRegistration(Vehicle a, Vehicle b) {
+        int length = a.getRegistrationLength();
+        if (b.getRegistrationLength() != length)
+            return false;
+        for (int i = 0; i < length; i++) {
+            char x = a.getRegistrationChar(i);
+            char y = b.getRegistrationChar(i);
+            if (x != y && Character.toUpperCase(x) != Character.toUpperCase(y)
+                    && Character.toLowerCase(x) != Character.toLowerCase(y))
+                return false;
+        }
+        return true;
+    }
+}
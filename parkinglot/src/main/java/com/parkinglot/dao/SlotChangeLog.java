@@ -0,0 +1,21 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.model.Vehicle;
+
+/**
+ * Hears of every park and leave of a level once it has been checked and before
+ * the level applies it, so a durable store can write the change ahead of memory.
+ * A call returns only when the change may be applied; throwing refuses it and
+ * leaves the level as it was.
+ *
+ * @author Vinod Kandula
+ */
+public interface SlotChangeLog {
+
+    /**
+     * @param entryTime wall clock millis the stay will be billed from
+     */
+    public void parking(int level, int slotNumber, Vehicle vehicle, long entryTime);
+
+    public void leaving(int level, int slotNumber);
+}
@@ -0,0 +1,174 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.model.ColorDictionary;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Bitmaps of the occupied slots of one level: one of every occupied slot, one per
+ * {@link ColorDictionary} colour family and one per {@link VehicleType}. A filter
+ * is answered word by word, ANDing the bitmaps it names and walking the set bits,
+ * so it costs a couple of instructions per 64 slots plus one per match, and never
+ * touches a vehicle. Bit 0 is never set; slots are numbered from 1.
+ * <p>
+ * A vehicle without a colour is in no family. Colours the full dictionary could
+ * not take share one {@link ColorDictionary#UNCOMMON} bitmap, whose matches are
+ * checked against the spelling kept for each of its slots.
+ * <p>
+ * Not thread safe; the level's lock guards it.
+ *
+ * @author Vinod Kandula
+ */
+class SlotFilterIndex {
+
+    private static final int WORD_SHIFT = 6;
+    private static final int[] NONE = new int[0];
+
+    private final int words;
+    private final long[] occupied;
+    private final long[][] slotsByType = new long[VehicleType.values().length][];
+    private long[][] slotsByFamily = new long[8][];
+    private long[] uncommonSlots;
+    private final Map<Integer, String> uncommonColors = new HashMap<>();
+
+    SlotFilterIndex(int capacity) {
+        words = (capacity >>> WORD_SHIFT) + 1;
+        occupied = new long[words];
+    }
+
+    void add(Vehicle vehicle, int slot) {
+        int family = vehicle.getColorFamily();
+        long[] colorSlots = familySlots(family);
+        if (family == ColorDictionary.UNCOMMON)
+            uncommonColors.put(slot, vehicle.getColor());
+        int type = vehicle.getType().ordinal();
+        if (slotsByType[type] == null)
+            slotsByType[type] = new long[words];
+
+        long bit = 1L << slot;
+        int w = slot >>> WORD_SHIFT;
+        occupied[w] |= bit;
+        if (colorSlots != null)
+            colorSlots[w] |= bit;
+        slotsByType[type][w] |= bit;
+    }
+
+    void remove(Vehicle vehicle, int slot) {
+        long bit = ~(1L << slot);
+        int w = slot >>> WORD_SHIFT;
+        occupied[w] &= bit;
+        int family = vehicle.getColorFamily();
+        if (family == ColorDictionary.UNCOMMON) {
+            uncommonSlots[w] &= bit;
+            uncommonColors.remove(slot);
+        }
+        else if (family != ColorDictionary.NO_COLOR)
+            slotsByFamily[family][w] &= bit;
+        slotsByType[vehicle.getType().ordinal()][w] &= bit;
+    }
+
+    /**
+     * @param color matched ignoring case, or null for any colour
+     * @param type  or null for any type
+     * @return the occupied slots matching both, in slot order
+     */
+    int[] slots(String color, VehicleType type) {
+        long[] colorSlots = colorSlots(color);
+        long[] typeSlots = typeSlots(type);
+        if (colorSlots == null || typeSlots == null)
+            return NONE;
+        if (colorSlots == uncommonSlots) {
+            IntStream.Builder matches = IntStream.builder();
+            forEach(color, type, 1, words << WORD_SHIFT, matches::add);
+            return matches.build().toArray();
+        }
+
+        int count = 0;
+        for (int w = 0; w < words; w++)
+            count += Long.bitCount(colorSlots[w] & typeSlots[w]);
+        if (count == 0)
+            return NONE;
+        int[] slots = new int[count];
+        int i = 0;
+        for (int w = 0; w < words; w++) {
+            long bits = colorSlots[w] & typeSlots[w];
+            while (bits != 0) {
+                slots[i++] = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Hands the occupied slots from {@code fromSlot} to {@code toSlot} inclusive that
+     * match both filters to the action, in slot order, without collecting them.
+     *
+     * @return the number of slots handed over
+     */
+    int forEach(String color, VehicleType type, int fromSlot, int toSlot, IntConsumer action) {
+        long[] colorSlots = colorSlots(color);
+        long[] typeSlots = typeSlots(type);
+        fromSlot = Math.max(fromSlot, 1);
+        toSlot = Math.min(toSlot, (words << WORD_SHIFT) - 1);
+        if (colorSlots == null || typeSlots == null || fromSlot > toSlot)
+            return 0;
+
+        int count = 0;
+        int last = toSlot >>> WORD_SHIFT;
+        for (int w = fromSlot >>> WORD_SHIFT; w <= last; w++) {
+            long bits = colorSlots[w] & typeSlots[w];
+            if (w == fromSlot >>> WORD_SHIFT)
+                bits &= -1L << fromSlot;
+            if (w == last)
+                bits &= -1L >>> (63 - (toSlot & 63));
+            while (bits != 0) {
+                int slot = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (colorSlots == uncommonSlots && !color.equalsIgnoreCase(uncommonColors.get(slot)))
+                    continue;
+                action.accept(slot);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // null when nothing of the colour is parked here
+    private long[] colorSlots(String color) {
+        if (color == null)
+            return occupied;
+        int family = ColorDictionary.find(color);
+        if (family == ColorDictionary.UNCOMMON)
+            return uncommonSlots;
+        if (family == ColorDictionary.NOT_FOUND || family >= slotsByFamily.length)
+            return null;
+        return slotsByFamily[family];
+    }
+
+    // made on first use; null for a vehicle without a colour
+    private long[] familySlots(int family) {
+        if (family == ColorDictionary.NO_COLOR)
+            return null;
+        if (family == ColorDictionary.UNCOMMON) {
+            if (uncommonSlots == null)
+                uncommonSlots = new long[words];
+            return uncommonSlots;
+        }
+        if (family >= slotsByFamily.length)
+            slotsByFamily = Arrays.copyOf(slotsByFamily, Math.max(family + 1, slotsByFamily.length << 1));
+        if (slotsByFamily[family] == null)
+            slotsByFamily[family] = new long[words];
+        return slotsByFamily[family];
+    }
+
+    private long[] typeSlots(VehicleType type) {
+        return type == null ? occupied : slotsByType[type.ordinal()];
+    }
+}
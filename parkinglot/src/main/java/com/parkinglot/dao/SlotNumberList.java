@@ -0,0 +1,29 @@
+package com.parkinglot.dao;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list view of slot numbers held as ints, so a query answering
+ * thousands of slots does not box them all up front.
+ *
+ * @author Vinod Kandula
+ */
+final class SlotNumberList extends AbstractList<Integer> implements RandomAccess {
+
+    private final int[] slots;
+
+    SlotNumberList(int[] slots) {
+        this.slots = slots;
+    }
+
+    @Override
+    public Integer get(int index) {
+        return slots[index];
+    }
+
+    @Override
+    public int size() {
+        return slots.length;
+    }
+}
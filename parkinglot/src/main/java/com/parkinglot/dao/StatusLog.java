@@ -0,0 +1,154 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.model.StatusDelta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Versioned status board of one level. Every park or leave bumps the version and
+ * records the slot in a ring of recent changes. The full status is cached and,
+ * when stale, patched from the ring so only changed slots are formatted again;
+ * the same ring answers "what changed since version N".
+ *
+ * @author Vinod Kandula
+ */
+class StatusLog {
+
+    private static final int LOG_SIZE = 1 << 12;
+    private static final int LOG_MASK = LOG_SIZE - 1;
+
+    private final int capacity;
+    private final IntFunction<String> lineOfSlot;
+    // changedSlots[v & LOG_MASK] is the slot changed by version v
+    private final int[] changedSlots = new int[LOG_SIZE];
+    private volatile long version;
+    private volatile View view = new View(0, new int[0], new String[0], 0);
+
+    private static final class View {
+
+        final long version;
+        final int[] slots;
+        final String[] lines;
+        final List<String> list;
+
+        View(long version, int[] slots, String[] lines, int count) {
+            this.version = version;
+            this.slots = slots;
+            this.lines = lines;
+            this.list = Collections.unmodifiableList(Arrays.asList(lines).subList(0, count));
+        }
+    }
+
+    /**
+     * @param lineOfSlot status line of a slot, or null when the slot is empty
+     */
+    StatusLog(int capacity, IntFunction<String> lineOfSlot) {
+        this.capacity = capacity;
+        this.lineOfSlot = lineOfSlot;
+    }
+
+    // caller holds the level's write lock
+    void changed(int slot) {
+        long next = version + 1;
+        changedSlots[(int) (next & LOG_MASK)] = slot;
+        version = next;
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * @return the status lines in slot order; must not be modified
+     */
+    List<String> status() {
+        View current = view;
+        long now = version;
+        if (current.version != now) {
+            current = now - current.version > LOG_SIZE ? rebuild(now) : patch(current, now);
+            view = current;
+        }
+        return current.list;
+    }
+
+    StatusDelta changesSince(long sinceVersion) {
+        long now = version;
+        if (sinceVersion > now || sinceVersion < 0 || now - sinceVersion > LOG_SIZE)
+            return new StatusDelta(now, true, Collections.<Integer>emptyList(), status());
+
+        int[] changed = changedSince(sinceVersion, now);
+        List<Integer> freed = new ArrayList<>();
+        List<String> occupied = new ArrayList<>();
+        for (int slot : changed) {
+            String line = lineOfSlot.apply(slot);
+            if (line == null)
+                freed.add(slot);
+            else
+                occupied.add(line);
+        }
+        return new StatusDelta(now, false, freed, occupied);
+    }
+
+    private View rebuild(long now) {
+        int[] slots = new int[16];
+        String[] lines = new String[16];
+        int count = 0;
+        for (int slot = 1; slot <= capacity; slot++) {
+            String line = lineOfSlot.apply(slot);
+            if (line != null) {
+                if (count == slots.length) {
+                    slots = Arrays.copyOf(slots, count << 1);
+                    lines = Arrays.copyOf(lines, count << 1);
+                }
+                slots[count] = slot;
+                lines[count++] = line;
+            }
+        }
+        return new View(now, slots, lines, count);
+    }
+
+    // merges the cached lines with the slots changed since, both in slot order
+    private View patch(View previous, long now) {
+        int[] changed = changedSince(previous.version, now);
+        int previousCount = previous.list.size();
+        int[] slots = new int[previousCount + changed.length];
+        String[] lines = new String[slots.length];
+        int count = 0;
+        int p = 0;
+        for (int c = 0; c <= changed.length; c++) {
+            int until = c < changed.length ? changed[c] : Integer.MAX_VALUE;
+            while (p < previousCount && previous.slots[p] < until) {
+                slots[count] = previous.slots[p];
+                lines[count++] = previous.lines[p++];
+            }
+            if (p < previousCount && previous.slots[p] == until)
+                p++;
+            if (c < changed.length) {
+                String line = lineOfSlot.apply(until);
+                if (line != null) {
+                    slots[count] = until;
+                    lines[count++] = line;
+                }
+            }
+        }
+        return new View(now, slots, lines, count);
+    }
+
+    // distinct slots changed by versions in (from, to], sorted
+    private int[] changedSince(long from, long to) {
+        int[] changed = new int[(int) (to - from)];
+        for (long v = from + 1; v <= to; v++)
+            changed[(int) (v - from - 1)] = changedSlots[(int) (v & LOG_MASK)];
+        Arrays.sort(changed);
+        int distinct = 0;
+        for (int i = 0; i < changed.length; i++) {
+            if (distinct == 0 || changed[distinct - 1] != changed[i])
+                changed[distinct++] = changed[i];
+        }
+        return Arrays.copyOf(changed, distinct);
+    }
+}
@@ -0,0 +1,355 @@
+package com.parkinglot.metrics;
+
+import com.parkinglot.dao.ParkingLotDAO;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Latency histograms per operation and level for one lot, with the time spent
+ * waiting for level locks and, from the DAO, the time the allocation strategy
+ * takes to pick a slot, sampled. Occupancy is read from the lot when asked for.
+ * <p>
+ * Recording never locks or allocates once a level has been seen, so the service
+ * can do it on every call. Each level keeps its own histograms, so gates on
+ * different levels do not touch the same counters; lot-wide figures are merged
+ * when read.
+ *
+ * @author Vinod Kandula
+ */
+public class ParkingMetrics implements ParkingMetricsMXBean {
+
+    public enum Operation {
+        PARK, LEAVE, BATCH, STATUS, QUERY, RESERVE;
+
+        final String key = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final String WRITE_LOCK_WAIT = "writeLockWait";
+    private static final String READ_LOCK_WAIT = "readLockWait";
+    private static final String ALLOCATION = "allocation";
+    private static final String FULL = "parkFull";
+
+    private final String lotId;
+    // index 0 collects work not tied to one level, e.g. registration lookups
+    private volatile AtomicReferenceArray<LevelMetrics> levels = new AtomicReferenceArray<>(1);
+    private volatile ParkingLotDAO<?> lot;
+    private volatile IntFunction<Lock> readLocks;
+    private ObjectName objectName;
+    private ScheduledExecutorService dumpScheduler;
+
+    public ParkingMetrics(String lotId) {
+        this.lotId = lotId;
+    }
+
+    /**
+     * Starts collecting for a lot; occupancy is read under the given level read locks.
+     */
+    public void attach(ParkingLotDAO<?> lot, IntFunction<Lock> readLocks) {
+        this.levels = new AtomicReferenceArray<>(lot.getLevelCount() + 1);
+        this.readLocks = readLocks;
+        this.lot = lot;
+    }
+
+    public void record(Operation operation, int level, long nanos) {
+        levelMetrics(level).latency[operation.ordinal()].record(nanos);
+    }
+
+    public void recordLockWait(int level, boolean write, long nanos) {
+        LevelMetrics metrics = levelMetrics(level);
+        (write ? metrics.writeLockWait : metrics.readLockWait).record(nanos);
+    }
+
+    /**
+     * Counts a park that found the level full.
+     */
+    public void countFull(int level) {
+        levelMetrics(level).full.increment();
+    }
+
+    /**
+     * @return the operation over the whole lot, merged from all levels
+     */
+    public LatencyHistogram getLatency(Operation operation) {
+        return merged(metrics -> metrics.latency[operation.ordinal()]);
+    }
+
+    /**
+     * @return the live histogram of the operation on the level
+     */
+    public LatencyHistogram getLatency(Operation operation, int level) {
+        LevelMetrics metrics = existing(level);
+        return metrics == null ? new LatencyHistogram() : metrics.latency[operation.ordinal()];
+    }
+
+    public LatencyHistogram getLockWait(int level, boolean write) {
+        LevelMetrics metrics = existing(level);
+        if (metrics == null)
+            return new LatencyHistogram();
+        return write ? metrics.writeLockWait : metrics.readLockWait;
+    }
+
+    /**
+     * @return the time the level's allocation strategy took to claim a slot
+     */
+    public LatencyHistogram getAllocation(int level) {
+        ParkingLotDAO<?> current = lot;
+        return current == null || level < 1 || level > current.getLevelCount() ? new LatencyHistogram() : current.getAllocationTime(level);
+    }
+
+    /**
+     * @return the occupied slots of the level, or 0 when no lot is attached
+     */
+    public int getOccupied(int level) {
+        ParkingLotDAO<?> current = lot;
+        if (current == null || level < 1 || level > current.getLevelCount())
+            return 0;
+        Lock readLock = readLocks.apply(level);
+        readLock.lock();
+        try {
+            return current.getCapacity(level) - current.getAvailableSlotsCount(level);
+        }
+        finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        histograms().forEach((key, histogram) -> counts.put(key, histogram.getCount()));
+        long full = 0;
+        AtomicReferenceArray<LevelMetrics> current = levels;
+        for (int level = 0; level < current.length(); level++) {
+            LevelMetrics metrics = current.get(level);
+            if (metrics != null)
+                full += metrics.full.sum();
+        }
+        counts.put(FULL, full);
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getMedianNanos() {
+        return values(histogram -> histogram.getValueAtPercentile(50));
+    }
+
+    @Override
+    public Map<String, Long> getP99Nanos() {
+        return values(histogram -> histogram.getValueAtPercentile(99));
+    }
+
+    @Override
+    public Map<String, Long> getMaxNanos() {
+        return values(LatencyHistogram::getMax);
+    }
+
+    @Override
+    public Map<String, Integer> getOccupancy() {
+        Map<String, Integer> occupancy = new LinkedHashMap<>();
+        ParkingLotDAO<?> current = lot;
+        if (current != null) {
+            for (int level = 1; level <= current.getLevelCount(); level++)
+                occupancy.put("level" + level, getOccupied(level));
+        }
+        return occupancy;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append("Parking lot ").append(lotId).append(" metrics\n");
+        buffer.append(String.format("%-28s %10s %10s %10s %10s %10s%n", "metric", "count", "p50 us", "p99 us", "p99.9 us", "max us"));
+        histograms().forEach((key, histogram) -> buffer.append(String.format("%-28s %10d %10.1f %10.1f %10.1f %10.1f%n",
+                key, histogram.getCount(), micros(histogram.getValueAtPercentile(50)),
+                micros(histogram.getValueAtPercentile(99)), micros(histogram.getValueAtPercentile(99.9)),
+                micros(histogram.getMax()))));
+        ParkingLotDAO<?> current = lot;
+        if (current != null) {
+            for (int level = 1; level <= current.getLevelCount(); level++)
+                buffer.append(String.format("%-28s %10s%n", "occupancy.level" + level,
+                        getOccupied(level) + "/" + current.getCapacity(level)));
+        }
+        return buffer.toString();
+    }
+
+    @Override
+    public void reset() {
+        AtomicReferenceArray<LevelMetrics> current = levels;
+        for (int level = 0; level < current.length(); level++) {
+            LevelMetrics metrics = current.get(level);
+            if (metrics != null)
+                metrics.reset();
+        }
+        ParkingLotDAO<?> attached = lot;
+        if (attached != null) {
+            for (int level = 1; level <= attached.getLevelCount(); level++)
+                attached.getAllocationTime(level).reset();
+        }
+    }
+
+    /**
+     * Registers with the platform MBean server, replacing an earlier registration
+     * for the same lot id.
+     *
+     * @return false when JMX refused the registration
+     */
+    public synchronized boolean register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.parkinglot:type=ParkingMetrics,lot=" + ObjectName.quote(lotId));
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+            server.registerMBean(this, name);
+            objectName = name;
+            return true;
+        }
+        catch (JMException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Prints {@link #dump()} to the stream at a fixed rate until {@link #close()}.
+     */
+    public synchronized void startDump(long period, TimeUnit unit, PrintStream out) {
+        if (dumpScheduler != null)
+            dumpScheduler.shutdownNow();
+        dumpScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "parking-metrics-" + lotId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpScheduler.scheduleAtFixedRate(() -> out.print(dump()), period, period, unit);
+    }
+
+    /**
+     * Stops the dump, leaves JMX and lets go of the lot; the figures collected so far stay readable.
+     */
+    public synchronized void close() {
+        if (dumpScheduler != null) {
+            dumpScheduler.shutdownNow();
+            dumpScheduler = null;
+        }
+        if (objectName != null) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(objectName))
+                    server.unregisterMBean(objectName);
+            }
+            catch (JMException e) {
+            }
+            objectName = null;
+        }
+        lot = null;
+    }
+
+    private LevelMetrics levelMetrics(int level) {
+        AtomicReferenceArray<LevelMetrics> current = levels;
+        if (level < 0 || level >= current.length())
+            level = 0;
+        LevelMetrics metrics = current.get(level);
+        if (metrics == null) {
+            current.compareAndSet(level, null, new LevelMetrics());
+            metrics = current.get(level);
+        }
+        return metrics;
+    }
+
+    private LevelMetrics existing(int level) {
+        AtomicReferenceArray<LevelMetrics> current = levels;
+        return level >= 0 && level < current.length() ? current.get(level) : null;
+    }
+
+    private LatencyHistogram merged(Function<LevelMetrics, LatencyHistogram> part) {
+        LatencyHistogram merged = new LatencyHistogram();
+        AtomicReferenceArray<LevelMetrics> current = levels;
+        for (int level = 0; level < current.length(); level++) {
+            LevelMetrics metrics = current.get(level);
+            if (metrics != null)
+                merged.add(part.apply(metrics));
+        }
+        return merged;
+    }
+
+    // lot-wide first, then the levels that have seen the metric
+    private Map<String, LatencyHistogram> histograms() {
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        for (Operation operation : Operation.values())
+            addWithLevels(histograms, operation.key, metrics -> metrics.latency[operation.ordinal()]);
+        addWithLevels(histograms, WRITE_LOCK_WAIT, metrics -> metrics.writeLockWait);
+        addWithLevels(histograms, READ_LOCK_WAIT, metrics -> metrics.readLockWait);
+
+        ParkingLotDAO<?> current = lot;
+        if (current != null) {
+            LatencyHistogram allocation = new LatencyHistogram();
+            Map<String, LatencyHistogram> byLevel = new LinkedHashMap<>();
+            for (int level = 1; level <= current.getLevelCount(); level++) {
+                LatencyHistogram histogram = current.getAllocationTime(level);
+                allocation.add(histogram);
+                if (histogram.getCount() > 0)
+                    byLevel.put(ALLOCATION + ".level" + level, histogram);
+            }
+            histograms.put(ALLOCATION, allocation);
+            histograms.putAll(byLevel);
+        }
+        return histograms;
+    }
+
+    private void addWithLevels(Map<String, LatencyHistogram> histograms, String key,
+                               Function<LevelMetrics, LatencyHistogram> part) {
+        histograms.put(key, merged(part));
+        AtomicReferenceArray<LevelMetrics> current = levels;
+        for (int level = 1; level < current.length(); level++) {
+            LevelMetrics metrics = current.get(level);
+            if (metrics != null && part.apply(metrics).getCount() > 0)
+                histograms.put(key + ".level" + level, part.apply(metrics));
+        }
+    }
+
+    private Map<String, Long> values(ToLongFunction<LatencyHistogram> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        histograms().forEach((key, histogram) -> values.put(key, value.applyAsLong(histogram)));
+        return values;
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1000.0;
+    }
+
+    private static final class LevelMetrics {
+
+        final LatencyHistogram[] latency = new LatencyHistogram[Operation.values().length];
+        final LatencyHistogram writeLockWait = new LatencyHistogram();
+        final LatencyHistogram readLockWait = new LatencyHistogram();
+        final LongAdder full = new LongAdder();
+
+        LevelMetrics() {
+            for (int i = 0; i < latency.length; i++)
+                latency[i] = new LatencyHistogram();
+        }
+
+        void reset() {
+            for (LatencyHistogram histogram : latency)
+                histogram.reset();
+            writeLockWait.reset();
+            readLockWait.reset();
+            full.reset();
+        }
+    }
+}
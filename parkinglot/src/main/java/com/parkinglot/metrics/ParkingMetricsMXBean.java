@@ -0,0 +1,38 @@
+package com.parkinglot.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link ParkingMetrics}, registered as
+ * {@code com.parkinglot:type=ParkingMetrics,lot=<lot id>}.
+ * <p>
+ * Keys name a metric for the whole lot, e.g. {@code park}, or for one level,
+ * e.g. {@code park.level2}. Durations are in nanoseconds.
+ *
+ * @author Vinod Kandula
+ */
+public interface ParkingMetricsMXBean {
+
+    public Map<String, Long> getCounts();
+
+    public Map<String, Long> getMedianNanos();
+
+    public Map<String, Long> getP99Nanos();
+
+    public Map<String, Long> getMaxNanos();
+
+    /**
+     * @return occupied slots per level, keyed {@code level1}, {@code level2}, ...
+     */
+    public Map<String, Integer> getOccupancy();
+
+    /**
+     * @return the same table as the periodic dump
+     */
+    public String dump();
+
+    /**
+     * Starts all histograms and counters again from zero.
+     */
+    public void reset();
+}
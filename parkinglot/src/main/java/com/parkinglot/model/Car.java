@@ -10,10 +10,18 @@ import java.io.ObjectOutput;
 
 public class Car extends Vehicle {
 
+    public Car() {
+    }
+
     public Car(String registrationNumber, String color) {
         super(registrationNumber, color);
     }
 
+    @Override
+    public VehicleType getType() {
+        return VehicleType.CAR;
+    }
+
     @Override
     public void writeExternal(ObjectOutput out) throws IOException {
         super.writeExternal(out);
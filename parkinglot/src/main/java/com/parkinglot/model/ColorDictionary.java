@@ -0,0 +1,106 @@
+package com.parkinglot.model;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns colours into small ints for the whole process. Every spelling gets a
+ * code of its own, so a vehicle shows its colour as it was given, and every code
+ * belongs to a family, the code of the first spelling seen of the same colour
+ * ignoring case. Colour filters compare families.
+ * <p>
+ * Looking up a known spelling is one map read; only a new spelling takes the lock.
+ * Codes are never reused, so the dictionary stops taking spellings once it holds
+ * {@link #MAX_CODES}; a spelling it could not take is {@link #UNCOMMON} and its
+ * vehicle keeps the String itself. A missing colour is {@link #NO_COLOR}.
+ *
+ * @author Vinod Kandula
+ */
+public final class ColorDictionary {
+
+    public static final int NOT_FOUND = -1;
+    // code and family of a vehicle without a colour
+    public static final int NO_COLOR = -2;
+    // code of a spelling the full dictionary could not take, and family of a colour it never held
+    public static final int UNCOMMON = -3;
+    public static final int MAX_CODES = 1 << 12;
+
+    private static final ConcurrentMap<String, Integer> CODES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Integer> FAMILIES = new ConcurrentHashMap<>();
+    // indexed by code; an entry is written before its code is put in CODES, which publishes it
+    private static volatile String[] names = new String[16];
+    private static volatile int[] families = new int[16];
+    private static volatile int count;
+    // lowered by tests to fill the dictionary
+    static volatile int capacity = MAX_CODES;
+
+    private ColorDictionary() {
+    }
+
+    /**
+     * @return the code of this spelling, added to the dictionary if it is new, or
+     * NO_COLOR for null, or UNCOMMON when the dictionary is full
+     */
+    public static int intern(String color) {
+        if (color == null)
+            return NO_COLOR;
+        Integer code = CODES.get(color);
+        return code != null ? code : add(color);
+    }
+
+    /**
+     * Resolves a colour for a filter without adding it.
+     *
+     * @return the family of the colour, NOT_FOUND when no vehicle ever had it, or
+     * UNCOMMON when the dictionary is full and a vehicle may have it uninterned
+     */
+    public static int find(String color) {
+        Integer code = CODES.get(color);
+        if (code != null)
+            return families[code];
+        Integer family = FAMILIES.get(color.toUpperCase(Locale.ROOT));
+        if (family != null)
+            return family;
+        return count >= capacity ? UNCOMMON : NOT_FOUND;
+    }
+
+    /**
+     * @return the family of a spelling the dictionary could not take: that of the
+     * same colour spelt otherwise, or UNCOMMON
+     */
+    public static int familyOf(String color) {
+        Integer family = FAMILIES.get(color.toUpperCase(Locale.ROOT));
+        return family != null ? family : UNCOMMON;
+    }
+
+    /**
+     * @return the spelling, or null for NO_COLOR and UNCOMMON
+     */
+    public static String name(int code) {
+        return code < 0 ? null : names[code];
+    }
+
+    public static int family(int code) {
+        return code < 0 ? code : families[code];
+    }
+
+    private static synchronized int add(String color) {
+        Integer existing = CODES.get(color);
+        if (existing != null)
+            return existing;
+        if (count >= capacity)
+            return UNCOMMON;
+        int code = count++;
+        if (code == names.length) {
+            families = Arrays.copyOf(families, code << 1);
+            names = Arrays.copyOf(names, code << 1);
+        }
+        Integer family = FAMILIES.putIfAbsent(color.toUpperCase(Locale.ROOT), code);
+        families[code] = family != null ? family : code;
+        names[code] = color;
+        CODES.put(color, code);
+        return code;
+    }
+}
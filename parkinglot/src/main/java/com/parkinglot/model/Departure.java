@@ -0,0 +1,23 @@
+package com.parkinglot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A vehicle leaving its slot: when it came and went, and what the stay cost.
+ *
+ * @author Vinod Kandula
+ */
+@AllArgsConstructor
+@Data
+public final class Departure {
+
+    private final int level;
+    private final int slotNumber;
+    private final Vehicle vehicle;
+    // wall clock, milliseconds since the epoch
+    private final long entryTime;
+    private final long exitTime;
+    // in the tariff's minor unit
+    private final long fee;
+}
@@ -0,0 +1,19 @@
+package com.parkinglot.model;
+
+/**
+ * @author Vinod Kandula
+ */
+public class ElectricCar extends Vehicle {
+
+    public ElectricCar() {
+    }
+
+    public ElectricCar(String registrationNumber, String color) {
+        super(registrationNumber, color);
+    }
+
+    @Override
+    public VehicleType getType() {
+        return VehicleType.ELECTRIC_CAR;
+    }
+}
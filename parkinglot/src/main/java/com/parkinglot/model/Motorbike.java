@@ -0,0 +1,19 @@
+package com.parkinglot.model;
+
+/**
+ * @author Vinod Kandula
+ */
+public class Motorbike extends Vehicle {
+
+    public Motorbike() {
+    }
+
+    public Motorbike(String registrationNumber, String color) {
+        super(registrationNumber, color);
+    }
+
+    @Override
+    public VehicleType getType() {
+        return VehicleType.MOTORBIKE;
+    }
+}
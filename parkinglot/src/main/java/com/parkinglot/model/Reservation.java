@@ -0,0 +1,22 @@
+package com.parkinglot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A slot kept empty for a booked vehicle until it arrives or the hold runs out. The
+ * slot is one a vehicle of the booked type fits in.
+ *
+ * @author Vinod Kandula
+ */
+@AllArgsConstructor
+@Data
+public final class Reservation {
+
+    private final String registrationNumber;
+    private final VehicleType vehicleType;
+    private final int level;
+    private final int slotNumber;
+    // wall clock, milliseconds since the epoch
+    private final long expiresAt;
+}
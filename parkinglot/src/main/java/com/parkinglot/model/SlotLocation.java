@@ -0,0 +1,18 @@
+package com.parkinglot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Where in a lot a vehicle was parked.
+ *
+ * @author Vinod Kandula
+ */
+@AllArgsConstructor
+@Data
+public final class SlotLocation {
+
+    private final int level;
+    // the slot, or NOT_AVAILABLE / VEHICLE_ALREADY_EXIST as returned by park
+    private final int slotNumber;
+}
@@ -0,0 +1,30 @@
+package com.parkinglot.model;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One gate event in a batch: park a vehicle, or free a slot.
+ *
+ * @author Vinod Kandula
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SlotOperation {
+
+    private final Vehicle vehicle;
+    private final int slotNumber;
+
+    public static SlotOperation park(Vehicle vehicle) {
+        return new SlotOperation(vehicle, 0);
+    }
+
+    public static SlotOperation leave(int slotNumber) {
+        return new SlotOperation(null, slotNumber);
+    }
+
+    public boolean isPark() {
+        return vehicle != null;
+    }
+}
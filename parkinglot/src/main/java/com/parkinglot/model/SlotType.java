@@ -0,0 +1,15 @@
+package com.parkinglot.model;
+
+/**
+ * Kinds of bay a level can be built from.
+ *
+ * @author Vinod Kandula
+ */
+public enum SlotType {
+
+    MOTORBIKE,
+    CAR,
+    VAN,
+    // car sized, with a charger
+    EV_CHARGING
+}
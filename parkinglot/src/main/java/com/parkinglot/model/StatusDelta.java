@@ -0,0 +1,29 @@
+package com.parkinglot.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * What changed on a level's status board since a given version. Apply it by
+ * clearing the board when {@code reset} is set, removing the freed slots and
+ * replacing the occupied lines (they start with their slot number).
+ *
+ * @author Vinod Kandula
+ */
+@Getter
+@AllArgsConstructor
+public final class StatusDelta {
+
+    // the version to ask for next time
+    private final long version;
+    // the board could not be patched, the occupied lines are the whole status
+    private final boolean reset;
+    private final List<Integer> freedSlots;
+    private final List<String> occupied;
+
+    public boolean isEmpty() {
+        return !reset && freedSlots.isEmpty() && occupied.isEmpty();
+    }
+}
@@ -0,0 +1,19 @@
+package com.parkinglot.model;
+
+/**
+ * @author Vinod Kandula
+ */
+public class Van extends Vehicle {
+
+    public Van() {
+    }
+
+    public Van(String registrationNumber, String color) {
+        super(registrationNumber, color);
+    }
+
+    @Override
+    public VehicleType getType() {
+        return VehicleType.VAN;
+    }
+}
@@ -0,0 +1,204 @@
+package com.parkinglot.model;
+
+import lombok.EqualsAndHashCode;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Held compactly, since a lot keeps one per occupied slot: the registration as
+ * one byte per character and the colour as its {@link ColorDictionary} code, about
+ * 56 bytes a vehicle against 150 for two Strings. The Strings are made again
+ * when asked for; the indexes read the registration a character at a time instead.
+ * <p>
+ * The binary form, shared by {@link #writeExternal} and the journal, is the
+ * registration then the colour, each as length prefixed UTF-8; a missing value
+ * is written as the length 0xFFFF, so neither may encode to more than 65534 bytes.
+ *
+ * @author Vinod Kandula
+ */
+@EqualsAndHashCode
+public abstract class Vehicle implements Externalizable {
+
+    private static final int NULL_LENGTH = 0xFFFF;
+
+    // Latin-1, one byte per character; null when the registration has wider characters
+    private byte[] registration;
+    // only for registrations that do not fit in Latin-1; both are null when there is no registration
+    private String wideRegistration;
+    private int color = ColorDictionary.NO_COLOR;
+    // only for spellings the full dictionary could not take
+    private String uncommonColor;
+
+    protected Vehicle() {
+    }
+
+    public Vehicle(String registrationNumber, String color) {
+        setRegistrationNumber(registrationNumber);
+        setColor(color);
+    }
+
+    public abstract VehicleType getType();
+
+    public String getRegistrationNumber() {
+        return registration != null ? new String(registration, StandardCharsets.ISO_8859_1) : wideRegistration;
+    }
+
+    public void setRegistrationNumber(String registrationNumber) {
+        if (registrationNumber != null && isLatin1(registrationNumber)) {
+            registration = registrationNumber.getBytes(StandardCharsets.ISO_8859_1);
+            wideRegistration = null;
+        }
+        else {
+            registration = null;
+            wideRegistration = registrationNumber;
+        }
+    }
+
+    public int getRegistrationLength() {
+        return registration != null ? registration.length : wideRegistration.length();
+    }
+
+    public char getRegistrationChar(int index) {
+        return registration != null ? (char) (registration[index] & 0xFF) : wideRegistration.charAt(index);
+    }
+
+    /**
+     * Compares registrations ignoring case, without making a String.
+     */
+    public boolean hasRegistration(String registrationNo) {
+        if (registration == null)
+            return wideRegistration != null && wideRegistration.equalsIgnoreCase(registrationNo);
+        if (registrationNo.length() != registration.length)
+            return false;
+        for (int i = 0; i < registration.length; i++) {
+            char mine = (char) (registration[i] & 0xFF);
+            char theirs = registrationNo.charAt(i);
+            if (mine != theirs && Character.toUpperCase(mine) != Character.toUpperCase(theirs)
+                    && Character.toLowerCase(mine) != Character.toLowerCase(theirs))
+                return false;
+        }
+        return true;
+    }
+
+    public String getColor() {
+        return uncommonColor != null ? uncommonColor : ColorDictionary.name(color);
+    }
+
+    public void setColor(String color) {
+        this.color = ColorDictionary.intern(color);
+        uncommonColor = this.color == ColorDictionary.UNCOMMON ? color : null;
+    }
+
+    /**
+     * @return the {@link ColorDictionary} code of the colour as spelt, NO_COLOR or UNCOMMON
+     */
+    public int getColorCode() {
+        return color;
+    }
+
+    /**
+     * @return the colour's family, equal for every spelling of the colour
+     */
+    public int getColorFamily() {
+        return uncommonColor != null ? ColorDictionary.familyOf(uncommonColor) : ColorDictionary.family(color);
+    }
+
+    /**
+     * Both values are encoded before anything is written, so one too long to
+     * write leaves the output untouched.
+     *
+     * @throws UTFDataFormatException when a value encodes to more than 65534 bytes
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        // ASCII is its own UTF-8
+        byte[] registrationBytes = registration != null && isAscii(registration)
+                ? checkLength(registration) : encode(getRegistrationNumber());
+        byte[] colorBytes = encode(getColor());
+        writeBytes(out, registrationBytes);
+        writeBytes(out, colorBytes);
+    }
+
+    public void readFrom(DataInput in) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length == NULL_LENGTH)
+            setRegistrationNumber(null);
+        else {
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            if (isAscii(bytes)) {
+                registration = bytes;
+                wideRegistration = null;
+            }
+            else
+                setRegistrationNumber(new String(bytes, StandardCharsets.UTF_8));
+        }
+        setColor(readString(in));
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        writeTo(out);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        readFrom(in);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(registrationNumber=" + getRegistrationNumber() + ", color=" + getColor() + ")";
+    }
+
+    private static boolean isLatin1(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0)
+                return false;
+        }
+        return true;
+    }
+
+    // null for a null value
+    private static byte[] encode(String value) throws UTFDataFormatException {
+        return value == null ? null : checkLength(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] checkLength(byte[] bytes) throws UTFDataFormatException {
+        if (bytes.length >= NULL_LENGTH)
+            throw new UTFDataFormatException("Encoded value of " + bytes.length + " bytes is too long");
+        return bytes;
+    }
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeShort(NULL_LENGTH);
+            return;
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readUnsignedShort();
+        if (length == NULL_LENGTH)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,54 @@
+package com.parkinglot.model;
+
+import java.util.function.Supplier;
+
+/**
+ * What a vehicle is, as far as choosing a slot for it goes. The code is its tag
+ * in saved state and must never change.
+ *
+ * @author Vinod Kandula
+ */
+public enum VehicleType {
+
+    CAR(1, Car::new),
+    MOTORBIKE(2, Motorbike::new),
+    VAN(3, Van::new),
+    ELECTRIC_CAR(4, ElectricCar::new);
+
+    private final byte code;
+    private final Supplier<Vehicle> factory;
+
+    VehicleType(int code, Supplier<Vehicle> factory) {
+        this.code = (byte) code;
+        this.factory = factory;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return an empty vehicle of this type, to be read into
+     */
+    public Vehicle newVehicle() {
+        return factory.get();
+    }
+
+    public Vehicle newVehicle(String registrationNumber, String color) {
+        Vehicle vehicle = factory.get();
+        vehicle.setRegistrationNumber(registrationNumber);
+        vehicle.setColor(color);
+        return vehicle;
+    }
+
+    /**
+     * @return the type with that code, or null
+     */
+    public static VehicleType ofCode(byte code) {
+        for (VehicleType type : values()) {
+            if (type.code == code)
+                return type;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.constants.Constants;
+
+import java.util.Arrays;
+
+/**
+ * Hands out the free slot closest to the level's exit. Slots are ranked once by
+ * their walking distance (ties by slot number) and the free set is a bitmap over
+ * ranks, so a claim is the same O(log64 n) lowest-bit search as nearest-first.
+ *
+ * @author Vinod Kandula
+ */
+public class ClosestToExitParkingStrategy implements ParkingStrategy {
+
+    private final SlotBitmap free;
+    private final int[] slotOfRank;
+    private final int[] rankOfSlot;
+
+    /**
+     * @param distances distance to the exit of every slot, {@code distances[i]} for slot {@code i + 1}
+     */
+    public ClosestToExitParkingStrategy(int[] distances) {
+        int capacity = distances.length;
+        long[] order = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            if (distances[i] < 0)
+                throw new IllegalArgumentException("Negative distance for slot " + (i + 1));
+            order[i] = ((long) distances[i] << 32) | i;
+        }
+        Arrays.sort(order);
+        slotOfRank = new int[capacity];
+        rankOfSlot = new int[capacity];
+        for (int rank = 0; rank < capacity; rank++) {
+            int index = (int) order[rank];
+            slotOfRank[rank] = index + 1;
+            rankOfSlot[index] = rank;
+        }
+        free = new SlotBitmap(capacity);
+    }
+
+    /**
+     * A row of slots with the exit next to {@code exitSlot}: distance is |slot - exitSlot|.
+     */
+    public static ClosestToExitParkingStrategy withExitAt(int capacity, int exitSlot) {
+        int[] distances = new int[capacity];
+        for (int i = 0; i < capacity; i++)
+            distances[i] = Math.abs(i + 1 - exitSlot);
+        return new ClosestToExitParkingStrategy(distances);
+    }
+
+    @Override
+    public void add(int i) {
+        free.set(rank(i));
+    }
+
+    @Override
+    public int getSlot() {
+        int rank = free.next(0);
+        return rank >= 0 ? slotOfRank[rank] : Constants.NOT_AVAILABLE;
+    }
+
+    @Override
+    public void removeSlot(int slot) {
+        if (slot >= 1 && slot <= rankOfSlot.length)
+            free.clear(rankOfSlot[slot - 1]);
+    }
+
+    @Override
+    public int claimSlot() {
+        int rank = free.claimFirst();
+        return rank >= 0 ? slotOfRank[rank] : Constants.NOT_AVAILABLE;
+    }
+
+    private int rank(int slot) {
+        if (slot < 1 || slot > rankOfSlot.length)
+            throw new IllegalArgumentException("No distance known for slot " + slot);
+        return rankOfSlot[slot - 1];
+    }
+}
@@ -0,0 +1,40 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.constants.Constants;
+
+/**
+ * Farthest-first allocation: always hands out the highest free slot number,
+ * e.g. to keep the slots near the entrance free for short stays.
+ *
+ * @author Vinod Kandula
+ */
+public class FarthestFirstParkingStrategy implements ParkingStrategy {
+
+    private final SlotBitmap free;
+
+    public FarthestFirstParkingStrategy(int capacity) {
+        free = new SlotBitmap(capacity);
+    }
+
+    @Override
+    public void add(int i) {
+        free.set(i - 1);
+    }
+
+    @Override
+    public int getSlot() {
+        int index = free.previous(Integer.MAX_VALUE);
+        return index >= 0 ? index + 1 : Constants.NOT_AVAILABLE;
+    }
+
+    @Override
+    public void removeSlot(int slot) {
+        free.clear(slot - 1);
+    }
+
+    @Override
+    public int claimSlot() {
+        int index = free.claimLast();
+        return index >= 0 ? index + 1 : Constants.NOT_AVAILABLE;
+    }
+}
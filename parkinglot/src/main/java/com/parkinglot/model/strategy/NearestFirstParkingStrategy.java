@@ -0,0 +1,50 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.constants.Constants;
+
+/**
+ * Nearest-first allocation: always hands out the lowest free slot number.
+ * <p>
+ * Free slots are bits {@code slot - 1} of a {@link SlotBitmap}, so finding and
+ * taking the lowest free slot is O(log64 n) and a single CAS, and
+ * {@link #claimSlot()} is safe without any external lock.
+ * <p>
+ * Slots are registered through {@link #add(int)} while the level is being
+ * built; growing the bitmap is not safe against concurrent claims.
+ *
+ * @author Vinod Kandula
+ */
+public class NearestFirstParkingStrategy implements ParkingStrategy {
+
+    private final SlotBitmap free;
+
+    public NearestFirstParkingStrategy() {
+        this(64);
+    }
+
+    public NearestFirstParkingStrategy(int capacity) {
+        free = new SlotBitmap(capacity);
+    }
+
+    @Override
+    public void add(int i) {
+        free.set(i - 1);
+    }
+
+    @Override
+    public int getSlot() {
+        int index = free.next(0);
+        return index >= 0 ? index + 1 : Constants.NOT_AVAILABLE;
+    }
+
+    @Override
+    public void removeSlot(int slot) {
+        free.clear(slot - 1);
+    }
+
+    @Override
+    public int claimSlot() {
+        int index = free.claimFirst();
+        return index >= 0 ? index + 1 : Constants.NOT_AVAILABLE;
+    }
+}
@@ -0,0 +1,52 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+
+/**
+ * @author Vinod Kandula
+ */
+public interface ParkingStrategy {
+
+    public void add(int i);
+
+    public int getSlot();
+
+    public void removeSlot(int slot);
+
+    /**
+     * Picks the next slot and takes it out of the free set in one step.
+     *
+     * @return the claimed slot, or {@code Constants.NOT_AVAILABLE} when no slot is free
+     */
+    public default int claimSlot() {
+        int slot = getSlot();
+        removeSlot(slot);
+        return slot;
+    }
+
+    /**
+     * Claims a slot the vehicle fits in; strategies that do not tell slots apart
+     * ignore the vehicle.
+     */
+    public default int claimSlot(Vehicle vehicle) {
+        return claimSlot(vehicle.getType());
+    }
+
+    /**
+     * Claims a slot a vehicle of the type fits in, for when the vehicle itself has
+     * not arrived yet, e.g. a reservation hold.
+     */
+    public default int claimSlot(VehicleType vehicleType) {
+        return claimSlot();
+    }
+
+    /**
+     * @return whether a vehicle of the type may take the slot; true for strategies
+     *         that do not tell slots apart
+     */
+    public default boolean accepts(int slot, VehicleType vehicleType) {
+        return true;
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.constants.Constants;
+
+/**
+ * Round-robin allocation for wear levelling: hands out the next free slot after
+ * the one handed out last, wrapping around at the end of the level, so every
+ * slot sees roughly the same traffic.
+ *
+ * @author Vinod Kandula
+ */
+public class RoundRobinParkingStrategy implements ParkingStrategy {
+
+    private final SlotBitmap free;
+    // index to search from next; racing claims may move it out of order, which only affects fairness
+    private volatile int cursor;
+
+    public RoundRobinParkingStrategy(int capacity) {
+        free = new SlotBitmap(capacity);
+    }
+
+    @Override
+    public void add(int i) {
+        free.set(i - 1);
+    }
+
+    @Override
+    public int getSlot() {
+        int index = free.next(cursor);
+        if (index < 0)
+            index = free.next(0);
+        return index >= 0 ? index + 1 : Constants.NOT_AVAILABLE;
+    }
+
+    @Override
+    public void removeSlot(int slot) {
+        free.clear(slot - 1);
+    }
+
+    @Override
+    public int claimSlot() {
+        int from = cursor;
+        int index = free.claimNext(from, Integer.MAX_VALUE);
+        if (index < 0)
+            index = free.claimNext(0, from);
+        if (index < 0)
+            return Constants.NOT_AVAILABLE;
+        cursor = index + 1;
+        return index + 1;
+    }
+}
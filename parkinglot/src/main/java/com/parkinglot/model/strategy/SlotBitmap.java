@@ -0,0 +1,226 @@
+package com.parkinglot.model.strategy;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free hierarchical bitmap of free slot indexes, shared by the allocation
+ * strategies.
+ * <p>
+ * {@code levels[0]} has one bit per index. Bit {@code w} of {@code levels[k + 1]}
+ * is set while word {@code w} of {@code levels[k]} may be non-zero, and the top
+ * level is a single word, so finding the lowest or highest set bit at or beyond
+ * any position touches at most a couple of words per level: O(log64 n), four
+ * levels for 16M slots. Summary bits may briefly be set over an empty word, but
+ * are never left clear over a non-empty one.
+ * <p>
+ * Taking a bit is a single CAS on its word, so claims are safe without any
+ * external lock. Growing through {@link #set(int)} is not safe against
+ * concurrent claims and is meant for building the level.
+ *
+ * @author Vinod Kandula
+ */
+final class SlotBitmap {
+
+    private static final int WORD_SHIFT = 6;
+    private static final int WORD_MASK  = 63;
+
+    private volatile AtomicLongArray[] levels;
+
+    SlotBitmap(int bits) {
+        levels = allocate(wordsFor(Math.max(bits, 1)));
+    }
+
+    /**
+     * @return how many indexes fit without growing
+     */
+    int size() {
+        return levels[0].length() << WORD_SHIFT;
+    }
+
+    boolean get(int index) {
+        AtomicLongArray words = levels[0];
+        int w = index >>> WORD_SHIFT;
+        return index >= 0 && w < words.length() && (words.get(w) & (1L << (index & WORD_MASK))) != 0;
+    }
+
+    void set(int index) {
+        if ((index >>> WORD_SHIFT) >= levels[0].length())
+            grow(index);
+        AtomicLongArray[] lv = levels;
+        for (int k = 0; k < lv.length; k++, index >>>= WORD_SHIFT)
+            setBit(lv[k], index);
+    }
+
+    /**
+     * @return true when this call took the bit, false when it was already clear
+     */
+    boolean clear(int index) {
+        AtomicLongArray[] lv = levels;
+        int w = index >>> WORD_SHIFT;
+        if (index < 0 || w >= lv[0].length())
+            return false;
+        long bit = 1L << (index & WORD_MASK);
+        long word;
+        do {
+            word = lv[0].get(w);
+            if ((word & bit) == 0)
+                return false;
+        } while (!lv[0].compareAndSet(w, word, word & ~bit));
+        if ((word & ~bit) == 0 && lv.length > 1)
+            clearHint(lv, 1, w);
+        return true;
+    }
+
+    int claimFirst() {
+        return claimNext(0, Integer.MAX_VALUE);
+    }
+
+    int claimLast() {
+        int index;
+        while ((index = previous(size() - 1)) >= 0) {
+            if (clear(index))
+                return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Takes the lowest set index in {@code [from, to)}.
+     *
+     * @return the index, or -1 when there is none
+     */
+    int claimNext(int from, int to) {
+        int index;
+        while ((index = next(from)) >= 0 && index < to) {
+            if (clear(index))
+                return index;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the lowest set index at or after {@code from}, or -1
+     */
+    int next(int from) {
+        AtomicLongArray[] lv = levels;
+        int top = lv.length - 1;
+        int level = 0;
+        int index = Math.max(from, 0);
+        while (true) {
+            AtomicLongArray words = lv[level];
+            int w = index >>> WORD_SHIFT;
+            if (w >= words.length())
+                return -1;
+            long word = words.get(w) & (-1L << (index & WORD_MASK));
+            if (word != 0) {
+                int bit = (w << WORD_SHIFT) + Long.numberOfTrailingZeros(word);
+                if (level == 0)
+                    return bit;
+                // descend into the word this hint points at
+                level--;
+                index = bit << WORD_SHIFT;
+            }
+            else {
+                if (level == top)
+                    return -1;
+                // nothing left in this word, continue after it one level up
+                level++;
+                index = w + 1;
+            }
+        }
+    }
+
+    /**
+     * @return the highest set index at or before {@code from}, or -1
+     */
+    int previous(int from) {
+        AtomicLongArray[] lv = levels;
+        int top = lv.length - 1;
+        int level = 0;
+        int index = Math.min(from, size() - 1);
+        while (index >= 0) {
+            AtomicLongArray words = lv[level];
+            int w = index >>> WORD_SHIFT;
+            long word = words.get(w) & (-1L >>> (WORD_MASK - (index & WORD_MASK)));
+            if (word != 0) {
+                int bit = (w << WORD_SHIFT) + WORD_MASK - Long.numberOfLeadingZeros(word);
+                if (level == 0)
+                    return bit;
+                level--;
+                index = (bit << WORD_SHIFT) + WORD_MASK;
+            }
+            else {
+                if (level == top)
+                    return -1;
+                level++;
+                index = w - 1;
+            }
+        }
+        return -1;
+    }
+
+    private static void clearHint(AtomicLongArray[] lv, int level, int index) {
+        AtomicLongArray words = lv[level];
+        int w = index >>> WORD_SHIFT;
+        long bit = 1L << (index & WORD_MASK);
+        long word;
+        do {
+            word = words.get(w);
+            if ((word & bit) == 0)
+                return;
+        } while (!words.compareAndSet(w, word, word & ~bit));
+        if ((word & ~bit) == 0 && level + 1 < lv.length)
+            clearHint(lv, level + 1, w);
+        // a bit set below between the drain and the clear must stay visible
+        if (lv[level - 1].get(index) != 0) {
+            for (int k = level; k < lv.length; k++, index >>>= WORD_SHIFT)
+                setBit(lv[k], index);
+        }
+    }
+
+    private synchronized void grow(int index) {
+        AtomicLongArray leaves = levels[0];
+        int w = index >>> WORD_SHIFT;
+        if (w < leaves.length())
+            return;
+        AtomicLongArray[] grown = allocate(Math.max(w + 1, leaves.length() << 1));
+        for (int i = 0; i < leaves.length(); i++) {
+            long word = leaves.get(i);
+            if (word != 0) {
+                grown[0].set(i, word);
+                int hint = i;
+                for (int k = 1; k < grown.length; k++, hint >>>= WORD_SHIFT)
+                    setBit(grown[k], hint);
+            }
+        }
+        levels = grown;
+    }
+
+    private static AtomicLongArray[] allocate(int leafWords) {
+        int depth = 1;
+        for (int words = leafWords; words > 1; words = wordsFor(words))
+            depth++;
+        AtomicLongArray[] lv = new AtomicLongArray[depth];
+        int words = leafWords;
+        for (int k = 0; k < depth; k++) {
+            lv[k] = new AtomicLongArray(words);
+            words = wordsFor(words);
+        }
+        return lv;
+    }
+
+    private static void setBit(AtomicLongArray array, int index) {
+        int w = index >>> WORD_SHIFT;
+        long bit = 1L << (index & WORD_MASK);
+        long word;
+        do {
+            word = array.get(w);
+            if ((word & bit) != 0)
+                return;
+        } while (!array.compareAndSet(w, word, word | bit));
+    }
+
+    private static int wordsFor(int bits) {
+        return (bits + WORD_MASK) >>> WORD_SHIFT;
+    }
+}
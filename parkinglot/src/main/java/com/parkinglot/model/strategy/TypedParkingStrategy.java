@@ -0,0 +1,205 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.model.SlotType;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Allocation for mixed levels, where every slot has a {@link SlotType}. Each slot
+ * type has a free pool of its own, a bitmap over its slots in slot order, so a
+ * vehicle never searches past bays it cannot use. The fallback rules list, per
+ * vehicle type, the slot types it may take, best first.
+ * <p>
+ * For every vehicle type a bit mask marks which of its slot types may still have
+ * a free slot, so a claim finds its pool with one trailing-zero count and then
+ * costs the pool's O(log64 n) search, however many types there are. A pool that
+ * runs dry clears its bit in the masks of the vehicle types using it, and sets
+ * it again when a slot comes back; like the bitmap summaries, a bit may briefly
+ * be set over an empty pool but is never left clear over a free slot.
+ * <p>
+ * Claims that do not say what is parking are served as for a car.
+ *
+ * @author Vinod Kandula
+ */
+public class TypedParkingStrategy implements ParkingStrategy {
+
+    private static final int DEFAULT_TYPE = VehicleType.CAR.ordinal();
+
+    private final SlotType[] layout;
+    // where slot i + 1 sits in its pool
+    private final int[] positionOfSlot;
+    private final Pool[] pools;
+    // fallbacks[v][rank]: the pool vehicle type v tries rank-th
+    private final int[][] fallbacks;
+    // bit rank of usable[v] is set while pool fallbacks[v][rank] may have a free slot
+    private final AtomicLongArray usable;
+
+    public TypedParkingStrategy(SlotType[] layout) {
+        this(layout, defaultRules());
+    }
+
+    /**
+     * @param layout the type of every slot, {@code layout[i]} for slot {@code i + 1}
+     * @param rules  slot types each vehicle type may take, best first; a vehicle type
+     *               without rules never finds a slot
+     */
+    public TypedParkingStrategy(SlotType[] layout, Map<VehicleType, List<SlotType>> rules) {
+        this.layout = layout.clone();
+        positionOfSlot = new int[layout.length];
+        int[] sizes = new int[SlotType.values().length];
+        for (int i = 0; i < layout.length; i++)
+            positionOfSlot[i] = sizes[layout[i].ordinal()]++;
+
+        pools = new Pool[sizes.length];
+        for (int p = 0; p < pools.length; p++)
+            pools[p] = new Pool(sizes[p]);
+        for (int i = 0; i < layout.length; i++)
+            pools[layout[i].ordinal()].slots[positionOfSlot[i]] = i + 1;
+
+        fallbacks = new int[VehicleType.values().length][0];
+        for (Map.Entry<VehicleType, List<SlotType>> rule : rules.entrySet()) {
+            List<SlotType> slotTypes = rule.getValue();
+            if (EnumSet.copyOf(slotTypes).size() != slotTypes.size())
+                throw new IllegalArgumentException("Slot types repeat in the rule for " + rule.getKey());
+            int v = rule.getKey().ordinal();
+            fallbacks[v] = new int[slotTypes.size()];
+            for (int rank = 0; rank < slotTypes.size(); rank++) {
+                Pool pool = pools[slotTypes.get(rank).ordinal()];
+                fallbacks[v][rank] = slotTypes.get(rank).ordinal();
+                pool.users = Arrays.copyOf(pool.users, pool.users.length + 1);
+                pool.users[pool.users.length - 1] = v * Long.SIZE + rank;
+            }
+        }
+        usable = new AtomicLongArray(fallbacks.length);
+    }
+
+    /**
+     * Motorbikes may use a car bay, cars a van bay, and electric cars prefer a
+     * charging bay but take a car or van bay when there is none.
+     */
+    public static Map<VehicleType, List<SlotType>> defaultRules() {
+        Map<VehicleType, List<SlotType>> rules = new EnumMap<>(VehicleType.class);
+        rules.put(VehicleType.MOTORBIKE, Arrays.asList(SlotType.MOTORBIKE, SlotType.CAR));
+        rules.put(VehicleType.CAR, Arrays.asList(SlotType.CAR, SlotType.VAN));
+        rules.put(VehicleType.VAN, Arrays.asList(SlotType.VAN));
+        rules.put(VehicleType.ELECTRIC_CAR, Arrays.asList(SlotType.EV_CHARGING, SlotType.CAR, SlotType.VAN));
+        return rules;
+    }
+
+    /**
+     * @return the type of the slot
+     */
+    public SlotType getSlotType(int slot) {
+        return layout[slot - 1];
+    }
+
+    @Override
+    public void add(int i) {
+        if (i < 1 || i > layout.length)
+            throw new IllegalArgumentException("Slot " + i + " is outside the layout");
+        Pool pool = pools[layout[i - 1].ordinal()];
+        pool.free.set(positionOfSlot[i - 1]);
+        announce(pool);
+    }
+
+    @Override
+    public int getSlot() {
+        long mask = usable.get(DEFAULT_TYPE);
+        while (mask != 0) {
+            int rank = Long.numberOfTrailingZeros(mask);
+            Pool pool = pools[fallbacks[DEFAULT_TYPE][rank]];
+            int position = pool.free.next(0);
+            if (position >= 0)
+                return pool.slots[position];
+            mask &= mask - 1;
+        }
+        return Constants.NOT_AVAILABLE;
+    }
+
+    @Override
+    public void removeSlot(int slot) {
+        pools[layout[slot - 1].ordinal()].free.clear(positionOfSlot[slot - 1]);
+    }
+
+    @Override
+    public int claimSlot() {
+        return claim(DEFAULT_TYPE);
+    }
+
+    @Override
+    public int claimSlot(Vehicle vehicle) {
+        return claim(vehicle.getType().ordinal());
+    }
+
+    @Override
+    public int claimSlot(VehicleType vehicleType) {
+        return claim(vehicleType.ordinal());
+    }
+
+    @Override
+    public boolean accepts(int slot, VehicleType vehicleType) {
+        int slotType = layout[slot - 1].ordinal();
+        for (int pool : fallbacks[vehicleType.ordinal()]) {
+            if (pool == slotType)
+                return true;
+        }
+        return false;
+    }
+
+    private int claim(int vehicleType) {
+        long mask;
+        while ((mask = usable.get(vehicleType)) != 0) {
+            Pool pool = pools[fallbacks[vehicleType][Long.numberOfTrailingZeros(mask)]];
+            int position = pool.free.claimFirst();
+            if (position >= 0)
+                return pool.slots[position];
+            drained(pool);
+        }
+        return Constants.NOT_AVAILABLE;
+    }
+
+    private void announce(Pool pool) {
+        for (int user : pool.users) {
+            int v = user / Long.SIZE;
+            long bit = 1L << (user % Long.SIZE);
+            long mask;
+            while (((mask = usable.get(v)) & bit) == 0 && !usable.compareAndSet(v, mask, mask | bit))
+                ;
+        }
+    }
+
+    private void drained(Pool pool) {
+        for (int user : pool.users) {
+            int v = user / Long.SIZE;
+            long bit = 1L << (user % Long.SIZE);
+            long mask;
+            while (((mask = usable.get(v)) & bit) != 0 && !usable.compareAndSet(v, mask, mask & ~bit))
+                ;
+        }
+        // a slot given back meanwhile may have announced itself before the bits were cleared
+        if (pool.free.next(0) >= 0)
+            announce(pool);
+    }
+
+    private static final class Pool {
+
+        // slot numbers of the pool in ascending order
+        private final int[] slots;
+        private final SlotBitmap free;
+        // vehicle types using the pool, as vehicle type * 64 + rank
+        private int[] users = new int[0];
+
+        private Pool(int size) {
+            slots = new int[size];
+            free = new SlotBitmap(size);
+        }
+    }
+}
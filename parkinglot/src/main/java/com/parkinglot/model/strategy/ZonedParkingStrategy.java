@@ -0,0 +1,106 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.constants.Constants;
+
+/**
+ * Zone-aware allocation. The level is split into consecutive zones of slots
+ * (e.g. compact, regular and large bays, or areas near the lifts); a claim fills
+ * the zones in a fixed preference order, nearest-first within a zone. Callers
+ * that know what fits where, such as a size class, can claim from one zone with
+ * {@link #claimSlot(int)}.
+ * <p>
+ * A claim costs O(zones * log64 n).
+ *
+ * @author Vinod Kandula
+ */
+public class ZonedParkingStrategy implements ParkingStrategy {
+
+    private final SlotBitmap free;
+    // zone z covers slot indexes [zoneStart[z], zoneStart[z + 1])
+    private final int[] zoneStart;
+    private final int[] preference;
+
+    /**
+     * Zones are preferred in the order given.
+     */
+    public ZonedParkingStrategy(int... zoneSizes) {
+        this(zoneSizes, identity(zoneSizes.length));
+    }
+
+    /**
+     * @param zoneSizes  slots per zone, zone 0 starting at slot 1
+     * @param preference zone numbers in the order they are filled
+     */
+    public ZonedParkingStrategy(int[] zoneSizes, int[] preference) {
+        if (zoneSizes.length == 0 || preference.length != zoneSizes.length)
+            throw new IllegalArgumentException("Every zone needs a place in the preference order");
+        zoneStart = new int[zoneSizes.length + 1];
+        for (int z = 0; z < zoneSizes.length; z++)
+            zoneStart[z + 1] = zoneStart[z] + zoneSizes[z];
+        this.preference = preference.clone();
+        free = new SlotBitmap(zoneStart[zoneSizes.length]);
+    }
+
+    private static int[] identity(int length) {
+        int[] order = new int[length];
+        for (int i = 0; i < length; i++)
+            order[i] = i;
+        return order;
+    }
+
+    public int getZoneCount() {
+        return preference.length;
+    }
+
+    /**
+     * @return the zone a slot belongs to, or -1 when it is outside every zone
+     */
+    public int zoneOf(int slot) {
+        int index = slot - 1;
+        for (int z = 0; z < preference.length; z++) {
+            if (index >= zoneStart[z] && index < zoneStart[z + 1])
+                return z;
+        }
+        return -1;
+    }
+
+    @Override
+    public void add(int i) {
+        if (zoneOf(i) < 0)
+            throw new IllegalArgumentException("Slot " + i + " is outside every zone");
+        free.set(i - 1);
+    }
+
+    @Override
+    public int getSlot() {
+        for (int zone : preference) {
+            int index = free.next(zoneStart[zone]);
+            if (index >= 0 && index < zoneStart[zone + 1])
+                return index + 1;
+        }
+        return Constants.NOT_AVAILABLE;
+    }
+
+    @Override
+    public void removeSlot(int slot) {
+        free.clear(slot - 1);
+    }
+
+    @Override
+    public int claimSlot() {
+        for (int zone : preference) {
+            int index = free.claimNext(zoneStart[zone], zoneStart[zone + 1]);
+            if (index >= 0)
+                return index + 1;
+        }
+        return Constants.NOT_AVAILABLE;
+    }
+
+    /**
+     * @return the nearest free slot of the zone, or NOT_AVAILABLE when the zone is full
+     */
+    public int claimSlot(int zone) {
+        int index = free.claimNext(zoneStart[zone], zoneStart[zone + 1]);
+        return index >= 0 ? index + 1 : Constants.NOT_AVAILABLE;
+    }
+}
@@ -0,0 +1,478 @@
+package com.parkinglot.persistence;
+
+import com.parkinglot.billing.LevelLedger;
+import com.parkinglot.dao.InMemoryParkingLotDAOImpl;
+import com.parkinglot.dao.ParkingLotDAO;
+import com.parkinglot.dao.SlotChangeLog;
+import com.parkinglot.metrics.LatencyHistogram;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import com.parkinglot.model.strategy.ParkingStrategy;
+import com.parkinglot.reservation.ReservationBook;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps an in-memory lot durable: every park and leave is appended to a
+ * {@link ParkingJournal} once the level has accepted it, and only applied and
+ * acknowledged when the group commit has put the record on disk, or, with
+ * {@link #setDeferDurability deferred durability}, applied at once and acknowledged
+ * by the caller after {@link #awaitDurable()}. A journal that failed a write
+ * refuses further changes instead. {@link #snapshot(IntFunction)}
+ * writes a compact image of all levels so the journal can be trimmed. Recovery
+ * loads the newest snapshot and replays only the journal records it does not
+ * contain yet.
+ *
+ * @author Vinod Kandula
+ */
+public class JournalingParkingLotDAO<T extends Vehicle> implements ParkingLotDAO<T> {
+
+    private static final String JOURNAL_PREFIX  = "journal-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private final Path directory;
+    private final InMemoryParkingLotDAOImpl<T> delegate;
+    private final ParkingJournal journal;
+    // set by a caller that calls awaitDurable itself once it has released the level locks
+    private volatile boolean deferDurability;
+
+    private JournalingParkingLotDAO(Path directory, InMemoryParkingLotDAOImpl<T> delegate, ParkingJournal journal) {
+        this.directory = directory;
+        this.delegate = delegate;
+        this.journal = journal;
+        delegate.setChangeLog(new WriteAhead());
+    }
+
+    // runs under the level's write lock; unless durability is deferred the level waits for the fsync
+    private final class WriteAhead implements SlotChangeLog {
+
+        @Override
+        public void parking(int level, int slotNumber, Vehicle vehicle, long entryTime) {
+            long sequence = journal.appendPark(level, slotNumber, vehicle, entryTime);
+            if (!deferDurability)
+                await(sequence);
+        }
+
+        @Override
+        public void leaving(int level, int slotNumber) {
+            long sequence = journal.appendLeave(level, slotNumber);
+            if (!deferDurability)
+                await(sequence);
+        }
+    }
+
+    private void await(long sequence) {
+        try {
+            journal.awaitDurable(sequence);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * With durability deferred a park or leave returns once its record is appended,
+     * and the caller calls {@link #awaitDurable()} after releasing the level lock, so
+     * changes made under one lock, or on one level one after another, share an fsync.
+     * Other threads may read a change before it is durable.
+     */
+    public void setDeferDurability(boolean deferDurability) {
+        this.deferDurability = deferDurability;
+    }
+
+    @Override
+    public void awaitDurable() {
+        await(journal.lastSequence());
+    }
+
+    /**
+     * Starts a new durable lot in an empty directory.
+     */
+    public static <T extends Vehicle> JournalingParkingLotDAO<T> create(Path directory, int parkingLevels,
+                                                                         int capacity) throws IOException {
+        return create(directory, parkingLevels, capacity, null);
+    }
+
+    /**
+     * @param parkingStrategies allocation strategy per level, as for {@link InMemoryParkingLotDAOImpl}
+     */
+    public static <T extends Vehicle> JournalingParkingLotDAO<T> create(Path directory, int parkingLevels, int capacity,
+                                                                         List<ParkingStrategy> parkingStrategies) throws IOException {
+        Files.createDirectories(directory);
+        if (hasState(directory))
+            throw new IOException(directory + " already holds a parking lot");
+        int[] capacities = new int[parkingLevels];
+        Arrays.fill(capacities, capacity);
+        ParkingJournal journal = ParkingJournal.open(directory, 0, 0);
+        journal.appendLayout(capacities);
+        journal.sync();
+        return new JournalingParkingLotDAO<>(directory, InMemoryParkingLotDAOImpl.<T>newInstance(parkingLevels, capacity, parkingStrategies), journal);
+    }
+
+    public static boolean hasState(Path directory) throws IOException {
+        return Files.isDirectory(directory) && !generations(directory, JOURNAL_PREFIX).isEmpty();
+    }
+
+    /**
+     * Rebuilds a lot from the newest snapshot plus the journal records written after it.
+     *
+     * @return the recovered lot, or null when the directory holds no lot
+     */
+    public static <T extends Vehicle> JournalingParkingLotDAO<T> recover(Path directory) throws IOException {
+        return recover(directory, null);
+    }
+
+    /**
+     * Strategies are not journaled; pass the ones the lot was created with.
+     */
+    public static <T extends Vehicle> JournalingParkingLotDAO<T> recover(Path directory,
+                                                                          List<ParkingStrategy> parkingStrategies) throws IOException {
+        if (!hasState(directory))
+            return null;
+        TreeMap<Integer, Path> journals = generations(directory, JOURNAL_PREFIX);
+        TreeMap<Integer, Path> snapshots = generations(directory, SNAPSHOT_PREFIX);
+
+        Recovery<T> recovery = new Recovery<>(parkingStrategies);
+        int firstJournal = journals.firstKey();
+        if (!snapshots.isEmpty()) {
+            LotSnapshot snapshot = LotSnapshot.read(snapshots.lastEntry().getValue());
+            recovery.load(snapshot);
+            firstJournal = snapshot.generation;
+        }
+        long sequence = 0;
+        for (Map.Entry<Integer, Path> entry : journals.tailMap(firstJournal, true).entrySet())
+            sequence = Math.max(sequence, ParkingJournal.replay(entry.getValue(), recovery));
+        if (recovery.lot == null)
+            throw new IOException("No snapshot or lot layout found in " + directory);
+        for (LotSnapshot.LevelImage image : recovery.levelImages)
+            sequence = Math.max(sequence, image.sequence);
+
+        ParkingJournal journal = ParkingJournal.open(directory, journals.lastKey() + 1, sequence);
+        return new JournalingParkingLotDAO<>(directory, recovery.lot, journal);
+    }
+
+    private static final class Recovery<T extends Vehicle> implements ParkingJournal.RecordVisitor {
+
+        final List<ParkingStrategy> parkingStrategies;
+        InMemoryParkingLotDAOImpl<T> lot;
+        List<LotSnapshot.LevelImage> levelImages = new ArrayList<>();
+        // per level, the journal sequence already contained in the snapshot
+        long[] applied = new long[0];
+
+        Recovery(List<ParkingStrategy> parkingStrategies) {
+            this.parkingStrategies = parkingStrategies;
+        }
+
+        @SuppressWarnings("unchecked")
+        void load(LotSnapshot snapshot) {
+            Map<Integer, Integer> capacities = new HashMap<>();
+            applied = new long[snapshot.levels.size() + 1];
+            for (LotSnapshot.LevelImage image : snapshot.levels) {
+                capacities.put(image.level, image.capacity);
+                applied[image.level] = image.sequence;
+            }
+            lot = InMemoryParkingLotDAOImpl.newInstance(snapshot.levels.size(), capacities, parkingStrategies);
+            for (LotSnapshot.LevelImage image : snapshot.levels) {
+                for (int i = 0; i < image.count; i++)
+                    lot.parkAt(image.level, image.slots[i], (T) image.vehicles[i], image.entryTimes[i]);
+            }
+            levelImages = snapshot.levels;
+        }
+
+        @Override
+        public void layout(long sequence, int[] capacities) {
+            if (lot != null)
+                return;
+            Map<Integer, Integer> capacityMap = new HashMap<>();
+            for (int i = 0; i < capacities.length; i++)
+                capacityMap.put(i + 1, capacities[i]);
+            lot = InMemoryParkingLotDAOImpl.newInstance(capacities.length, capacityMap, parkingStrategies);
+            applied = new long[capacities.length + 1];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void park(long sequence, int level, int slot, Vehicle vehicle, long entryTime) throws IOException {
+            if (sequence <= applied(level))
+                return;
+            if (lot.parkAt(level, slot, (T) vehicle, entryTime) != slot)
+                throw new IOException("Journal record " + sequence + " does not match the lot state");
+        }
+
+        @Override
+        public void leave(long sequence, int level, int slot) {
+            if (sequence > applied(level))
+                lot.unPark(level, slot);
+        }
+
+        private long applied(int level) throws IllegalStateException {
+            if (lot == null)
+                throw new IllegalStateException("Journal record before the lot layout");
+            return applied[level];
+        }
+    }
+
+    /**
+     * Writes an image of every level and drops the journal files it supersedes.
+     * Each level is copied under the lock handed out by {@code levelLock}, which
+     * must exclude park and unPark on that level; other levels keep working.
+     */
+    public void snapshot(IntFunction<Lock> levelLock) throws IOException {
+        int generation = journal.rotate();
+        List<LotSnapshot.LevelImage> images = new ArrayList<>();
+        for (int level = 1; level <= delegate.getLevelCount(); level++) {
+            int capacity = delegate.getCapacity(level);
+            int[] slots;
+            Vehicle[] vehicles;
+            long[] entryTimes;
+            int count = 0;
+            long sequence;
+            Lock lock = levelLock.apply(level);
+            lock.lock();
+            try {
+                // sized under the lock, so the image holds every park its sequence covers
+                slots = new int[capacity - delegate.getAvailableSlotsCount(level)];
+                vehicles = new Vehicle[slots.length];
+                entryTimes = new long[slots.length];
+                sequence = journal.lastSequence();
+                for (int slot = 1; slot <= capacity && count < slots.length; slot++) {
+                    T vehicle = delegate.getVehicle(level, slot);
+                    if (vehicle != null) {
+                        slots[count] = slot;
+                        entryTimes[count] = delegate.getEntryTime(level, slot);
+                        vehicles[count++] = vehicle;
+                    }
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+            images.add(new LotSnapshot.LevelImage(level, capacity, sequence, slots, vehicles, entryTimes, count));
+        }
+        LotSnapshot.write(directory, generation, images);
+
+        for (Path old : generations(directory, JOURNAL_PREFIX).headMap(generation).values())
+            Files.deleteIfExists(old);
+        for (Path old : generations(directory, SNAPSHOT_PREFIX).headMap(generation).values())
+            Files.deleteIfExists(old);
+    }
+
+    /**
+     * Blocks until every event so far is on disk.
+     */
+    public void sync() throws IOException {
+        journal.sync();
+    }
+
+    private static TreeMap<Integer, Path> generations(Path directory, String prefix) throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                int dot = name.indexOf('.');
+                if (dot < 0 || name.endsWith(".tmp"))
+                    continue;
+                try {
+                    files.put(Integer.parseInt(name.substring(prefix.length(), dot)), path);
+                }
+                catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        return files;
+    }
+
+    // the delegate writes every change through WriteAhead before applying it
+    @Override
+    public int park(int level, T vehicle) {
+        return delegate.park(level, vehicle);
+    }
+
+    @Override
+    public Departure unPark(int level, int slotNumber) {
+        return delegate.unPark(level, slotNumber);
+    }
+
+    @Override
+    public int parkAt(int level, int slotNumber, T vehicle, long entryTime) {
+        return delegate.parkAt(level, slotNumber, vehicle, entryTime);
+    }
+
+    // holds live only as long as the process; parking into one is journaled like any park
+    @Override
+    public int hold(int level, VehicleType vehicleType) {
+        return delegate.hold(level, vehicleType);
+    }
+
+    @Override
+    public boolean releaseHold(int level, int slotNumber) {
+        return delegate.releaseHold(level, slotNumber);
+    }
+
+    @Override
+    public int parkHeld(int level, int slotNumber, T vehicle) {
+        return delegate.parkHeld(level, slotNumber, vehicle);
+    }
+
+    @Override
+    public int getAvailableLevel() {
+        return delegate.getAvailableLevel();
+    }
+
+    @Override
+    public int getAvailableLevel(int after) {
+        return delegate.getAvailableLevel(after);
+    }
+
+    @Override
+    public T getVehicle(int level, int slotNumber) {
+        return delegate.getVehicle(level, slotNumber);
+    }
+
+    @Override
+    public long getEntryTime(int level, int slotNumber) {
+        return delegate.getEntryTime(level, slotNumber);
+    }
+
+    @Override
+    public LevelLedger getLedger(int level) {
+        return delegate.getLedger(level);
+    }
+
+    @Override
+    public List<String> getStatus(int level) {
+        return delegate.getStatus(level);
+    }
+
+    @Override
+    public long getStatusVersion(int level) {
+        return delegate.getStatusVersion(level);
+    }
+
+    @Override
+    public StatusDelta getStatusChanges(int level, long sinceVersion) {
+        return delegate.getStatusChanges(level, sinceVersion);
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(int level, String color) {
+        return delegate.getRegNumberForColor(level, color);
+    }
+
+    @Override
+    public List<Integer> getSlotNumbersFromColor(int level, String color) {
+        return delegate.getSlotNumbersFromColor(level, color);
+    }
+
+    @Override
+    public int forEachSlot(int level, String color, VehicleType type, int fromSlot, int toSlot, IntConsumer action) {
+        return delegate.forEachSlot(level, color, type, fromSlot, toSlot, action);
+    }
+
+    @Override
+    public int forEachStatusLine(int level, int fromSlot, int toSlot, Consumer<String> action) {
+        return delegate.forEachStatusLine(level, fromSlot, toSlot, action);
+    }
+
+    @Override
+    public Map<Integer, List<String>> getStatus() {
+        return delegate.getStatus();
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(String color, VehicleType type) {
+        return delegate.getRegNumberForColor(color, type);
+    }
+
+    @Override
+    public List<SlotLocation> getSlotLocationsFromColor(String color, VehicleType type) {
+        return delegate.getSlotLocationsFromColor(color, type);
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(int level, String color, VehicleType type) {
+        return delegate.getRegNumberForColor(level, color, type);
+    }
+
+    @Override
+    public List<Integer> getSlotNumbersFromColor(int level, String color, VehicleType type) {
+        return delegate.getSlotNumbersFromColor(level, color, type);
+    }
+
+    @Override
+    public int getSlotNoFromRegistrationNo(int level, String registrationNo) {
+        return delegate.getSlotNoFromRegistrationNo(level, registrationNo);
+    }
+
+    @Override
+    public SlotLocation getSlotLocation(String registrationNo) {
+        return delegate.getSlotLocation(registrationNo);
+    }
+
+    @Override
+    public int getAvailableSlotsCount(int level) {
+        return delegate.getAvailableSlotsCount(level);
+    }
+
+    @Override
+    public int getCapacity(int level) {
+        return delegate.getCapacity(level);
+    }
+
+    @Override
+    public LatencyHistogram getAllocationTime(int level) {
+        return delegate.getAllocationTime(level);
+    }
+
+    @Override
+    public int getLevelCount() {
+        return delegate.getLevelCount();
+    }
+
+    @Override
+    public ReadWriteLock getLevelLock(int level) {
+        return delegate.getLevelLock(level);
+    }
+
+    @Override
+    public ReservationBook openReservations() {
+        return delegate.openReservations();
+    }
+
+    @Override
+    public ReservationBook getReservations() {
+        return delegate.getReservations();
+    }
+
+    @Override
+    public void cleanup() {
+        try {
+            journal.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            delegate.cleanup();
+        }
+    }
+}
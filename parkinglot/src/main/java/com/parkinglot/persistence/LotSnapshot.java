@@ -0,0 +1,121 @@
+package com.parkinglot.persistence;
+
+import com.parkinglot.model.Vehicle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary image of a lot: per level its capacity, the journal sequence the
+ * image is current up to, and the occupied slots with their vehicles and the time
+ * each entered, so billing carries on across a restart.
+ *
+ * @author Vinod Kandula
+ */
+final class LotSnapshot {
+
+    // version 2: slots carry the entry time
+    private static final int MAGIC = 0x504C5332;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    static final class LevelImage {
+
+        final int level;
+        final int capacity;
+        // every journal record of this level up to here is part of the image
+        final long sequence;
+        final int[] slots;
+        final Vehicle[] vehicles;
+        final long[] entryTimes;
+        final int count;
+
+        LevelImage(int level, int capacity, long sequence, int[] slots, Vehicle[] vehicles, long[] entryTimes,
+                   int count) {
+            this.level = level;
+            this.capacity = capacity;
+            this.sequence = sequence;
+            this.slots = slots;
+            this.vehicles = vehicles;
+            this.entryTimes = entryTimes;
+            this.count = count;
+        }
+    }
+
+    final int generation;
+    final List<LevelImage> levels;
+
+    private LotSnapshot(int generation, List<LevelImage> levels) {
+        this.generation = generation;
+        this.levels = levels;
+    }
+
+    static Path fileFor(Path directory, int generation) {
+        return directory.resolve(String.format("snapshot-%08d.bin", generation));
+    }
+
+    /**
+     * Writes the image next to its final name and renames it into place, so a
+     * crash never leaves a half written snapshot behind.
+     */
+    static void write(Path directory, int generation, List<LevelImage> levels) throws IOException {
+        Path target = fileFor(directory, generation);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(generation);
+            out.writeInt(levels.size());
+            for (LevelImage image : levels) {
+                out.writeInt(image.level);
+                out.writeInt(image.capacity);
+                out.writeLong(image.sequence);
+                out.writeInt(image.count);
+                for (int i = 0; i < image.count; i++) {
+                    out.writeInt(image.slots[i]);
+                    out.writeLong(image.entryTimes[i]);
+                    VehicleCodec.write(out, image.vehicles[i]);
+                }
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static LotSnapshot read(Path path) throws IOException {
+        try (InputStream stream = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(path + " is not a parking lot snapshot");
+            int generation = in.readInt();
+            int levelCount = in.readInt();
+            List<LevelImage> levels = new ArrayList<>(levelCount);
+            for (int l = 0; l < levelCount; l++) {
+                int level = in.readInt();
+                int capacity = in.readInt();
+                long sequence = in.readLong();
+                int count = in.readInt();
+                int[] slots = new int[count];
+                Vehicle[] vehicles = new Vehicle[count];
+                long[] entryTimes = new long[count];
+                for (int i = 0; i < count; i++) {
+                    slots[i] = in.readInt();
+                    entryTimes[i] = in.readLong();
+                    vehicles[i] = VehicleCodec.read(in);
+                }
+                levels.add(new LevelImage(level, capacity, sequence, slots, vehicles, entryTimes, count));
+            }
+            return new LotSnapshot(generation, levels);
+        }
+    }
+}
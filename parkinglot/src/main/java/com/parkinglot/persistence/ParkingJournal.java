@@ -0,0 +1,377 @@
+package com.parkinglot.persistence;
+
+import com.parkinglot.model.Vehicle;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only log of park and leave events, one file per generation.
+ * <p>
+ * Appends only encode into an in-memory buffer. A committer thread writes
+ * whatever has accumulated and forces it to disk, so all events that arrive
+ * while one fsync is in flight share the next one (group commit). Every record
+ * carries a global sequence number, which lets snapshots tell which records they
+ * already contain, and which {@link #awaitDurable(long)} waits for: a change is
+ * only acknowledged once the fsync covering its record has returned. After a failed
+ * write the journal refuses every further append.
+ *
+ * @author Vinod Kandula
+ */
+public class ParkingJournal implements Closeable {
+
+    static final byte PARK   = 1;
+    static final byte LEAVE  = 2;
+    static final byte LAYOUT = 3;
+
+    // version 2: park records carry the entry time
+    private static final int MAGIC = 0x504C4A32;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private final Thread committer;
+
+    // guarded by this
+    private PendingBuffer pending = new PendingBuffer();
+    private DataOutputStream pendingOut = new DataOutputStream(pending);
+    private PendingBuffer spare = new PendingBuffer();
+    private long sequence;
+    // the last sequence number forced to disk
+    private long durable;
+    private boolean closed;
+    private IOException failure;
+
+    // guarded by ioLock
+    private int generation;
+    private FileOutputStream file;
+
+    private ParkingJournal(Path directory, int generation, long sequence) throws IOException {
+        this.directory = directory;
+        this.sequence = sequence;
+        this.durable = sequence;
+        openGeneration(generation);
+        committer = new Thread(this::commitLoop, "parking-journal-" + directory.getFileName());
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Starts a new journal file; the generation must not have been used in this directory yet.
+     */
+    static ParkingJournal open(Path directory, int generation, long sequence) throws IOException {
+        return new ParkingJournal(directory, generation, sequence);
+    }
+
+    static Path fileFor(Path directory, int generation) {
+        return directory.resolve(String.format("journal-%08d.log", generation));
+    }
+
+    synchronized long appendLayout(int[] capacities) {
+        checkWritable();
+        try {
+            pendingOut.writeByte(LAYOUT);
+            pendingOut.writeLong(++sequence);
+            pendingOut.writeInt(capacities.length);
+            for (int capacity : capacities)
+                pendingOut.writeInt(capacity);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return appended();
+    }
+
+    synchronized long appendPark(int level, int slot, Vehicle vehicle, long entryTime) {
+        checkWritable();
+        int start = pending.size();
+        try {
+            pendingOut.writeByte(PARK);
+            pendingOut.writeLong(++sequence);
+            pendingOut.writeInt(level);
+            pendingOut.writeInt(slot);
+            pendingOut.writeLong(entryTime);
+            VehicleCodec.write(pendingOut, vehicle);
+        }
+        catch (IOException e) {
+            // a vehicle that cannot be encoded leaves no part of its record behind
+            pending.truncate(start);
+            sequence--;
+            throw new UncheckedIOException(e);
+        }
+        return appended();
+    }
+
+    synchronized long appendLeave(int level, int slot) {
+        checkWritable();
+        try {
+            pendingOut.writeByte(LEAVE);
+            pendingOut.writeLong(++sequence);
+            pendingOut.writeInt(level);
+            pendingOut.writeInt(slot);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return appended();
+    }
+
+    // before anything is encoded, so a refused change leaves no trace in the buffer
+    private void checkWritable() {
+        if (failure != null)
+            throw new IllegalStateException("Journal is no longer writable", failure);
+        if (closed)
+            throw new IllegalStateException("Journal is closed");
+    }
+
+    private long appended() {
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on disk.
+     *
+     * @throws IOException when the write that should have covered it failed
+     */
+    synchronized void awaitDurable(long recordSequence) throws IOException {
+        while (durable < recordSequence) {
+            if (failure != null)
+                throw new IOException("Journal record " + recordSequence + " was not written", failure);
+            try {
+                wait();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for journal record " + recordSequence);
+            }
+        }
+    }
+
+    /**
+     * @return the sequence number of the last appended record
+     */
+    synchronized long lastSequence() {
+        return sequence;
+    }
+
+    int generation() {
+        ioLock.lock();
+        try {
+            return generation;
+        }
+        finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every record appended so far is on disk.
+     */
+    public void sync() throws IOException {
+        ioLock.lock();
+        try {
+            commit();
+        }
+        finally {
+            ioLock.unlock();
+        }
+    }
+
+    /**
+     * Makes everything appended so far durable in the current file and switches
+     * to a new one.
+     *
+     * @return the generation of the new file
+     */
+    int rotate() throws IOException {
+        ioLock.lock();
+        try {
+            commit();
+            file.close();
+            openGeneration(generation + 1);
+            return generation;
+        }
+        finally {
+            ioLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            committer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ioLock.lock();
+        try {
+            commit();
+            file.close();
+        }
+        finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void openGeneration(int next) throws IOException {
+        Path path = fileFor(directory, next);
+        Files.createFile(path);
+        file = new FileOutputStream(path.toFile());
+        DataOutputStream header = new DataOutputStream(file);
+        header.writeInt(MAGIC);
+        header.writeInt(next);
+        header.flush();
+        generation = next;
+    }
+
+    // caller holds ioLock
+    private void commit() throws IOException {
+        PendingBuffer batch;
+        long last;
+        synchronized (this) {
+            if (pending.size() == 0)
+                return;
+            last = sequence;
+            batch = pending;
+            pending = spare;
+            pendingOut = new DataOutputStream(pending);
+            spare = batch;
+        }
+        try {
+            batch.writeTo(file);
+            file.getChannel().force(false);
+        }
+        catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+                notifyAll();
+            }
+            throw e;
+        }
+        finally {
+            batch.reset();
+        }
+        synchronized (this) {
+            durable = last;
+            notifyAll();
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            synchronized (this) {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        wait();
+                    }
+                    catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed)
+                    return;
+            }
+            ioLock.lock();
+            try {
+                commit();
+            }
+            catch (IOException e) {
+                return;
+            }
+            finally {
+                ioLock.unlock();
+            }
+        }
+    }
+
+    private static final class PendingBuffer extends ByteArrayOutputStream {
+
+        PendingBuffer() {
+            super(BUFFER_SIZE);
+        }
+
+        void truncate(int size) {
+            count = size;
+        }
+    }
+
+    interface RecordVisitor {
+
+        void layout(long sequence, int[] capacities) throws IOException;
+
+        void park(long sequence, int level, int slot, Vehicle vehicle, long entryTime) throws IOException;
+
+        void leave(long sequence, int level, int slot) throws IOException;
+    }
+
+    /**
+     * Feeds every complete record of a journal file to the visitor. A record cut
+     * short by a crash ends the replay.
+     *
+     * @return the sequence number of the last record replayed, or 0 when there was none
+     */
+    static long replay(Path path, RecordVisitor visitor) throws IOException {
+        long last = 0;
+        try (InputStream stream = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(path + " is not a parking journal");
+            in.readInt();
+            while (true) {
+                int type = in.read();
+                if (type < 0)
+                    break;
+                long sequence = in.readLong();
+                switch (type) {
+                    case LAYOUT: {
+                        int[] capacities = new int[in.readInt()];
+                        for (int i = 0; i < capacities.length; i++)
+                            capacities[i] = in.readInt();
+                        visitor.layout(sequence, capacities);
+                        break;
+                    }
+                    case PARK: {
+                        int level = in.readInt();
+                        int slot = in.readInt();
+                        long entryTime = in.readLong();
+                        visitor.park(sequence, level, slot, VehicleCodec.read(in), entryTime);
+                        break;
+                    }
+                    case LEAVE: {
+                        int level = in.readInt();
+                        int slot = in.readInt();
+                        visitor.leave(sequence, level, slot);
+                        break;
+                    }
+                    default:
+                        throw new IOException("Corrupt record type " + type + " in " + path);
+                }
+                last = sequence;
+            }
+        }
+        catch (EOFException e) {
+            // torn tail from a crash, everything before it was replayed
+        }
+        return last;
+    }
+}
@@ -0,0 +1,36 @@
+package com.parkinglot.persistence;
+
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary form of a vehicle shared by the journal and the snapshots:
+ * the {@link VehicleType} code, then the vehicle's own compact form
+ * ({@link Vehicle#writeTo}).
+ *
+ * @author Vinod Kandula
+ */
+public final class VehicleCodec {
+
+    private VehicleCodec() {
+    }
+
+    public static void write(DataOutput out, Vehicle vehicle) throws IOException {
+        out.writeByte(vehicle.getType().getCode());
+        vehicle.writeTo(out);
+    }
+
+    public static Vehicle read(DataInput in) throws IOException {
+        byte code = in.readByte();
+        VehicleType type = VehicleType.ofCode(code);
+        if (type == null)
+            throw new IOException("Unknown vehicle type " + code);
+        Vehicle vehicle = type.newVehicle();
+        vehicle.readFrom(in);
+        return vehicle;
+    }
+}
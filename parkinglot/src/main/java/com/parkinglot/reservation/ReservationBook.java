@@ -0,0 +1,123 @@
+package com.parkinglot.reservation;
+
+import com.parkinglot.model.Reservation;
+
+import java.io.Closeable;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Live reservations by registration, matched case-insensitively, each with a
+ * timeout on a shared {@link TimingWheel}. Whoever removes the entry from the
+ * map owns the held slot: the vehicle arriving, a cancellation, or the expiry,
+ * which hands the reservation to the callback so the slot can be released.
+ *
+ * @author Vinod Kandula
+ */
+public class ReservationBook implements Closeable {
+
+    private final ConcurrentMap<String, Entry> reservations = new ConcurrentHashMap<>();
+    private final TimingWheel wheel;
+    private final Consumer<Reservation> onExpiry;
+
+    /**
+     * @param wheel    drives the expiries; it is closed with the book
+     * @param onExpiry runs on the wheel's thread for every reservation that runs out
+     */
+    public ReservationBook(TimingWheel wheel, Consumer<Reservation> onExpiry) {
+        this.wheel = wheel;
+        this.onExpiry = onExpiry;
+    }
+
+    /**
+     * @return false when the vehicle already has a reservation
+     */
+    public boolean add(Reservation reservation, long holdTime, TimeUnit unit) {
+        String key = key(reservation.getRegistrationNumber());
+        Entry entry = new Entry(reservation);
+        if (reservations.putIfAbsent(key, entry) != null)
+            return false;
+        entry.timeout = wheel.schedule(holdTime, unit, () -> expire(key, entry));
+        return true;
+    }
+
+    /**
+     * @return the vehicle's reservation, or null
+     */
+    public Reservation get(String registrationNo) {
+        Entry entry = reservations.get(key(registrationNo));
+        return entry == null ? null : entry.reservation;
+    }
+
+    /**
+     * Takes the reservation out of the book, so it can no longer expire.
+     *
+     * @return the reservation, or null when there is none or it has just expired
+     */
+    public Reservation claim(String registrationNo) {
+        Entry entry = reservations.remove(key(registrationNo));
+        return entry == null ? null : settle(entry);
+    }
+
+    /**
+     * Like {@link #claim(String)}, but only a reservation on the given level.
+     */
+    public Reservation claim(String registrationNo, int level) {
+        String key = key(registrationNo);
+        Entry entry = reservations.get(key);
+        if (entry == null || entry.reservation.getLevel() != level || !reservations.remove(key, entry))
+            return null;
+        return settle(entry);
+    }
+
+    public boolean isEmpty() {
+        return reservations.isEmpty();
+    }
+
+    public int size() {
+        return reservations.size();
+    }
+
+    /**
+     * Stops the wheel; reservations still in the book never expire.
+     */
+    @Override
+    public void close() {
+        wheel.close();
+        reservations.clear();
+    }
+
+    private Reservation settle(Entry entry) {
+        TimingWheel.Timeout timeout = entry.timeout;
+        // null only while add is still scheduling; the expiry then finds the entry gone
+        if (timeout != null)
+            timeout.cancel();
+        return entry.reservation;
+    }
+
+    private void expire(String key, Entry entry) {
+        if (reservations.remove(key, entry))
+            onExpiry.accept(entry.reservation);
+    }
+
+    private static String key(String registrationNo) {
+        for (int i = 0; i < registrationNo.length(); i++) {
+            if (Character.isLowerCase(registrationNo.charAt(i)))
+                return registrationNo.toUpperCase(Locale.ROOT);
+        }
+        return registrationNo;
+    }
+
+    private static final class Entry {
+
+        private final Reservation reservation;
+        private volatile TimingWheel.Timeout timeout;
+
+        private Entry(Reservation reservation) {
+            this.reservation = reservation;
+        }
+    }
+}
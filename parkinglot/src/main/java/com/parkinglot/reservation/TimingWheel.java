@@ -0,0 +1,234 @@
+package com.parkinglot.reservation;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck): four wheels of 64 buckets,
+ * each bucket of a wheel spanning a whole turn of the wheel below it. A timeout
+ * goes straight into the bucket of the wheel that covers its delay, and is moved
+ * one wheel down when the wheel below comes round to it, so it is touched at most
+ * four times however far out it is. Scheduling and cancelling are O(1) and no
+ * timer thread or heap entry exists per timeout.
+ * <p>
+ * Time advances in ticks; a timeout never fires early and fires at most a tick
+ * late. Tasks run on the thread that advances the wheel, outside its lock, and
+ * must be short.
+ *
+ * @author Vinod Kandula
+ */
+public class TimingWheel implements Closeable {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int WHEELS = 4;
+    // furthest a timeout is placed ahead; later ones are placed here and re-placed when they come round
+    private static final long HORIZON = (1L << (WHEEL_BITS * WHEELS)) - 1;
+
+    private final long tickMillis;
+    private final LongSupplier clockMillis;
+    private final long startMillis;
+    // buckets are circular lists with a sentinel head
+    private final Timeout[][] wheels = new Timeout[WHEELS][WHEEL_SIZE];
+    private long currentTick;
+    private int size;
+    private ScheduledExecutorService driver;
+
+    public TimingWheel(long tickMillis) {
+        this(tickMillis, () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+    }
+
+    /**
+     * @param clockMillis a monotonic clock; tests pass one they can move by hand
+     */
+    public TimingWheel(long tickMillis, LongSupplier clockMillis) {
+        if (tickMillis <= 0)
+            throw new IllegalArgumentException("tickMillis must be positive");
+        this.tickMillis = tickMillis;
+        this.clockMillis = clockMillis;
+        this.startMillis = clockMillis.getAsLong();
+        for (Timeout[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++)
+                wheel[i] = Timeout.sentinel();
+        }
+    }
+
+    /**
+     * Runs the task once the delay has passed, unless the returned timeout is cancelled first.
+     */
+    public Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        long delayMillis = Math.max(0, unit.toMillis(delay));
+        long elapsed = clockMillis.getAsLong() - startMillis + delayMillis;
+        // round up so the task never runs early
+        long deadline = (elapsed + tickMillis - 1) / tickMillis;
+        Timeout timeout = new Timeout(this, deadline, task);
+        synchronized (this) {
+            place(timeout, currentTick + 1);
+            size++;
+        }
+        return timeout;
+    }
+
+    /**
+     * Brings the wheel up to the clock and runs every task that has come due.
+     */
+    public void advance() {
+        long target = (clockMillis.getAsLong() - startMillis) / tickMillis;
+        List<Timeout> due = new ArrayList<>();
+        synchronized (this) {
+            while (currentTick < target) {
+                currentTick++;
+                cascade();
+                drain(wheels[0][(int) (currentTick & WHEEL_MASK)], due);
+            }
+            size -= due.size();
+        }
+        for (Timeout timeout : due) {
+            try {
+                timeout.task.run();
+            }
+            catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel every tick on a daemon thread of its own.
+     */
+    public synchronized void start(String name) {
+        if (driver != null)
+            return;
+        driver = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        driver.scheduleAtFixedRate(this::advance, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the driver thread; pending timeouts never fire.
+     */
+    @Override
+    public synchronized void close() {
+        if (driver != null) {
+            driver.shutdownNow();
+            driver = null;
+        }
+    }
+
+    /**
+     * @return timeouts scheduled and neither run nor cancelled yet
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    // caller holds the lock; a timeout already due goes into the bucket of dueTick
+    private void place(Timeout timeout, long dueTick) {
+        if (timeout.deadline <= dueTick) {
+            link(wheels[0][(int) (dueTick & WHEEL_MASK)], timeout);
+            return;
+        }
+        long delta = Math.min(timeout.deadline - currentTick, HORIZON);
+        long slotTick = currentTick + delta;
+        int wheel = 0;
+        while (delta >= WHEEL_SIZE) {
+            delta >>>= WHEEL_BITS;
+            wheel++;
+        }
+        link(wheels[wheel][(int) ((slotTick >>> (wheel * WHEEL_BITS)) & WHEEL_MASK)], timeout);
+    }
+
+    // when a wheel comes round, the current bucket of the wheel above is spread out below it
+    private void cascade() {
+        for (int wheel = WHEELS - 1; wheel > 0; wheel--) {
+            long below = (1L << (wheel * WHEEL_BITS)) - 1;
+            if ((currentTick & below) != 0)
+                continue;
+            Timeout head = wheels[wheel][(int) ((currentTick >>> (wheel * WHEEL_BITS)) & WHEEL_MASK)];
+            Timeout timeout = head.next;
+            while (timeout != head) {
+                Timeout next = timeout.next;
+                unlink(timeout);
+                // the current bucket is drained right after the cascade
+                place(timeout, currentTick);
+                timeout = next;
+            }
+        }
+    }
+
+    private void drain(Timeout head, List<Timeout> due) {
+        Timeout timeout = head.next;
+        while (timeout != head) {
+            Timeout next = timeout.next;
+            unlink(timeout);
+            timeout.expired = true;
+            due.add(timeout);
+            timeout = next;
+        }
+    }
+
+    private static void link(Timeout head, Timeout timeout) {
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private static void unlink(Timeout timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    /**
+     * Handle to a scheduled task.
+     */
+    public static final class Timeout {
+
+        private final TimingWheel owner;
+        private final long deadline;
+        private final Runnable task;
+        // guarded by the owner's lock
+        private Timeout prev;
+        private Timeout next;
+        private boolean expired;
+        private boolean cancelled;
+
+        private Timeout(TimingWheel owner, long deadline, Runnable task) {
+            this.owner = owner;
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        private static Timeout sentinel() {
+            Timeout head = new Timeout(null, 0, null);
+            head.prev = head;
+            head.next = head;
+            return head;
+        }
+
+        /**
+         * @return false when the task has already been handed out to run, or was cancelled before
+         */
+        public boolean cancel() {
+            synchronized (owner) {
+                if (expired || cancelled)
+                    return false;
+                cancelled = true;
+                unlink(this);
+                owner.size--;
+                return true;
+            }
+        }
+    }
+}
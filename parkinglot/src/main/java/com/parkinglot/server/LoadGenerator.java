@@ -0,0 +1,216 @@
+package com.parkinglot.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a {@link ParkingServer} the way a row of gates would: every connection
+ * sends a window of parks in one go, waits for the answers, then sends the leaves
+ * for the slots it was given, over and over. Prints throughput and the round
+ * trip time of a window.
+ * <p>
+ * Usage: {@code java -cp <jar_file_path> com.parkinglot.server.LoadGenerator
+ * <host> <port> [connections] [requests_per_connection] [pipeline_depth]}
+ *
+ * @author Vinod Kandula
+ */
+public class LoadGenerator {
+
+    private static final String PARKED = "Allocated slot number: ";
+
+    private final InetSocketAddress address;
+    private final int connections;
+    private final int requests;
+    private final int depth;
+
+    /**
+     * @param requests parks and leaves sent by every connection
+     * @param depth    commands each connection has in flight at once
+     */
+    public LoadGenerator(InetSocketAddress address, int connections, int requests, int depth) {
+        if (connections <= 0 || requests <= 0 || depth <= 0)
+            throw new IllegalArgumentException("connections, requests and depth must be positive");
+        this.address = address;
+        this.connections = connections;
+        this.requests = requests;
+        this.depth = depth;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: java -cp <jar_file_path> " + LoadGenerator.class.getName()
+                    + " <host> <port> [connections] [requests_per_connection] [pipeline_depth]");
+            return;
+        }
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        int requests = args.length > 3 ? Integer.parseInt(args[3]) : 100000;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 32;
+        LoadGenerator generator = new LoadGenerator(
+                new InetSocketAddress(args[0], Integer.parseInt(args[1])), connections, requests, depth);
+        System.out.println(generator.run());
+    }
+
+    /**
+     * Creates a lot big enough for every window in flight, unless one exists, then
+     * runs all connections to completion.
+     */
+    public Report run() throws IOException, InterruptedException {
+        try (Socket socket = connect()) {
+            send(socket.getOutputStream(), Arrays.asList("create_parking_lot " + (long) connections * depth));
+            readAnswers(new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)), 1);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(connections);
+        try {
+            List<Future<Report>> clients = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                int client = i;
+                clients.add(pool.submit(() -> drive(client)));
+            }
+            Report total = new Report();
+            for (Future<Report> client : clients)
+                total.add(client.get());
+            total.nanos = System.nanoTime() - start;
+            return total;
+        }
+        catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        finally {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Report drive(int client) throws IOException {
+        Report report = new Report();
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            List<String> commands = new ArrayList<>(depth);
+            int sent = 0;
+            while (sent < requests) {
+                int window = Math.min(depth, requests - sent);
+                commands.clear();
+                for (int i = 0; i < window; i++)
+                    commands.add("park LG-" + client + "-" + (sent + i) + " White");
+                long start = System.nanoTime();
+                send(out, commands);
+                List<String> parked = readAnswers(in, window);
+                report.record(System.nanoTime() - start, window);
+
+                commands.clear();
+                for (String answer : parked) {
+                    if (answer.startsWith(PARKED))
+                        commands.add("leave " + answer.substring(PARKED.length()));
+                    else
+                        report.errors++;
+                }
+                if (!commands.isEmpty()) {
+                    start = System.nanoTime();
+                    send(out, commands);
+                    for (String answer : readAnswers(in, commands.size())) {
+                        if (!answer.endsWith("is free"))
+                            report.errors++;
+                    }
+                    report.record(System.nanoTime() - start, commands.size());
+                }
+                sent += window;
+            }
+            send(out, Arrays.asList(ParkingServer.EXIT));
+        }
+        return report;
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(address);
+        return socket;
+    }
+
+    private static void send(OutputStream out, List<String> commands) throws IOException {
+        StringBuilder buffer = new StringBuilder(commands.size() * 32);
+        for (String command : commands)
+            buffer.append(command).append('\n');
+        out.write(buffer.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    // the first line of each of the next count answers
+    private static List<String> readAnswers(BufferedReader in, int count) throws IOException {
+        List<String> answers = new ArrayList<>(count);
+        String first = null;
+        while (answers.size() < count) {
+            String line = in.readLine();
+            if (line == null)
+                throw new IOException("Connection closed with " + (count - answers.size()) + " answers outstanding");
+            if (!line.isEmpty()) {
+                if (first == null)
+                    first = line;
+            }
+            else {
+                answers.add(first);
+                first = null;
+            }
+        }
+        return answers;
+    }
+
+    public static class Report {
+
+        private long requests;
+        private long errors;
+        private long nanos;
+        private long maxRoundTrip;
+        private long totalRoundTrip;
+        private long roundTrips;
+
+        void record(long roundTrip, int commands) {
+            requests += commands;
+            totalRoundTrip += roundTrip;
+            roundTrips++;
+            maxRoundTrip = Math.max(maxRoundTrip, roundTrip);
+        }
+
+        void add(Report other) {
+            requests += other.requests;
+            errors += other.errors;
+            totalRoundTrip += other.totalRoundTrip;
+            roundTrips += other.roundTrips;
+            maxRoundTrip = Math.max(maxRoundTrip, other.maxRoundTrip);
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return answers that were not the expected allocation or release
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = nanos / 1e9;
+            return String.format("%d requests in %.2f s, %.0f requests/s, %d errors, round trip mean %.1f us max %.1f us",
+                    requests, seconds, seconds > 0 ? requests / seconds : 0, errors,
+                    roundTrips > 0 ? totalRoundTrip / 1e3 / roundTrips : 0, maxRoundTrip / 1e3);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.parkinglot.server;
+
+import com.parkinglot.cmd.CmdRequestProcessor;
+import com.parkinglot.cmd.Command;
+import com.parkinglot.cmd.CommandParser;
+import com.parkinglot.exception.ErrorCode;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ResultSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Serves the {@link CmdRequestProcessor} command set over TCP, one command per line.
+ * <p>
+ * Every command is answered with the lines the console would print, followed by an
+ * empty line, so a client may pipeline as many commands as it likes and match the
+ * answers up in order. Empty input lines are ignored and {@code exit} closes the
+ * connection once the answers before it have been sent.
+ * <p>
+ * One selector thread does all the work. The commands are short in-memory
+ * operations, so it runs every complete line of a read straight away and sends
+ * all the answers back in a single write. A client that stops reading is not
+ * read from either until its answers have drained.
+ *
+ * @author Vinod Kandula
+ */
+public class ParkingServer implements Runnable, Closeable {
+
+    public static final String EXIT = "exit";
+
+    private static final int BACKLOG = 1024;
+    // also the longest line accepted
+    private static final int READ_BUFFER_SIZE = 1 << 14;
+    private static final int WRITE_BUFFER_SIZE = 1 << 14;
+    // answers queued for a client before it is no longer read from
+    private static final int WRITE_HIGH_WATER = 1 << 20;
+    private static final String VALIDATION_FAILED = "Input arguments Validation Failed";
+
+    private final CmdRequestProcessor processor;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ConnectionSink sink = new ConnectionSink();
+    // only used on the selector thread
+    private final Command command = new Command();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    /**
+     * Binds straight away; the service's answers go to the clients from now on.
+     */
+    public ParkingServer(CmdRequestProcessor processor, ParkingService service, InetSocketAddress address) throws IOException {
+        this.processor = processor;
+        service.setResultSink(sink);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(address, BACKLOG);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        }
+        catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Serves on a thread of its own.
+     */
+    public synchronized void start() {
+        thread = new Thread(this, "parking-server-" + getPort());
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid())
+                        handle(key);
+                }
+            }
+        }
+        catch (IOException e) {
+            if (running)
+                e.printStackTrace();
+        }
+        finally {
+            for (SelectionKey key : selector.keys())
+                closeQuietly(key);
+            try {
+                selector.close();
+            }
+            catch (IOException e) {
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        Thread serving;
+        synchronized (this) {
+            serving = thread;
+        }
+        if (serving != null && serving != Thread.currentThread()) {
+            try {
+                serving.join();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Connection connection = (Connection) key.attachment();
+            if (key.isReadable())
+                connection.read();
+            if (key.isValid() && key.isWritable())
+                connection.write();
+        }
+        catch (IOException e) {
+            closeQuietly(key);
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(key, channel));
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        }
+        catch (IOException e) {
+        }
+    }
+
+    private final class Connection {
+
+        final SelectionKey key;
+        final SocketChannel channel;
+        // heap buffers so lines can be decoded straight from the backing array
+        final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        boolean closing;
+
+        Connection(SelectionKey key, SocketChannel channel) {
+            this.key = key;
+            this.channel = channel;
+        }
+
+        void read() throws IOException {
+            int read = channel.read(in);
+            in.flip();
+            executeLines();
+            in.compact();
+            if (read < 0)
+                closing = true;
+            else if (!closing && in.position() == in.capacity() && out.position() < WRITE_HIGH_WATER) {
+                // no line ending anywhere in a full buffer
+                append(ErrorCode.INVALID_REQUEST.getMessage());
+                append("");
+                closing = true;
+            }
+            write();
+        }
+
+        void write() throws IOException {
+            out.flip();
+            channel.write(out);
+            out.compact();
+            if (out.position() == 0 && !closing && in.position() > 0) {
+                // catch up on the lines left over while the client was not reading
+                in.flip();
+                executeLines();
+                in.compact();
+                out.flip();
+                channel.write(out);
+                out.compact();
+            }
+            if (out.position() == 0 && closing) {
+                closeQuietly(key);
+                return;
+            }
+            int ops = out.position() > 0 ? SelectionKey.OP_WRITE : 0;
+            if (!closing && out.position() < WRITE_HIGH_WATER)
+                ops |= SelectionKey.OP_READ;
+            key.interestOps(ops);
+        }
+
+        // runs the complete lines in [position, limit) of the flipped input buffer
+        private void executeLines() {
+            byte[] bytes = in.array();
+            int start = in.position();
+            int limit = in.limit();
+            sink.connection = this;
+            try {
+                for (int i = start; i < limit && !closing && out.position() < WRITE_HIGH_WATER; i++) {
+                    if (bytes[i] != '\n')
+                        continue;
+                    int end = i > start && bytes[i - 1] == '\r' ? i - 1 : i;
+                    execute(new String(bytes, start, end - start, StandardCharsets.UTF_8).trim());
+                    start = i + 1;
+                }
+            }
+            finally {
+                sink.connection = null;
+            }
+            in.position(start);
+        }
+
+        private void execute(String input) {
+            if (input.isEmpty())
+                return;
+            if (input.equalsIgnoreCase(EXIT)) {
+                closing = true;
+                return;
+            }
+            if (CommandParser.parse(input, command)) {
+                try {
+                    processor.execute(command);
+                }
+                catch (Exception e) {
+                    append(String.valueOf(e.getMessage()));
+                }
+            }
+            else
+                append(VALIDATION_FAILED);
+            append("");
+        }
+
+        void append(String line) {
+            int length = line.length();
+            ensureRoom(length + 1);
+            for (int i = 0; i < length; i++) {
+                char c = line.charAt(i);
+                if (c >= 0x80) {
+                    byte[] rest = line.substring(i).getBytes(StandardCharsets.UTF_8);
+                    ensureRoom(rest.length + 1);
+                    out.put(rest);
+                    break;
+                }
+                out.put((byte) c);
+            }
+            out.put((byte) '\n');
+        }
+
+        private void ensureRoom(int bytes) {
+            if (out.remaining() >= bytes)
+                return;
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+            out.flip();
+            grown.put(out);
+            out = grown;
+        }
+    }
+
+    /**
+     * Appends the service's answers to the connection whose line is running. Only
+     * ever called on the selector thread.
+     */
+    private static final class ConnectionSink implements ResultSink {
+
+        Connection connection;
+
+        @Override
+        public void write(String line) {
+            if (connection != null)
+                connection.append(line);
+        }
+
+        @Override
+        public void flush() {
+        }
+    }
+}
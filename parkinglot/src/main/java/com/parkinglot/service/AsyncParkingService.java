@@ -0,0 +1,58 @@
+package com.parkinglot.service;
+
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.SlotOperation;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link ParkingService} for gate controllers and
+ * kiosks: every call returns at once and its future completes when the work is
+ * done. Failures complete the future exceptionally with a {@code ParkingException}.
+ * Results are returned only, nothing is written to a result sink.
+ *
+ * @author Vinod Kandula
+ */
+public interface AsyncParkingService extends Service {
+
+    public CompletableFuture<Integer> park(int level, Vehicle vehicle);
+
+    /**
+     * Parks on the lowest level with a free slot.
+     */
+    public CompletableFuture<SlotLocation> park(Vehicle vehicle);
+
+    /**
+     * @return the departure with the fee for the stay, or null when the slot was already empty
+     */
+    public CompletableFuture<Departure> unPark(int level, int slotNumber);
+
+    /**
+     * Like {@link ParkingService#applyBatch}: the batch stops at an operation that fails,
+     * and the ones applied before it are kept and reported.
+     */
+    public CompletableFuture<List<String>> applyBatch(int level, List<SlotOperation> operations);
+
+    public CompletableFuture<List<String>> getStatus(int level);
+
+    public CompletableFuture<StatusDelta> getStatusChanges(int level, long sinceVersion);
+
+    public CompletableFuture<Integer> getAvailableSlotsCount(int level);
+
+    public CompletableFuture<List<String>> getRegNumberForColor(int level, String color);
+
+    public CompletableFuture<List<Integer>> getSlotNumbersFromColor(int level, String color);
+
+    public CompletableFuture<Integer> getSlotNoFromRegistrationNo(int level, String registrationNo);
+
+    public CompletableFuture<SlotLocation> getSlotLocationFromRegistrationNo(String registrationNo);
+
+    /**
+     * Stops accepting work; calls already accepted still complete.
+     */
+    public void shutdown();
+}
@@ -0,0 +1,350 @@
+package com.parkinglot.service;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.dao.ParkingLotDAO;
+import com.parkinglot.dao.ParkingLotRegistry;
+import com.parkinglot.exception.ErrorCode;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.Reservation;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.SlotOperation;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * {@link AsyncParkingService} over an existing lot.
+ * <p>
+ * Every level has a mailbox: parks and leaves are queued on it and a single
+ * writer drains it on the shared pool, applying up to {@link #DRAIN_LIMIT} of
+ * them under one write lock acquisition. No thread is tied to a level, and a
+ * caller never waits for a lock. Reads run on the pool under the level's read
+ * lock, so they proceed side by side and only wait out a drain in progress.
+ * Futures are completed after the lock is released, so dependent stages never
+ * run while a level is locked, and after the lot has made the drained changes
+ * durable, with one fsync for the whole drain on a journaled lot.
+ * <p>
+ * The level locks and the reservations are the lot's own, so a
+ * {@link ParkingServiceImpl} may drive the same lot at the same time: a vehicle
+ * booked through it takes its held slot when parked through here.
+ *
+ * @author Vinod Kandula
+ */
+public class AsyncParkingServiceImpl implements AsyncParkingService {
+
+    private static final int DRAIN_LIMIT = 256;
+
+    private final ParkingLotDAO<Vehicle> dataManager;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final Mailbox[] mailboxes;
+    private volatile boolean shutdown;
+
+    public AsyncParkingServiceImpl(String lotId) throws ParkingException {
+        this(lotId, ParkingLotRegistry.getInstance(), null);
+    }
+
+    /**
+     * @param executor runs the level writers and the reads; null for a private
+     *                 pool with one thread per core
+     */
+    public AsyncParkingServiceImpl(String lotId, ParkingLotRegistry registry, ExecutorService executor) throws ParkingException {
+        ParkingLotDAO<Vehicle> parkingLot = registry.getParkingLot(lotId);
+        if (parkingLot == null)
+            throw new ParkingException(ErrorCode.PARKING_NOT_EXIST_ERROR.getMessage());
+        this.dataManager = parkingLot;
+        this.ownExecutor = executor == null;
+        this.executor = executor != null ? executor
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+                    Thread thread = new Thread(task, "parking-async-" + lotId);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        mailboxes = new Mailbox[parkingLot.getLevelCount() + 1];
+        for (int level = 1; level < mailboxes.length; level++)
+            mailboxes[level] = new Mailbox(parkingLot.getLevelLock(level));
+    }
+
+    @Override
+    public CompletableFuture<Integer> park(int level, Vehicle vehicle) {
+        Reservation reservation = ParkingServiceImpl.claimReservation(dataManager, vehicle);
+        if (reservation != null && reservation.getLevel() != level) {
+            release(reservation);
+            reservation = null;
+        }
+        return park(level, vehicle, reservation);
+    }
+
+    private CompletableFuture<Integer> park(int level, Vehicle vehicle, Reservation reservation) {
+        if (reservation != null)
+            return write(level, dao -> ParkingServiceImpl.parkHeld(dao, reservation, vehicle),
+                    ErrorCode.PROCESSING_ERROR.getMessage());
+        return write(level, dao -> dao.park(level, vehicle), ErrorCode.PROCESSING_ERROR.getMessage());
+    }
+
+    @Override
+    public CompletableFuture<SlotLocation> park(Vehicle vehicle) {
+        CompletableFuture<SlotLocation> result = new CompletableFuture<>();
+        Reservation reservation = ParkingServiceImpl.claimReservation(dataManager, vehicle);
+        if (reservation == null) {
+            parkOnAvailableLevel(vehicle, dataManager.getAvailableLevel(), result);
+            return result;
+        }
+        // a booked vehicle that finds no slot on its reserved level looks on the others like any other
+        int level = reservation.getLevel();
+        park(level, vehicle, reservation).whenComplete((slot, failure) -> {
+            if (failure != null)
+                result.completeExceptionally(failure);
+            else if (slot == Constants.NOT_AVAILABLE)
+                parkOnAvailableLevel(vehicle, dataManager.getAvailableLevel(), result);
+            else
+                result.complete(new SlotLocation(level, slot));
+        });
+        return result;
+    }
+
+    // the booked vehicle went to another level; the hold is given back through the level's mailbox
+    private void release(Reservation reservation) {
+        int level = reservation.getLevel();
+        write(level, dao -> dao.releaseHold(level, reservation.getSlotNumber()), ErrorCode.PROCESSING_ERROR.getMessage());
+    }
+
+    // the index can be behind another gate, or the level may have nothing this vehicle fits in;
+    // if the level turns out full, carry on above it
+    private void parkOnAvailableLevel(Vehicle vehicle, int level, CompletableFuture<SlotLocation> result) {
+        if (level == Constants.NOT_AVAILABLE) {
+            result.complete(new SlotLocation(Constants.NOT_AVAILABLE, Constants.NOT_AVAILABLE));
+            return;
+        }
+        park(level, vehicle, null).whenComplete((slot, failure) -> {
+            if (failure != null)
+                result.completeExceptionally(failure);
+            else if (slot == Constants.NOT_AVAILABLE)
+                parkOnAvailableLevel(vehicle, dataManager.getAvailableLevel(level), result);
+            else
+                result.complete(new SlotLocation(level, slot));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Departure> unPark(int level, int slotNumber) {
+        return write(level, dao -> dao.unPark(level, slotNumber), ParkingServiceImpl.INVALID_SLOT_MESSAGE);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> applyBatch(int level, List<SlotOperation> operations) {
+        int[] results = new int[operations.size()];
+        return this.<int[]>write(level, dao -> {
+            ParkingServiceImpl.applyOperations(dao, level, operations, results);
+            return results;
+        }, ErrorCode.PROCESSING_ERROR.getMessage()).thenApply(done -> ParkingServiceImpl.batchMessages(operations, done));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getStatus(int level) {
+        return read(level, dao -> dao.getStatus(level));
+    }
+
+    @Override
+    public CompletableFuture<StatusDelta> getStatusChanges(int level, long sinceVersion) {
+        return read(level, dao -> dao.getStatusChanges(level, sinceVersion));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getAvailableSlotsCount(int level) {
+        return read(level, dao -> dao.getAvailableSlotsCount(level));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getRegNumberForColor(int level, String color) {
+        return read(level, dao -> dao.getRegNumberForColor(level, color));
+    }
+
+    @Override
+    public CompletableFuture<List<Integer>> getSlotNumbersFromColor(int level, String color) {
+        return read(level, dao -> dao.getSlotNumbersFromColor(level, color));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getSlotNoFromRegistrationNo(int level, String registrationNo) {
+        return read(level, dao -> dao.getSlotNoFromRegistrationNo(level, registrationNo));
+    }
+
+    @Override
+    public CompletableFuture<SlotLocation> getSlotLocationFromRegistrationNo(String registrationNo) {
+        // the lot-wide index needs no level lock, so there is nothing to wait for
+        if (shutdown)
+            return failed(ErrorCode.PROCESSING_ERROR.getMessage(), null);
+        try {
+            return CompletableFuture.completedFuture(dataManager.getSlotLocation(registrationNo));
+        }
+        catch (RuntimeException e) {
+            return failed(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        if (ownExecutor)
+            executor.shutdown();
+    }
+
+    private <R> CompletableFuture<R> write(int level, Function<ParkingLotDAO<Vehicle>, R> operation, String errorMessage) {
+        Mailbox mailbox = mailboxFor(level);
+        if (mailbox == null)
+            return failed(ErrorCode.INVALID_VALUE.getMessage().replace("{variable}", "level"), null);
+        if (shutdown)
+            return failed(ErrorCode.PROCESSING_ERROR.getMessage(), null);
+        Write<R> write = new Write<>(operation, errorMessage);
+        mailbox.post(write);
+        return write.future;
+    }
+
+    private <R> CompletableFuture<R> read(int level, Function<ParkingLotDAO<Vehicle>, R> operation) {
+        Mailbox mailbox = mailboxFor(level);
+        if (mailbox == null)
+            return failed(ErrorCode.INVALID_VALUE.getMessage().replace("{variable}", "level"), null);
+        if (shutdown)
+            return failed(ErrorCode.PROCESSING_ERROR.getMessage(), null);
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                R result;
+                Lock readLock = mailbox.lock.readLock();
+                readLock.lock();
+                try {
+                    result = operation.apply(dataManager);
+                }
+                catch (RuntimeException e) {
+                    future.completeExceptionally(new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e));
+                    return;
+                }
+                finally {
+                    readLock.unlock();
+                }
+                future.complete(result);
+            });
+        }
+        catch (RejectedExecutionException e) {
+            return failed(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        return future;
+    }
+
+    private Mailbox mailboxFor(int level) {
+        return level >= 1 && level < mailboxes.length ? mailboxes[level] : null;
+    }
+
+    private static <R> CompletableFuture<R> failed(String message, Throwable cause) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        future.completeExceptionally(new ParkingException(message, cause));
+        return future;
+    }
+
+    private static final class Write<R> {
+
+        final Function<ParkingLotDAO<Vehicle>, R> operation;
+        final String errorMessage;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        R result;
+        RuntimeException failure;
+
+        Write(Function<ParkingLotDAO<Vehicle>, R> operation, String errorMessage) {
+            this.operation = operation;
+            this.errorMessage = errorMessage;
+        }
+
+        // under the level's write lock
+        void apply(ParkingLotDAO<Vehicle> dataManager) {
+            try {
+                result = operation.apply(dataManager);
+            }
+            catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        // after the lock is released; a change that could not be made durable is not acknowledged
+        void complete(RuntimeException unsynced) {
+            if (failure == null && unsynced != null)
+                failure = unsynced;
+            if (failure != null)
+                future.completeExceptionally(new ParkingException(errorMessage, failure));
+            else
+                future.complete(result);
+        }
+    }
+
+    private final class Mailbox implements Runnable {
+
+        // the lot's lock for the level
+        final ReadWriteLock lock;
+        final Queue<Write<?>> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final Write<?>[] drained = new Write<?>[DRAIN_LIMIT];
+
+        Mailbox(ReadWriteLock lock) {
+            this.lock = lock;
+        }
+
+        void post(Write<?> write) {
+            queue.add(write);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                }
+                catch (RejectedExecutionException e) {
+                    // pool is gone, run the remaining writes on the posting thread
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int count = 0;
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                Write<?> write;
+                while (count < DRAIN_LIMIT && (write = queue.poll()) != null) {
+                    write.apply(dataManager);
+                    drained[count++] = write;
+                }
+            }
+            finally {
+                writeLock.unlock();
+            }
+            RuntimeException unsynced = null;
+            try {
+                dataManager.awaitDurable();
+            }
+            catch (RuntimeException e) {
+                unsynced = e;
+            }
+            for (int i = 0; i < count; i++) {
+                drained[i].complete(unsynced);
+                drained[i] = null;
+            }
+            scheduled.set(false);
+            schedule();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.parkinglot.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Collects lines in a large buffer and hands them to the stream in big chunks.
+ * Nothing reaches the stream until the buffer fills or {@link #flush()} is called.
+ *
+ * @author Vinod Kandula
+ */
+public class BufferedResultSink implements ResultSink {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer writer;
+
+    public BufferedResultSink(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BufferedResultSink(OutputStream out, int bufferSize) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), bufferSize);
+    }
+
+    @Override
+    public synchronized void write(String line) {
+        try {
+            writer.write(line);
+            writer.write(LINE_SEPARATOR);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void write(List<String> lines) {
+        for (String line : lines)
+            write(line);
+    }
+
+    @Override
+    public synchronized void flush() {
+        try {
+            writer.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
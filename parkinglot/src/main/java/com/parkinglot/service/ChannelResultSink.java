@@ -0,0 +1,85 @@
+package com.parkinglot.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes lines straight into one large direct buffer and drains it to a channel
+ * when full or on {@link #flush()}. ASCII text, which is all the service produces
+ * for well-formed input, is copied without any intermediate byte arrays.
+ *
+ * @author Vinod Kandula
+ */
+public class ChannelResultSink implements ResultSink {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    public ChannelResultSink(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelResultSink(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    @Override
+    public synchronized void write(String line) {
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (c >= 0x80) {
+                put(line.substring(i).getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            if (!buffer.hasRemaining())
+                drain();
+            buffer.put((byte) c);
+        }
+        put(LINE_SEPARATOR);
+    }
+
+    @Override
+    public synchronized void write(List<String> lines) {
+        for (String line : lines)
+            write(line);
+    }
+
+    @Override
+    public synchronized void flush() {
+        drain();
+    }
+
+    private void put(byte[] bytes) {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining())
+                drain();
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.parkinglot.service;
+
+/**
+ * Writes every line straight to {@code System.out}, for interactive use.
+ *
+ * @author Vinod Kandula
+ */
+public class ConsoleResultSink implements ResultSink {
+
+    @Override
+    public void write(String line) {
+        System.out.println(line);
+    }
+
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
+}
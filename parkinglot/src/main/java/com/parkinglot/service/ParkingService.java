@@ -0,0 +1,201 @@
+package com.parkinglot.service;
+
+import com.parkinglot.billing.BillingSummary;
+import com.parkinglot.billing.Tariff;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.metrics.ParkingMetrics;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.Reservation;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.SlotOperation;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import com.parkinglot.model.strategy.ParkingStrategy;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * @author Vinod Kandula
+ */
+public interface ParkingService extends Service {
+
+    public void setResultSink(ResultSink resultSink);
+
+    /**
+     * Latency, lock wait and occupancy figures of this service's lot, also
+     * published over JMX while the lot exists.
+     */
+    public ParkingMetrics getMetrics();
+
+    /**
+     * Prices every leave from now on, on the current lot and on lots created later;
+     * null stops charging.
+     */
+    public void setTariff(Tariff tariff);
+
+    /**
+     * Revenue and dwell time of the level since the lot was created, kept up to date
+     * by every leave. Nothing is written to the result sink.
+     */
+    public BillingSummary getBilling(int level) throws ParkingException;
+
+    /**
+     * Allocation strategy per level, level 1 first, for the next lot created or
+     * recovered; levels without one park nearest-first.
+     */
+    public void setParkingStrategies(List<ParkingStrategy> parkingStrategies);
+
+    /**
+     * Makes the lot durable: a lot created afterwards journals every park and leave
+     * into this directory and is snapshotted periodically.
+     */
+    public void setDataDirectory(Path directory);
+
+    /**
+     * Restores the lot kept in the data directory, if there is one.
+     *
+     * @return true when a lot was recovered
+     */
+    public boolean recover() throws ParkingException;
+
+    /**
+     * Writes a snapshot of the durable lot and trims the journal behind it.
+     */
+    public void snapshot() throws ParkingException;
+
+    public void createParkingLot(int level, int capacity) throws ParkingException;
+
+    public Optional<Integer> park(int level, Vehicle vehicle) throws ParkingException;
+
+    /**
+     * Parks on the lowest level with a free slot.
+     *
+     * @return the level and slot; the slot is NOT_AVAILABLE when the whole lot is full
+     */
+    public SlotLocation park(Vehicle vehicle) throws ParkingException;
+
+    /**
+     * @return the departure with the fee for the stay, or null when the slot was already empty
+     */
+    public Departure unPark(int level, int slotNumber) throws ParkingException;
+
+    /**
+     * Holds a slot a vehicle of the type fits in, on the lowest level with one free,
+     * for a booked vehicle. Parking the vehicle, on any level, while the hold lasts
+     * takes the held slot if it can; a vehicle that turns out not to fit it parks like
+     * one without a booking. When the hold runs out the slot is freed again.
+     *
+     * @return the reservation, or null when the lot has no slot for the type or the
+     *         vehicle is already parked or booked
+     */
+    public Reservation reserve(String registrationNo, VehicleType vehicleType, long holdTime, TimeUnit unit)
+            throws ParkingException;
+
+    /**
+     * Frees the slot held for the vehicle.
+     *
+     * @return false when the vehicle has no live reservation
+     */
+    public boolean cancelReservation(String registrationNo) throws ParkingException;
+
+    /**
+     * Applies parks and leaves for one level in order, under a single lock acquisition.
+     * An operation that fails stops the batch: it reports the failure and the ones after
+     * it report that they were not applied, while the ones before it stay applied.
+     *
+     * @return one result message per operation, in the same order
+     */
+    public List<String> applyBatch(int level, List<SlotOperation> operations) throws ParkingException;
+
+    public List<String> getStatus(int level) throws ParkingException;
+
+    /**
+     * Lets status boards poll cheaply: pass the version of the previous delta, or 0
+     * the first time. Nothing is written to the result sink.
+     */
+    public StatusDelta getStatusChanges(int level, long sinceVersion) throws ParkingException;
+
+    public Optional<Integer> getAvailableSlotsCount(int level) throws ParkingException;
+
+    public List<String> getRegNumberForColor(int level, String color) throws ParkingException;
+
+    public List<Integer> getSlotNumbersFromColor(int level, String color) throws ParkingException;
+
+    /**
+     * Registrations of the vehicles of this colour and type on the level; either
+     * filter may be null to match anything.
+     */
+    public List<String> getRegNumberForColor(int level, String color, VehicleType type) throws ParkingException;
+
+    /**
+     * Slots of the vehicles of this colour and type on the level; either filter may
+     * be null to match anything.
+     */
+    public List<Integer> getSlotNumbersFromColor(int level, String color, VehicleType type) throws ParkingException;
+
+    public int getSlotNoFromRegistrationNo(int level, String registrationNo) throws ParkingException;
+
+    /**
+     * Writes the status of the level to the result sink as it is read, a few thousand
+     * slots at a time, so the whole status is never held in memory; for exporting
+     * large levels. Parks and leaves carry on between the chunks.
+     *
+     * @return the number of status lines written
+     */
+    public int streamStatus(int level) throws ParkingException;
+
+    /**
+     * Streams the status of every level in turn, each headed by its level.
+     *
+     * @return the number of status lines written
+     */
+    public int streamStatus() throws ParkingException;
+
+    /**
+     * Hands the registrations of the vehicles of this colour and type on the level
+     * to the action in slot order, a chunk at a time and outside the level's lock;
+     * either filter may be null. Nothing is written to the result sink.
+     *
+     * @return the number of registrations handed over
+     */
+    public int forEachRegNumberForColor(int level, String color, VehicleType type, Consumer<String> action)
+            throws ParkingException;
+
+    /**
+     * Status of every level, read in parallel under all the level read locks, so
+     * it is one consistent picture of the lot.
+     *
+     * @return the status lines keyed by level, in level order
+     */
+    public Map<Integer, List<String>> getStatus() throws ParkingException;
+
+    /**
+     * Registrations of the vehicles of this colour and type on every level, in level
+     * then slot order; either filter may be null to match anything.
+     */
+    public List<String> getRegNumberForColor(String color, VehicleType type) throws ParkingException;
+
+    /**
+     * Where the vehicles of this colour and type are parked, in level then slot
+     * order; either filter may be null to match anything.
+     */
+    public List<SlotLocation> getSlotLocationsFromColor(String color, VehicleType type) throws ParkingException;
+
+    /**
+     * Finds a vehicle on any level without locking a level.
+     *
+     * @return where it is parked, or null when it is not in the lot
+     */
+    public SlotLocation getSlotLocationFromRegistrationNo(String registrationNo) throws ParkingException;
+
+    public int getCapacity(int level) throws ParkingException;
+
+    public void cleanup();
+
+}
@@ -0,0 +1,953 @@
+package com.parkinglot.service;
+
+import com.parkinglot.billing.BillingSummary;
+import com.parkinglot.billing.Tariff;
+import com.parkinglot.constants.Constants;
+import com.parkinglot.dao.ParkingLotDAO;
+import com.parkinglot.dao.ParkingLotRegistry;
+import com.parkinglot.exception.ErrorCode;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.metrics.ParkingMetrics;
+import com.parkinglot.metrics.ParkingMetrics.Operation;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.Reservation;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.SlotOperation;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import com.parkinglot.model.strategy.ParkingStrategy;
+import com.parkinglot.persistence.JournalingParkingLotDAO;
+import com.parkinglot.reservation.ReservationBook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * @author Vinod Kandula
+ */
+public class ParkingServiceImpl implements ParkingService {
+
+    private final String lotId;
+    private final ParkingLotRegistry registry;
+
+    static final String INVALID_SLOT_MESSAGE = ErrorCode.INVALID_VALUE.getMessage().replace("{variable}", "slot_number");
+
+    static final String ALREADY_RESERVED_MESSAGE = "Sorry, vehicle already has a reservation.";
+
+    public static final String BATCH_NOT_APPLIED_MESSAGE = "Not applied, an earlier operation in the batch failed.";
+
+    // batch results of the operation that failed and of the ones after it, which were not attempted
+    private static final int OPERATION_FAILED = Integer.MIN_VALUE;
+    private static final int OPERATION_NOT_APPLIED = Integer.MIN_VALUE + 1;
+
+    private ParkingLotDAO<Vehicle> dataManager = null;
+
+    private ResultSink resultSink = new ConsoleResultSink();
+
+    private static final long SNAPSHOT_INTERVAL_SECONDS = 300;
+
+    private List<ParkingStrategy> parkingStrategies = null;
+
+    private volatile Tariff tariff = null;
+
+    private Path dataDirectory = null;
+
+    private JournalingParkingLotDAO<Vehicle> journal = null;
+
+    private ScheduledExecutorService snapshotScheduler = null;
+
+    private final ParkingMetrics metrics;
+
+    // slots read per hold of a level's read lock when streaming; bounds the lines held and how long a park waits
+    private static final int STREAM_CHUNK_SLOTS = 4096;
+
+    public ParkingServiceImpl() {
+        this(ParkingLotRegistry.DEFAULT_LOT_ID);
+    }
+
+    public ParkingServiceImpl(String lotId) {
+        this(lotId, ParkingLotRegistry.getInstance());
+    }
+
+    public ParkingServiceImpl(String lotId, ParkingLotRegistry registry) {
+        this.lotId = lotId;
+        this.registry = registry;
+        this.metrics = new ParkingMetrics(lotId);
+    }
+
+    @Override
+    public ParkingMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void setResultSink(ResultSink resultSink) {
+        this.resultSink = resultSink;
+    }
+
+    @Override
+    public void setTariff(Tariff tariff) {
+        this.tariff = tariff;
+        if (dataManager != null)
+            applyTariff();
+    }
+
+    @Override
+    public BillingSummary getBilling(int level) throws ParkingException {
+        validateParkingLot();
+        try {
+            return dataManager.getLedger(level).summary();
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void setParkingStrategies(List<ParkingStrategy> parkingStrategies) {
+        this.parkingStrategies = parkingStrategies;
+    }
+
+    @Override
+    public void setDataDirectory(Path directory) {
+        this.dataDirectory = directory;
+    }
+
+    @Override
+    public boolean recover() throws ParkingException {
+        if (dataManager != null)
+            throw new ParkingException(ErrorCode.PARKING_ALREADY_EXIST.getMessage());
+        if (dataDirectory == null)
+            return false;
+        JournalingParkingLotDAO<Vehicle> recovered;
+        try {
+            recovered = JournalingParkingLotDAO.recover(dataDirectory, parkingStrategies);
+        }
+        catch (IOException e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        if (recovered == null)
+            return false;
+        attach(recovered);
+        return true;
+    }
+
+    @Override
+    public void snapshot() throws ParkingException {
+        validateParkingLot();
+        if (journal == null)
+            return;
+        try {
+            journal.snapshot(level -> lockFor(level).readLock());
+        }
+        catch (IOException e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void createParkingLot(int level, int capacity) throws ParkingException {
+        if (dataManager != null)
+            throw new ParkingException(ErrorCode.PARKING_ALREADY_EXIST.getMessage());
+
+        if (dataDirectory != null) {
+            JournalingParkingLotDAO<Vehicle> parkingLot;
+            try {
+                if (JournalingParkingLotDAO.hasState(dataDirectory))
+                    throw new ParkingException(ErrorCode.PARKING_ALREADY_EXIST.getMessage());
+                parkingLot = JournalingParkingLotDAO.create(dataDirectory, level, capacity, parkingStrategies);
+            }
+            catch (IOException e) {
+                throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+            }
+            attach(parkingLot);
+        }
+        else {
+            ParkingLotDAO<Vehicle> parkingLot = registry.createParkingLot(lotId, level, capacity, parkingStrategies);
+            if (parkingLot == null)
+                throw new ParkingException(ErrorCode.PARKING_ALREADY_EXIST.getMessage());
+            this.dataManager = parkingLot;
+            startMetrics();
+            applyTariff();
+        }
+        resultSink.write("Created a parking lot with " + capacity + " slots");
+    }
+
+    private void attach(JournalingParkingLotDAO<Vehicle> parkingLot) throws ParkingException {
+        if (registry.register(lotId, parkingLot) == null) {
+            parkingLot.cleanup();
+            throw new ParkingException(ErrorCode.PARKING_ALREADY_EXIST.getMessage());
+        }
+        // parks and leaves wait for the journal after the level lock is released
+        parkingLot.setDeferDurability(true);
+        this.journal = parkingLot;
+        this.dataManager = parkingLot;
+        startMetrics();
+        applyTariff();
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "parking-snapshot-" + lotId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            }
+            catch (ParkingException e) {
+                e.printStackTrace();
+            }
+        }, SNAPSHOT_INTERVAL_SECONDS, SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private void startMetrics() {
+        metrics.attach(dataManager, level -> lockFor(level).readLock());
+        metrics.register();
+    }
+
+    private void applyTariff() {
+        ParkingLotDAO<Vehicle> lot = dataManager;
+        for (int level = 1; level <= lot.getLevelCount(); level++)
+            lot.getLedger(level).setTariff(tariff);
+    }
+
+    @Override
+    public Optional<Integer> park(int level, Vehicle vehicle) throws ParkingException {
+        validateParkingLot();
+
+        Optional<Integer> value = Optional.empty();
+        long start = System.nanoTime();
+        Reservation reservation = claimReservation(dataManager, vehicle);
+        if (reservation != null && reservation.getLevel() != level) {
+            release(reservation);
+            reservation = null;
+        }
+        Lock writeLock = lockFor(level).writeLock();
+        lock(writeLock, level, true);
+
+        try {
+            value = Optional.of(reservation != null ? parkHeld(dataManager, reservation, vehicle) : dataManager.park(level, vehicle));
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            writeLock.unlock();
+        }
+        awaitDurable();
+        metrics.record(Operation.PARK, level, System.nanoTime() - start);
+        if (value.get() == Constants.NOT_AVAILABLE)
+            metrics.countFull(level);
+        resultSink.write(parkMessage(value.get()));
+        return value;
+    }
+
+    @Override
+    public SlotLocation park(Vehicle vehicle) throws ParkingException {
+        validateParkingLot();
+        int level = Constants.NOT_AVAILABLE;
+        int slot = Constants.NOT_AVAILABLE;
+        long start = System.nanoTime();
+        Reservation reservation = claimReservation(dataManager, vehicle);
+        if (reservation != null) {
+            level = reservation.getLevel();
+            Lock writeLock = lockFor(level).writeLock();
+            lock(writeLock, level, true);
+            try {
+                slot = parkHeld(dataManager, reservation, vehicle);
+            }
+            catch (Exception e) {
+                throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+        // the index can be behind a park racing on another gate, or the level may have no slot this
+        // vehicle fits in; it then reports full and we carry on with the levels above it. A booked
+        // vehicle that found no slot on its reserved level does the same.
+        if (slot == Constants.NOT_AVAILABLE) {
+            for (level = dataManager.getAvailableLevel(); level != Constants.NOT_AVAILABLE;
+                 level = dataManager.getAvailableLevel(level)) {
+                Lock writeLock = lockFor(level).writeLock();
+                lock(writeLock, level, true);
+                try {
+                    slot = dataManager.park(level, vehicle);
+                }
+                catch (Exception e) {
+                    throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+                }
+                finally {
+                    writeLock.unlock();
+                }
+                if (slot != Constants.NOT_AVAILABLE)
+                    break;
+                metrics.countFull(level);
+            }
+        }
+        awaitDurable();
+        metrics.record(Operation.PARK, level, System.nanoTime() - start);
+        if (slot > 0 && dataManager.getLevelCount() > 1)
+            resultSink.write(parkMessage(slot) + " on level " + level);
+        else
+            resultSink.write(parkMessage(slot));
+        return new SlotLocation(level, slot);
+    }
+
+    @Override
+    public Reservation reserve(String registrationNo, VehicleType vehicleType, long holdTime, TimeUnit unit)
+            throws ParkingException {
+        validateParkingLot();
+        ReservationBook book = dataManager.openReservations();
+        if (book.get(registrationNo) != null) {
+            resultSink.write(ALREADY_RESERVED_MESSAGE);
+            return null;
+        }
+        if (dataManager.getSlotLocation(registrationNo) != null) {
+            resultSink.write(parkMessage(Constants.VEHICLE_ALREADY_EXIST));
+            return null;
+        }
+        int level;
+        int slot = Constants.NOT_AVAILABLE;
+        long start = System.nanoTime();
+        for (level = dataManager.getAvailableLevel(); level != Constants.NOT_AVAILABLE;
+             level = dataManager.getAvailableLevel(level)) {
+            Lock writeLock = lockFor(level).writeLock();
+            lock(writeLock, level, true);
+            try {
+                slot = dataManager.hold(level, vehicleType);
+            }
+            catch (Exception e) {
+                throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+            }
+            finally {
+                writeLock.unlock();
+            }
+            if (slot != Constants.NOT_AVAILABLE)
+                break;
+            metrics.countFull(level);
+        }
+        metrics.record(Operation.RESERVE, level, System.nanoTime() - start);
+        if (slot == Constants.NOT_AVAILABLE) {
+            resultSink.write(parkMessage(slot));
+            return null;
+        }
+        Reservation reservation = new Reservation(registrationNo, vehicleType, level, slot,
+                System.currentTimeMillis() + unit.toMillis(holdTime));
+        // a second reserve for the same vehicle got in first
+        if (!book.add(reservation, holdTime, unit)) {
+            release(reservation);
+            resultSink.write(ALREADY_RESERVED_MESSAGE);
+            return null;
+        }
+        if (dataManager.getLevelCount() > 1)
+            resultSink.write("Reserved slot number: " + slot + " on level " + level);
+        else
+            resultSink.write("Reserved slot number: " + slot);
+        return reservation;
+    }
+
+    @Override
+    public boolean cancelReservation(String registrationNo) throws ParkingException {
+        validateParkingLot();
+        Reservation reservation = claimReservation(registrationNo);
+        if (reservation == null) {
+            resultSink.write("Not found");
+            return false;
+        }
+        release(reservation);
+        resultSink.write("Reservation of slot number " + reservation.getSlotNumber() + " is cancelled");
+        return true;
+    }
+
+    // parks stay a single map read when nothing is booked
+    private Reservation claimReservation(String registrationNo) {
+        ReservationBook book = dataManager.getReservations();
+        if (book == null || book.isEmpty())
+            return null;
+        return book.claim(registrationNo);
+    }
+
+    // the registration is only decoded when some reservation is pending; shared with the async service
+    static Reservation claimReservation(ParkingLotDAO<Vehicle> lot, Vehicle vehicle) {
+        ReservationBook book = lot.getReservations();
+        if (book == null || book.isEmpty())
+            return null;
+        return book.claim(vehicle.getRegistrationNumber());
+    }
+
+    // caller holds the level's write lock; the hold is given up if the vehicle cannot take it, and
+    // one that was booked as another type and does not fit the slot parks on the level as usual.
+    // The claimed reservation no longer expires, so a park that throws gives the hold up too.
+    static int parkHeld(ParkingLotDAO<Vehicle> lot, Reservation reservation, Vehicle vehicle) {
+        int level = reservation.getLevel();
+        int slot;
+        try {
+            slot = lot.parkHeld(level, reservation.getSlotNumber(), vehicle);
+        }
+        catch (RuntimeException e) {
+            lot.releaseHold(level, reservation.getSlotNumber());
+            throw e;
+        }
+        if (slot != reservation.getSlotNumber()) {
+            lot.releaseHold(level, reservation.getSlotNumber());
+            if (slot == Constants.NOT_AVAILABLE)
+                slot = lot.park(level, vehicle);
+        }
+        return slot;
+    }
+
+    private void release(Reservation reservation) {
+        ParkingLotDAO<Vehicle> lot = dataManager;
+        if (lot == null)
+            return;
+        int level = reservation.getLevel();
+        Lock writeLock = lockFor(level).writeLock();
+        lock(writeLock, level, true);
+        try {
+            lot.releaseHold(level, reservation.getSlotNumber());
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    // after the level lock is released, so the changes made meanwhile share one fsync
+    private void awaitDurable() throws ParkingException {
+        try {
+            dataManager.awaitDurable();
+        }
+        catch (RuntimeException e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+    }
+
+    // the lot's own lock, so other services on the lot serialise with this one
+    private ReadWriteLock lockFor(int level) {
+        return dataManager.getLevelLock(level);
+    }
+
+    // uncontended acquisitions are recorded as no wait without reading the clock
+    private void lock(Lock lock, int level, boolean write) {
+        if (lock.tryLock()) {
+            metrics.recordLockWait(level, write, 0);
+            return;
+        }
+        long start = System.nanoTime();
+        lock.lock();
+        metrics.recordLockWait(level, write, System.nanoTime() - start);
+    }
+
+    // writers only ever hold one level's lock, so taking them all in level order cannot deadlock
+    private List<Lock> lockAllLevels() {
+        List<Lock> locks = new ArrayList<>(dataManager.getLevelCount());
+        for (int level = 1; level <= dataManager.getLevelCount(); level++) {
+            Lock readLock = lockFor(level).readLock();
+            lock(readLock, level, false);
+            locks.add(readLock);
+        }
+        return locks;
+    }
+
+    private static void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--)
+            locks.get(i).unlock();
+    }
+
+    private void validateParkingLot() throws ParkingException{
+        if (dataManager == null) {
+            throw new ParkingException(ErrorCode.PARKING_NOT_EXIST_ERROR.getMessage());
+        }
+    }
+
+    // for the streaming reads, which write before they touch the level
+    private void validateLevel(int level) throws ParkingException {
+        if (level < 1 || level > dataManager.getLevelCount())
+            throw new ParkingException(ErrorCode.INVALID_VALUE.getMessage().replace("{variable}", "level"));
+    }
+
+    @Override
+    public Departure unPark(int level, int slotNumber) throws ParkingException {
+        validateParkingLot();
+        Departure departure;
+        long start = System.nanoTime();
+        Lock writeLock = lockFor(level).writeLock();
+        lock(writeLock, level, true);
+        try {
+            departure = dataManager.unPark(level, slotNumber);
+        }
+        catch (Exception e) {
+            throw new ParkingException(INVALID_SLOT_MESSAGE, e);
+        }
+        finally {
+            writeLock.unlock();
+        }
+        awaitDurable();
+        metrics.record(Operation.LEAVE, level, System.nanoTime() - start);
+        resultSink.write(unParkMessage(slotNumber, departure != null));
+        return departure;
+    }
+
+    @Override
+    public List<String> applyBatch(int level, List<SlotOperation> operations) throws ParkingException {
+        validateParkingLot();
+        int[] results = new int[operations.size()];
+        long start = System.nanoTime();
+        Lock writeLock = lockFor(level).writeLock();
+        lock(writeLock, level, true);
+        try {
+            applyOperations(dataManager, level, operations, results);
+        }
+        finally {
+            writeLock.unlock();
+        }
+        // one fsync for the whole batch; if it fails none of it is acknowledged
+        awaitDurable();
+        metrics.record(Operation.BATCH, level, System.nanoTime() - start);
+        return batchMessages(operations, results);
+    }
+
+    /**
+     * Applies the operations in order, stopping at the first one that throws: it is
+     * reported as failed and the rest as not applied, while the ones before it stay
+     * applied and report their own results. The caller holds the level's write lock.
+     */
+    static void applyOperations(ParkingLotDAO<Vehicle> dataManager, int level, List<SlotOperation> operations, int[] results) {
+        for (int i = 0; i < results.length; i++) {
+            SlotOperation operation = operations.get(i);
+            try {
+                if (operation.isPark())
+                    results[i] = dataManager.park(level, operation.getVehicle());
+                else
+                    results[i] = unParkResult(dataManager, level, operation.getSlotNumber());
+            }
+            catch (RuntimeException e) {
+                results[i] = OPERATION_FAILED;
+                Arrays.fill(results, i + 1, results.length, OPERATION_NOT_APPLIED);
+                return;
+            }
+        }
+    }
+
+    static List<String> batchMessages(List<SlotOperation> operations, int[] results) {
+        List<String> messages = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            SlotOperation operation = operations.get(i);
+            if (results[i] == OPERATION_FAILED)
+                messages.add(ErrorCode.PROCESSING_ERROR.getMessage());
+            else if (results[i] == OPERATION_NOT_APPLIED)
+                messages.add(BATCH_NOT_APPLIED_MESSAGE);
+            else if (operation.isPark())
+                messages.add(parkMessage(results[i]));
+            else if (results[i] == Constants.NOT_FOUND)
+                messages.add(INVALID_SLOT_MESSAGE);
+            else
+                messages.add(unParkMessage(operation.getSlotNumber(), results[i] == 1));
+        }
+        return messages;
+    }
+
+    // 1 when freed, 0 when already empty, NOT_FOUND when the slot does not exist
+    private static int unParkResult(ParkingLotDAO<Vehicle> dataManager, int level, int slotNumber) {
+        try {
+            return dataManager.unPark(level, slotNumber) != null ? 1 : 0;
+        }
+        catch (IllegalArgumentException e) {
+            return Constants.NOT_FOUND;
+        }
+    }
+
+    private static String parkMessage(int result) {
+        if (result == Constants.NOT_AVAILABLE)
+            return "Sorry, parking lot is full";
+        else if (result == Constants.VEHICLE_ALREADY_EXIST)
+            return "Sorry, vehicle is already parked.";
+        else
+            return "Allocated slot number: " + result;
+    }
+
+    private static String unParkMessage(int slotNumber, boolean freed) {
+        return freed ? "Slot number " + slotNumber + " is free" : "Slot number is Empty Already.";
+    }
+
+    @Override
+    public List<String> getStatus(int level) throws ParkingException {
+        validateParkingLot();
+        List<String> statusList;
+        long start = System.nanoTime();
+        Lock readLock = lockFor(level).readLock();
+        lock(readLock, level, false);
+        try {
+            statusList = dataManager.getStatus(level);
+        }
+        catch (Exception e) {
+            e.printStackTrace();
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            readLock.unlock();
+        }
+        metrics.record(Operation.STATUS, level, System.nanoTime() - start);
+        List<String> lines = new ArrayList<>(statusList.size() + 1);
+        lines.add("Slot No.\tRegistration No \tColour");
+        if (statusList.size() == 0)
+            lines.add("Sorry, parking lot is empty.");
+        else
+            lines.addAll(statusList);
+        resultSink.write(lines);
+        return statusList;
+    }
+
+    @Override
+    public StatusDelta getStatusChanges(int level, long sinceVersion) throws ParkingException {
+        validateParkingLot();
+        StatusDelta delta;
+        long start = System.nanoTime();
+        Lock readLock = lockFor(level).readLock();
+        lock(readLock, level, false);
+        try {
+            delta = dataManager.getStatusChanges(level, sinceVersion);
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            readLock.unlock();
+        }
+        metrics.record(Operation.STATUS, level, System.nanoTime() - start);
+        return delta;
+    }
+
+    @Override
+    public Optional<Integer> getAvailableSlotsCount(int level) throws ParkingException {
+        validateParkingLot();
+        Optional<Integer> value = Optional.empty();
+        long start = System.nanoTime();
+        Lock readLock = lockFor(level).readLock();
+        lock(readLock, level, false);
+        try {
+            value = Optional.of(dataManager.getAvailableSlotsCount(level));
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            readLock.unlock();
+        }
+        metrics.record(Operation.QUERY, level, System.nanoTime() - start);
+        return value;
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(int level, String color) throws ParkingException {
+        return getRegNumberForColor(level, color, null);
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(int level, String color, VehicleType type) throws ParkingException {
+        validateParkingLot();
+        List<String> registrationList;
+        long start = System.nanoTime();
+        Lock readLock = lockFor(level).readLock();
+        lock(readLock, level, false);
+        try {
+            registrationList = dataManager.getRegNumberForColor(level, color, type);
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            readLock.unlock();
+        }
+        metrics.record(Operation.QUERY, level, System.nanoTime() - start);
+        if (registrationList.size() == 0)
+            resultSink.write("Not found");
+        else
+            resultSink.write(String.join(", ", registrationList));
+        return registrationList;
+    }
+
+    @Override
+    public List<Integer> getSlotNumbersFromColor(int level, String color) throws ParkingException {
+        return getSlotNumbersFromColor(level, color, null);
+    }
+
+    @Override
+    public List<Integer> getSlotNumbersFromColor(int level, String color, VehicleType type) throws ParkingException {
+        validateParkingLot();
+        List<Integer> slotList;
+        long start = System.nanoTime();
+        Lock readLock = lockFor(level).readLock();
+        lock(readLock, level, false);
+        try {
+            slotList = dataManager.getSlotNumbersFromColor(level, color, type);
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            readLock.unlock();
+        }
+        metrics.record(Operation.QUERY, level, System.nanoTime() - start);
+        if (slotList.size() == 0)
+            resultSink.write("Not found");
+        else {
+            StringJoiner joiner = new StringJoiner(", ");
+            for (Integer slot : slotList) {
+                joiner.add(slot + "");
+            }
+            resultSink.write(joiner.toString());
+        }
+        return slotList;
+    }
+
+    @Override
+    public int getSlotNoFromRegistrationNo(int level, String registrationNo) throws ParkingException {
+        int value = -1;
+        validateParkingLot();
+        long start = System.nanoTime();
+        Lock readLock = lockFor(level).readLock();
+        lock(readLock, level, false);
+        try {
+            value = dataManager.getSlotNoFromRegistrationNo(level, registrationNo);
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            readLock.unlock();
+        }
+        metrics.record(Operation.QUERY, level, System.nanoTime() - start);
+        resultSink.write(value != -1 ? String.valueOf(value) : "Not found");
+        return value;
+    }
+
+    @Override
+    public int streamStatus(int level) throws ParkingException {
+        validateParkingLot();
+        validateLevel(level);
+        resultSink.write("Slot No.\tRegistration No \tColour");
+        int lines = streamLevel(level, Operation.STATUS,
+                (from, to, chunk) -> dataManager.forEachStatusLine(level, from, to, chunk::add), resultSink::write);
+        if (lines == 0)
+            resultSink.write("Sorry, parking lot is empty.");
+        return lines;
+    }
+
+    @Override
+    public int streamStatus() throws ParkingException {
+        validateParkingLot();
+        resultSink.write("Slot No.\tRegistration No \tColour");
+        int lines = 0;
+        for (int level = 1; level <= dataManager.getLevelCount(); level++) {
+            final int current = level;
+            // the level heading goes out with the level's first lines, so empty levels are skipped
+            boolean[] headed = new boolean[1];
+            lines += streamLevel(level, Operation.STATUS,
+                    (from, to, chunk) -> dataManager.forEachStatusLine(current, from, to, chunk::add),
+                    line -> {
+                        if (!headed[0]) {
+                            resultSink.write("Level " + current);
+                            headed[0] = true;
+                        }
+                        resultSink.write(line);
+                    });
+        }
+        if (lines == 0)
+            resultSink.write("Sorry, parking lot is empty.");
+        return lines;
+    }
+
+    @Override
+    public int forEachRegNumberForColor(int level, String color, VehicleType type, Consumer<String> action)
+            throws ParkingException {
+        validateParkingLot();
+        validateLevel(level);
+        return streamLevel(level, Operation.QUERY, (from, to, chunk) -> dataManager.forEachSlot(level, color, type,
+                from, to, slot -> chunk.add(dataManager.getVehicle(level, slot).getRegistrationNumber())), action);
+    }
+
+    // reads a range of slots of a level into the chunk; the caller holds the level's read lock
+    private interface SlotRangeReader {
+
+        int read(int fromSlot, int toSlot, List<String> chunk);
+    }
+
+    /**
+     * Walks the level a chunk of slots at a time: each chunk is read under the read
+     * lock, then handed to the output after unlocking, so at most a chunk of lines is
+     * held and slow output never blocks parking. Parks and leaves may land between
+     * chunks, so the result is not one snapshot of the level.
+     */
+    private int streamLevel(int level, Operation operation, SlotRangeReader reader, Consumer<String> output)
+            throws ParkingException {
+        int capacity = dataManager.getCapacity(level);
+        List<String> chunk = new ArrayList<>();
+        long readNanos = 0;
+        int count = 0;
+        for (int from = 1; from <= capacity; from += STREAM_CHUNK_SLOTS) {
+            long start = System.nanoTime();
+            Lock readLock = lockFor(level).readLock();
+            lock(readLock, level, false);
+            try {
+                count += reader.read(from, Math.min(capacity, from + STREAM_CHUNK_SLOTS - 1), chunk);
+            }
+            catch (Exception e) {
+                throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+            }
+            finally {
+                readLock.unlock();
+            }
+            readNanos += System.nanoTime() - start;
+            for (String line : chunk)
+                output.accept(line);
+            chunk.clear();
+        }
+        metrics.record(operation, level, readNanos);
+        return count;
+    }
+
+    @Override
+    public Map<Integer, List<String>> getStatus() throws ParkingException {
+        validateParkingLot();
+        Map<Integer, List<String>> status;
+        long start = System.nanoTime();
+        List<Lock> locks = lockAllLevels();
+        try {
+            status = dataManager.getStatus();
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            unlockAll(locks);
+        }
+        metrics.record(Operation.STATUS, 0, System.nanoTime() - start);
+        List<String> lines = new ArrayList<>();
+        lines.add("Slot No.\tRegistration No \tColour");
+        for (Map.Entry<Integer, List<String>> level : status.entrySet()) {
+            if (level.getValue().isEmpty())
+                continue;
+            lines.add("Level " + level.getKey());
+            lines.addAll(level.getValue());
+        }
+        if (lines.size() == 1)
+            lines.add("Sorry, parking lot is empty.");
+        resultSink.write(lines);
+        return status;
+    }
+
+    @Override
+    public List<String> getRegNumberForColor(String color, VehicleType type) throws ParkingException {
+        validateParkingLot();
+        List<String> registrationList;
+        long start = System.nanoTime();
+        List<Lock> locks = lockAllLevels();
+        try {
+            registrationList = dataManager.getRegNumberForColor(color, type);
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            unlockAll(locks);
+        }
+        metrics.record(Operation.QUERY, 0, System.nanoTime() - start);
+        if (registrationList.size() == 0)
+            resultSink.write("Not found");
+        else
+            resultSink.write(String.join(", ", registrationList));
+        return registrationList;
+    }
+
+    @Override
+    public List<SlotLocation> getSlotLocationsFromColor(String color, VehicleType type) throws ParkingException {
+        validateParkingLot();
+        List<SlotLocation> locations;
+        long start = System.nanoTime();
+        List<Lock> locks = lockAllLevels();
+        try {
+            locations = dataManager.getSlotLocationsFromColor(color, type);
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        finally {
+            unlockAll(locks);
+        }
+        metrics.record(Operation.QUERY, 0, System.nanoTime() - start);
+        if (locations.size() == 0)
+            resultSink.write("Not found");
+        else {
+            boolean multiLevel = dataManager.getLevelCount() > 1;
+            StringJoiner joiner = new StringJoiner(", ");
+            for (SlotLocation location : locations) {
+                joiner.add(multiLevel ? location.getSlotNumber() + " on level " + location.getLevel()
+                        : String.valueOf(location.getSlotNumber()));
+            }
+            resultSink.write(joiner.toString());
+        }
+        return locations;
+    }
+
+    @Override
+    public SlotLocation getSlotLocationFromRegistrationNo(String registrationNo) throws ParkingException {
+        validateParkingLot();
+        SlotLocation location;
+        long start = System.nanoTime();
+        try {
+            location = dataManager.getSlotLocation(registrationNo);
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        metrics.record(Operation.QUERY, 0, System.nanoTime() - start);
+        if (location == null)
+            resultSink.write("Not found");
+        else if (dataManager.getLevelCount() > 1)
+            resultSink.write(location.getSlotNumber() + " on level " + location.getLevel());
+        else
+            resultSink.write(String.valueOf(location.getSlotNumber()));
+        return location;
+    }
+
+    @Override
+    public int getCapacity(int level) throws ParkingException {
+        validateParkingLot();
+        int capacity;
+        try {
+            capacity = dataManager.getCapacity(level);
+        }
+        catch (Exception e) {
+            throw new ParkingException(ErrorCode.PROCESSING_ERROR.getMessage(), e);
+        }
+        resultSink.write(capacity > 0 ? String.valueOf(capacity) : "Not found");
+        return capacity;
+    }
+
+    @Override
+    public void cleanup() {
+        metrics.close();
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdownNow();
+            snapshotScheduler = null;
+        }
+        journal = null;
+        if (dataManager != null) {
+            registry.removeParkingLot(lotId);
+            dataManager = null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.parkinglot.service;
+
+import java.util.List;
+
+/**
+ * Receives the formatted output of the service. The service only writes to it
+ * after releasing its locks, so slow output never holds up other gates.
+ *
+ * @author Vinod Kandula
+ */
+public interface ResultSink {
+
+    public void write(String line);
+
+    public default void write(List<String> lines) {
+        for (String line : lines)
+            write(line);
+    }
+
+    public void flush();
+}
@@ -1,9 +1,14 @@
 package com.parkinglot;
 
+import com.parkinglot.cmd.CmdRequestProcessor;
+import com.parkinglot.cmd.CmdRequestProcessorImpl;
 import com.parkinglot.constants.Constants;
 import com.parkinglot.exception.ErrorCode;
 import com.parkinglot.exception.ParkingException;
 import com.parkinglot.model.Car;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.SlotOperation;
+import com.parkinglot.service.BufferedResultSink;
 import com.parkinglot.service.ParkingService;
 import com.parkinglot.service.ParkingServiceImpl;
 import org.hamcrest.CoreMatchers;
@@ -12,7 +17,11 @@ import org.junit.rules.ExpectedException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
@@ -118,11 +127,8 @@ public class MainTest {
         parkingService.park(parkingLevel, new Car("KA-01-HH-9999", "White"));
         parkingService.park(parkingLevel, new Car("KA-01-BB-0001", "Black"));
 
-        boolean success = parkingService.unPark(parkingLevel, 4);
-        assertFalse(success);
-
-        success = parkingService.unPark(parkingLevel, 1);
-        assertTrue(success);
+        assertNull(parkingService.unPark(parkingLevel, 4));
+        assertNotNull(parkingService.unPark(parkingLevel, 1));
     }
 
     @Test
@@ -140,10 +146,8 @@ public class MainTest {
         parkingService.createParkingLot(parkingLevel, 99);
         parkingService.park(parkingLevel, new Car("KA-01-HH-1234", "White"));
         parkingService.park(parkingLevel, new Car("KA-01-HH-9999", "White"));
-        boolean success = parkingService.unPark(parkingLevel, 1);
-        assertTrue(success);
-        success = parkingService.unPark(parkingLevel, 1);
-        assertFalse(success);
+        assertNotNull(parkingService.unPark(parkingLevel, 1));
+        assertNull(parkingService.unPark(parkingLevel, 1));
     }
 
     @Test
@@ -211,4 +215,149 @@ public class MainTest {
                 outContent.toString().trim().replace(" ", ""));
         System.setOut(out);
     }
+
+    @Test
+    public void whenReParkingIntoFreedSlot_shouldListColourSlotsInOrder() throws Exception {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(outContent));
+        parkingService = new ParkingServiceImpl();
+        parkingService.createParkingLot(parkingLevel, 5);
+        parkingService.park(parkingLevel, new Car("KA-01-HH-1234", "White"));
+        parkingService.park(parkingLevel, new Car("KA-01-HH-9999", "Black"));
+        parkingService.park(parkingLevel, new Car("KA-01-BB-0001", "White"));
+        parkingService.unPark(parkingLevel, 1);
+        parkingService.park(parkingLevel, new Car("KA-01-HH-7777", "WHITE"));
+        outContent.reset();
+        parkingService.getSlotNumbersFromColor(parkingLevel, "white");
+        parkingService.getRegNumberForColor(parkingLevel, "White");
+        System.setOut(out);
+        assertEquals("1,3\nKA-01-HH-7777,KA-01-BB-0001", outContent.toString().trim().replace(" ", ""));
+        assertEquals(3, parkingService.getSlotNoFromRegistrationNo(parkingLevel, "ka-01-bb-0001"));
+        assertEquals(-1, parkingService.getSlotNoFromRegistrationNo(parkingLevel, "KA-01-HH-1234"));
+    }
+
+    @Test
+    public void whenMultipleLotsAndLevels_shouldKeepThemIndependent() throws Exception {
+        parkingService = new ParkingServiceImpl("north");
+        ParkingService southService = new ParkingServiceImpl("south");
+        try {
+            parkingService.createParkingLot(2, 3);
+            southService.createParkingLot(1, 4);
+            assertEquals(1, parkingService.park(1, new Car("KA-01-HH-1234", "White")).get().intValue());
+            assertEquals(1, parkingService.park(2, new Car("KA-01-HH-9999", "White")).get().intValue());
+            assertEquals(1, southService.park(1, new Car("KA-01-HH-1234", "White")).get().intValue());
+            assertEquals(2, parkingService.getAvailableSlotsCount(1).get().intValue());
+            assertEquals(2, parkingService.getAvailableSlotsCount(2).get().intValue());
+            assertEquals(3, southService.getAvailableSlotsCount(1).get().intValue());
+            assertEquals(-1, parkingService.getSlotNoFromRegistrationNo(2, "KA-01-HH-1234"));
+        }
+        finally {
+            southService.cleanup();
+        }
+    }
+
+    @Test
+    public void whenParkingLotWide_shouldFillLowestLevelWithRoom() throws Exception {
+        parkingService = new ParkingServiceImpl();
+        BufferedResultSink sink = new BufferedResultSink(outContent);
+        parkingService.setResultSink(sink);
+        parkingService.createParkingLot(3, 2);
+        for (int i = 0; i < 5; i++)
+            parkingService.park(new Car("KA-01-HH-100" + i, "White"));
+        assertEquals(0, parkingService.getAvailableSlotsCount(1).get().intValue());
+        assertEquals(0, parkingService.getAvailableSlotsCount(2).get().intValue());
+        assertEquals(1, parkingService.getAvailableSlotsCount(3).get().intValue());
+
+        parkingService.unPark(1, 2);
+        assertEquals(new SlotLocation(1, 2), parkingService.park(new Car("KA-01-HH-2000", "Red")));
+        assertEquals(new SlotLocation(3, 2), parkingService.park(new Car("KA-01-HH-2001", "Red")));
+        assertEquals(Constants.NOT_AVAILABLE, parkingService.park(new Car("KA-01-HH-2002", "Red")).getSlotNumber());
+        sink.flush();
+        assertTrue(outContent.toString().contains("Allocated slot number: 2 on level 3"));
+    }
+
+    @Test
+    public void whenSameVehicleParkedOnTwoLevels_shouldRejectAndFindItLotWide() throws Exception {
+        parkingService = new ParkingServiceImpl();
+        parkingService.createParkingLot(4, 3);
+        assertEquals(1, parkingService.park(2, new Car("KA-01-HH-1234", "White")).get().intValue());
+        assertEquals(Constants.VEHICLE_ALREADY_EXIST, parkingService.park(3, new Car("ka-01-hh-1234", "White")).get().intValue());
+        assertEquals(new SlotLocation(2, 1), parkingService.getSlotLocationFromRegistrationNo("KA-01-HH-1234"));
+
+        parkingService.unPark(2, 1);
+        assertNull(parkingService.getSlotLocationFromRegistrationNo("KA-01-HH-1234"));
+
+        // gates on every level race to park the same car, only one may win
+        final ParkingService service = parkingService;
+        final AtomicInteger parked = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] gates = new Thread[4];
+        for (int g = 0; g < gates.length; g++) {
+            final int level = g + 1;
+            gates[g] = new Thread(() -> {
+                try {
+                    start.await();
+                    if (service.park(level, new Car("KA-01-HH-7777", "Red")).get() > 0)
+                        parked.incrementAndGet();
+                }
+                catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            gates[g].start();
+        }
+        start.countDown();
+        for (Thread gate : gates)
+            gate.join();
+        assertEquals(1, parked.get());
+        assertNotNull(parkingService.getSlotLocationFromRegistrationNo("KA-01-HH-7777"));
+    }
+
+    @Test
+    public void whenExecutingBatch_shouldReturnResultsInOrder() throws Exception {
+        parkingService = new ParkingServiceImpl();
+        parkingService.createParkingLot(1, 2);
+        CmdRequestProcessor processor = new CmdRequestProcessorImpl();
+        processor.setService(parkingService);
+        List<String> results = processor.executeBatch(Arrays.asList("park KA-01-HH-1234 White",
+                "park KA-01-HH-9999 White", "park KA-01-BB-0001 Black", "leave 1", "status", "leave 1",
+                "park KA-01-BB-0001 Black", "leave x"));
+        assertEquals(Arrays.asList("Allocated slot number: 1", "Allocated slot number: 2",
+                "Sorry, parking lot is full", "Slot number 1 is free", ErrorCode.INVALID_REQUEST.getMessage(),
+                "Slot number is Empty Already.", "Allocated slot number: 1", "slot_number value is incorrect"), results);
+    }
+
+    @Test
+    public void whenBatchOperationFails_shouldKeepAndReportTheOnesApplied() throws Exception {
+        parkingService = new ParkingServiceImpl();
+        parkingService.createParkingLot(1, 3);
+        Car broken = new Car("KA-01-HH-0000", "White") {
+            @Override
+            public String getRegistrationNumber() {
+                throw new IllegalStateException("unreadable registration");
+            }
+        };
+        List<String> results = parkingService.applyBatch(1, Arrays.asList(
+                SlotOperation.park(new Car("KA-01-HH-1234", "White")), SlotOperation.park(broken),
+                SlotOperation.park(new Car("KA-01-HH-9999", "White"))));
+        assertEquals(Arrays.asList("Allocated slot number: 1", ErrorCode.PROCESSING_ERROR.getMessage(),
+                ParkingServiceImpl.BATCH_NOT_APPLIED_MESSAGE), results);
+        assertNotNull(parkingService.getSlotLocationFromRegistrationNo("KA-01-HH-1234"));
+        assertEquals(Optional.of(2), parkingService.getAvailableSlotsCount(1));
+    }
+
+    @Test
+    public void whenUsingBufferedSink_shouldWriteOnlyOnFlush() throws Exception {
+        parkingService = new ParkingServiceImpl();
+        BufferedResultSink sink = new BufferedResultSink(outContent);
+        parkingService.setResultSink(sink);
+        parkingService.createParkingLot(parkingLevel, 3);
+        parkingService.park(parkingLevel, new Car("KA-01-HH-1234", "White"));
+        List<String> status = parkingService.getStatus(parkingLevel);
+        assertEquals(0, outContent.size());
+        assertEquals(Arrays.asList("1\t\tKA-01-HH-1234\t\tWhite"), status);
+        sink.flush();
+        assertEquals("Createdaparkinglotwith3slots\nAllocatedslotnumber:1\nSlotNo.\tRegistrationNo\tColour\n1\t\tKA-01-HH-1234\t\tWhite",
+                outContent.toString().trim().replace(" ", ""));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.parkinglot.billing;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.dao.InMemoryParkingLotDAOImpl;
+import com.parkinglot.dao.ParkingLotDAO;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Departure;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class BillingTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    public void hourlyTariff_shouldChargeStartedHoursUpToTheDailyCap() {
+        Tariff tariff = new HourlyTariff(10 * MINUTE, 40, 300);
+        Car car = new Car("KA-01-HH-1234", "White");
+        long in = 1_000_000;
+        assertEquals(0, tariff.fee(car, in, in + 10 * MINUTE));
+        assertEquals(40, tariff.fee(car, in, in + 10 * MINUTE + 1));
+        assertEquals(40, tariff.fee(car, in, in + HOUR));
+        assertEquals(80, tariff.fee(car, in, in + HOUR + 1));
+        assertEquals(300, tariff.fee(car, in, in + 20 * HOUR));
+        assertEquals(300, tariff.fee(car, in, in + DAY));
+        assertEquals(340, tariff.fee(car, in, in + DAY + 30 * MINUTE));
+        assertEquals(600, tariff.fee(car, in, in + 2 * DAY - 1));
+    }
+
+    @Test
+    public void whenVehiclesLeave_shouldKeepLevelTotals() {
+        ParkingLotDAO<Vehicle> lot = InMemoryParkingLotDAOImpl.newInstance(2, 4);
+        lot.getLedger(1).setTariff((vehicle, entryMillis, exitMillis) -> vehicle.getColor().length());
+        long before = System.currentTimeMillis();
+        lot.park(1, new Car("KA-01-HH-0001", "White"));
+        lot.park(1, new Car("KA-01-HH-0002", "Red"));
+        lot.park(2, new Car("KA-01-HH-0003", "Blue"));
+        long entry = lot.getEntryTime(1, 1);
+        assertTrue(entry >= before && entry <= System.currentTimeMillis());
+        assertEquals(Constants.NOT_FOUND, lot.getEntryTime(1, 3));
+
+        Departure departure = lot.unPark(1, 1);
+        assertEquals("KA-01-HH-0001", departure.getVehicle().getRegistrationNumber());
+        assertEquals(entry, departure.getEntryTime());
+        assertTrue(departure.getExitTime() >= entry);
+        assertEquals("White".length(), departure.getFee());
+        assertNotNull(lot.unPark(1, 2));
+        assertNull(lot.unPark(1, 2));
+        assertNotNull(lot.unPark(2, 1));
+
+        BillingSummary first = lot.getLedger(1).summary();
+        assertEquals(2, first.getDepartures());
+        assertEquals(8, first.getRevenue());
+        assertTrue(first.getMaxDwellMillis() <= System.currentTimeMillis() - before);
+        BillingSummary second = lot.getLedger(2).summary();
+        assertEquals(1, second.getDepartures());
+        assertEquals(0, second.getRevenue());
+        lot.cleanup();
+    }
+
+    @Test
+    public void whenTariffIsSetOnTheService_shouldBillEveryLevel() throws Exception {
+        ParkingService service = new ParkingServiceImpl("billing");
+        try {
+            service.setTariff((vehicle, entryMillis, exitMillis) -> 50);
+            service.createParkingLot(3, 2);
+            for (int level = 1; level <= 3; level++) {
+                service.park(level, new Car("KA-01-HH-000" + level, "White"));
+                service.unPark(level, 1);
+            }
+            for (int level = 1; level <= 3; level++)
+                assertEquals(level + "", 50, service.getBilling(level).getRevenue());
+
+            service.setTariff(null);
+            service.park(1, new Car("KA-01-HH-0009", "White"));
+            service.unPark(1, 1);
+            assertEquals(2, service.getBilling(1).getDepartures());
+            assertEquals(50, service.getBilling(1).getRevenue());
+        }
+        finally {
+            service.cleanup();
+        }
+    }
+}
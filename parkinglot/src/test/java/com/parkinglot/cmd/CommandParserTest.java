@@ -0,0 +1,56 @@
+package com.parkinglot.cmd;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class CommandParserTest {
+
+    @Test
+    public void whenParsingLines_shouldMatchOpcodeAndParameters() {
+        Command command = new Command();
+
+        assertTrue(CommandParser.parse("  park KA-01-HH-1234 \tWhite ", command));
+        assertEquals(Opcode.PARK, command.getOpcode());
+        assertEquals("KA-01-HH-1234", command.getFirstParameter());
+        assertEquals("White", command.getSecondParameter());
+
+        assertTrue(CommandParser.parse("create_parking_lot 6", command));
+        assertEquals(Opcode.CREATE_PARKING_LOT, command.getOpcode());
+        assertEquals(6, command.getNumber());
+        assertNull(command.getFirstParameter());
+
+        assertTrue(CommandParser.parse("leave -x", command));
+        assertEquals(Command.NO_NUMBER, command.getNumber());
+
+        assertTrue(CommandParser.parse("status", command));
+        assertEquals(Opcode.STATUS, command.getOpcode());
+
+        assertTrue(CommandParser.parse("slot_numbers_for_cars_with_colour White", command));
+        assertEquals(Opcode.SLOTS_NUMBER_FOR_CARS_WITH_COLOR, command.getOpcode());
+        assertEquals("White", command.getFirstParameter());
+
+        // right keyword, wrong parameter count
+        assertFalse(CommandParser.parse("status 1", command));
+        assertEquals(Opcode.STATUS, command.getOpcode());
+        assertFalse(CommandParser.parse("park KA-01-HH-1234 White Red", command));
+
+        // same length as a keyword, different text
+        assertFalse(CommandParser.parse("parx KA-01-HH-1234 White", command));
+        assertNull(command.getOpcode());
+        assertFalse(CommandParser.parse("", command));
+        assertFalse(CommandParser.parse("   ", command));
+    }
+
+    @Test
+    public void whenValidating_shouldAgreeWithParse() {
+        String[] lines = {"park KA-01-HH-1234 White", "park KA-01-HH-1234", "leave 4", "leave", "status", "status 2",
+                "registration_numbers_for_cars_with_colour White", "slot_number_for_registration_number", "exit", ""};
+        Command command = new Command();
+        for (String line : lines)
+            assertEquals(line, CommandParser.parse(line, command), CommandParser.isValid(line));
+    }
+}
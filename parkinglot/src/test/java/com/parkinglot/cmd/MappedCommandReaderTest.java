@@ -0,0 +1,60 @@
+package com.parkinglot.cmd;
+
+import com.parkinglot.constants.Constants;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class MappedCommandReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void whenReadingCommandFile_shouldTokenizeEveryLine() throws Exception {
+        File file = folder.newFile("commands.txt");
+        Files.write(file.toPath(), ("create_parking_lot 6\r\n  park KA-01-HH-1234   White \nleave x\n\nstatus 1\n"
+                + "slot_number_for_registration_number KA-01-HH-1234\nleave 4").getBytes(StandardCharsets.US_ASCII));
+
+        Command command = new Command();
+        try (MappedCommandReader reader = new MappedCommandReader(file.toPath())) {
+            assertTrue(reader.next(command));
+            assertEquals(Constants.CREATE_PARKING_LOT, command.getAction());
+            assertEquals(6, command.getNumber());
+
+            assertTrue(reader.next(command));
+            assertTrue(command.isValid());
+            assertEquals("KA-01-HH-1234", command.getFirstParameter());
+            assertEquals("White", command.getSecondParameter());
+
+            assertTrue(reader.next(command));
+            assertTrue(command.isValid());
+            assertEquals(Command.NO_NUMBER, command.getNumber());
+
+            assertTrue(reader.next(command));
+            assertFalse(command.isValid());
+
+            assertTrue(reader.next(command));
+            assertFalse(command.isValid());
+            assertEquals(5, reader.getLineNo());
+            assertEquals("status 1", reader.getLine());
+
+            assertTrue(reader.next(command));
+            assertEquals(Constants.SLOTS_NUMBER_FOR_REG_NUMBER, command.getAction());
+            assertEquals("KA-01-HH-1234", command.getFirstParameter());
+
+            assertTrue(reader.next(command));
+            assertEquals(4, command.getNumber());
+            assertFalse(reader.next(command));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Vinod Kandula
+ */
+public class LotWideQueryTest {
+
+    private static final String[] COLORS = { "White", "Black", "Red" };
+
+    @Test
+    public void whenQueryingLot_shouldMatchSerialLoopInLevelOrder() {
+        // the middle level has more matches than one slot range
+        Map<Integer, Integer> capacities = new HashMap<>();
+        capacities.put(1, 100);
+        capacities.put(2, 4 * LevelFanOut.SLOT_RANGE);
+        capacities.put(3, 1);
+        capacities.put(4, 500);
+        ParkingLotDAO<Vehicle> lot = InMemoryParkingLotDAOImpl.newInstance(4, capacities, null);
+        Random random = new Random(3);
+        for (int level = 1; level <= 4; level++) {
+            for (int slot = 1; slot <= capacities.get(level); slot++) {
+                if (level == 3 || random.nextInt(10) == 0)
+                    continue;
+                VehicleType type = random.nextBoolean() ? VehicleType.CAR : VehicleType.VAN;
+                lot.park(level, type.newVehicle(level + "-" + slot, COLORS[random.nextInt(COLORS.length)]));
+            }
+        }
+
+        for (String color : new String[] { null, "white", "Blue" }) {
+            for (VehicleType type : new VehicleType[] { null, VehicleType.VAN }) {
+                List<String> registrations = new ArrayList<>();
+                List<SlotLocation> locations = new ArrayList<>();
+                for (int level = 1; level <= 4; level++) {
+                    registrations.addAll(lot.getRegNumberForColor(level, color, type));
+                    for (int slot : lot.getSlotNumbersFromColor(level, color, type))
+                        locations.add(new SlotLocation(level, slot));
+                }
+                assertEquals(registrations, lot.getRegNumberForColor(color, type));
+                assertEquals(locations, lot.getSlotLocationsFromColor(color, type));
+            }
+        }
+
+        Map<Integer, List<String>> status = lot.getStatus();
+        assertEquals(4, status.size());
+        for (int level = 1; level <= 4; level++)
+            assertEquals(lot.getStatus(level), status.get(level));
+    }
+}
@@ -0,0 +1,54 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Vehicle;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Vinod Kandula
+ */
+public class RegistrationSlotIndexTest {
+
+    @Test
+    public void whenRandomlyParkingAndLeaving_shouldMatchHashMap() {
+        final int capacity = 512;
+        final Vehicle[] vehicles = new Vehicle[capacity + 1];
+        RegistrationSlotIndex index = new RegistrationSlotIndex(capacity, slot -> vehicles[slot]);
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int round = 0; round < 100_000; round++) {
+            int slot = 1 + random.nextInt(capacity);
+            if (vehicles[slot] == null) {
+                String registration = "KA-01-HH-" + random.nextInt(2000);
+                if (expected.containsKey(registration))
+                    continue;
+                vehicles[slot] = new Car(registration, "White");
+                index.put(vehicles[slot], slot);
+                expected.put(registration, slot);
+            }
+            else {
+                index.remove(vehicles[slot], slot);
+                expected.remove(vehicles[slot].getRegistrationNumber());
+                vehicles[slot] = null;
+            }
+        }
+
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().intValue(), index.get(entry.getKey().toLowerCase()));
+            assertEquals(entry.getValue().intValue(), index.get(new Car(entry.getKey().toLowerCase(), "Black")));
+        }
+        for (int i = 0; i < 2000; i++) {
+            String registration = "KA-01-HH-" + i;
+            if (!expected.containsKey(registration))
+                assertEquals(Constants.NOT_FOUND, index.get(registration));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Vinod Kandula
+ */
+public class SlotFilterIndexTest {
+
+    private static final String[] COLORS = { "White", "Black", "Red", "Blue", "Silver" };
+
+    @Test
+    public void whenRandomlyParkingAndLeaving_shouldMatchScan() {
+        final int capacity = 1000;
+        Vehicle[] vehicles = new Vehicle[capacity + 1];
+        SlotFilterIndex index = new SlotFilterIndex(capacity);
+        Random random = new Random(7);
+
+        for (int round = 0; round < 50_000; round++) {
+            int slot = 1 + random.nextInt(capacity);
+            if (vehicles[slot] == null) {
+                VehicleType type = VehicleType.values()[random.nextInt(VehicleType.values().length)];
+                vehicles[slot] = type.newVehicle("KA-01-" + slot, COLORS[random.nextInt(COLORS.length)]);
+                index.add(vehicles[slot], slot);
+            }
+            else {
+                index.remove(vehicles[slot], slot);
+                vehicles[slot] = null;
+            }
+        }
+
+        assertArrayEquals(scan(vehicles, null, null), index.slots(null, null));
+        for (String color : COLORS) {
+            assertArrayEquals(scan(vehicles, color, null), index.slots(color.toLowerCase(), null));
+            for (VehicleType type : VehicleType.values()) {
+                assertArrayEquals(scan(vehicles, null, type), index.slots(null, type));
+                assertArrayEquals(scan(vehicles, color, type), index.slots(color.toUpperCase(), type));
+            }
+        }
+    }
+
+    @Test
+    public void whenWalkingARange_shouldMatchTheSlotsInIt() {
+        final int capacity = 300;
+        SlotFilterIndex index = new SlotFilterIndex(capacity);
+        for (int slot = 1; slot <= capacity; slot += 2)
+            index.add(VehicleType.CAR.newVehicle("KA-01-" + slot, COLORS[slot % COLORS.length]), slot);
+        int[] all = index.slots("Black", null);
+        Random random = new Random(11);
+
+        for (int round = 0; round < 1000; round++) {
+            int from = random.nextInt(capacity + 2);
+            int to = from + random.nextInt(130);
+            List<Integer> expected = new ArrayList<>();
+            for (int slot : all) {
+                if (slot >= from && slot <= to)
+                    expected.add(slot);
+            }
+            List<Integer> walked = new ArrayList<>();
+            assertEquals(expected.size(), index.forEach("black", null, from, to, walked::add));
+            assertEquals(expected, walked);
+        }
+    }
+
+    @Test
+    public void whenColourNeverParked_shouldMatchNothing() {
+        SlotFilterIndex index = new SlotFilterIndex(64);
+        index.add(VehicleType.CAR.newVehicle("KA-01-1", "White"), 64);
+
+        assertEquals(0, index.slots("Never-Parked-Colour", null).length);
+        assertEquals(0, index.slots("White", VehicleType.VAN).length);
+        assertArrayEquals(new int[] { 64 }, index.slots("white", VehicleType.CAR));
+    }
+
+    private static int[] scan(Vehicle[] vehicles, String color, VehicleType type) {
+        int[] slots = new int[vehicles.length];
+        int count = 0;
+        for (int slot = 1; slot < vehicles.length; slot++) {
+            Vehicle vehicle = vehicles[slot];
+            if (vehicle != null && (color == null || vehicle.getColor().equalsIgnoreCase(color))
+                    && (type == null || vehicle.getType() == type))
+                slots[count++] = slot;
+        }
+        return Arrays.copyOf(slots, count);
+    }
+}
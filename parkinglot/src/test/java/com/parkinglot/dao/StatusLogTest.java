@@ -0,0 +1,66 @@
+package com.parkinglot.dao;
+
+import com.parkinglot.model.Car;
+import com.parkinglot.model.StatusDelta;
+import com.parkinglot.model.Vehicle;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class StatusLogTest {
+
+    @Test
+    public void whenPollingDeltas_shouldTrackFullStatus() {
+        final int capacity = 300;
+        ParkingLotLevelDAO<Vehicle> level = InMemoryParkingLotLevelDAOImpl.newInstance(1, capacity, null);
+        Random random = new Random(11);
+        TreeMap<Integer, String> board = new TreeMap<>();
+        long version = 0;
+        int resets = 0;
+
+        for (int round = 0; round < 40_000; round++) {
+            if (random.nextBoolean())
+                level.park(new Car("KA-01-HH-" + random.nextInt(1000), random.nextBoolean() ? "White" : "Red"));
+            else
+                level.unPark(1 + random.nextInt(capacity));
+
+            // poll now and then; sometimes fall so far behind that the board has to be reset
+            int pollEvery = round < 15_000 ? 7 : 12_000;
+            if (round % pollEvery == 0) {
+                StatusDelta delta = level.getStatusChanges(version);
+                if (delta.isReset()) {
+                    board.clear();
+                    resets++;
+                }
+                for (Integer slot : delta.getFreedSlots())
+                    board.remove(slot);
+                for (String line : delta.getOccupied())
+                    board.put(Integer.valueOf(line.substring(0, line.indexOf('\t'))), line);
+                version = delta.getVersion();
+                assertEquals(expectedStatus(level, capacity), new ArrayList<>(board.values()));
+            }
+            if (round % 13 == 0)
+                assertEquals(expectedStatus(level, capacity), level.getStatus());
+        }
+        assertTrue(resets > 0);
+        assertTrue(level.getStatusChanges(level.getStatusVersion()).isEmpty());
+    }
+
+    private static List<String> expectedStatus(ParkingLotLevelDAO<Vehicle> level, int capacity) {
+        List<String> lines = new ArrayList<>();
+        for (int slot = 1; slot <= capacity; slot++) {
+            Vehicle vehicle = level.getVehicle(slot);
+            if (vehicle != null)
+                lines.add(slot + "\t\t" + vehicle.getRegistrationNumber() + "\t\t" + vehicle.getColor());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,118 @@
+package com.parkinglot.metrics;
+
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.service.BufferedResultSink;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class ParkingMetricsTest {
+
+    private ParkingService parkingService;
+
+    @After
+    public void cleanUp() {
+        if (parkingService != null)
+            parkingService.cleanup();
+    }
+
+    @Test
+    public void whenValuesRecorded_shouldReportPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[100000];
+        Random random = new Random(7);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + (long) (Math.exp(random.nextDouble() * 20));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + reported + " vs " + exact, reported >= exact && reported <= exact * 1.04 + 1);
+        }
+
+        for (long value = 0; value < 1L << 36; value = value * 3 / 2 + 1)
+            assertTrue(LatencyHistogram.highestValue(LatencyHistogram.index(value)) >= value);
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.index(Long.MAX_VALUE));
+
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(histogram);
+        merged.add(histogram);
+        assertEquals(2 * values.length, merged.getCount());
+        assertEquals(histogram.getValueAtPercentile(99), merged.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void whenServiceIsUsed_shouldCountOperationsPerLevelAndPublishOverJmx() throws Exception {
+        parkingService = new ParkingServiceImpl("metrics");
+        parkingService.setResultSink(new BufferedResultSink(new ByteArrayOutputStream()));
+        parkingService.createParkingLot(2, 3);
+        for (int i = 0; i < 4; i++)
+            parkingService.park(1, new Car("KA-01-HH-" + i, "White"));
+        parkingService.park(new Car("KA-02-HH-1", "Red"));
+        parkingService.unPark(1, 2);
+        parkingService.getStatus(2);
+        parkingService.getSlotLocationFromRegistrationNo("KA-02-HH-1");
+
+        ParkingMetrics metrics = parkingService.getMetrics();
+        assertEquals(4, metrics.getLatency(ParkingMetrics.Operation.PARK, 1).getCount());
+        assertEquals(1, metrics.getLatency(ParkingMetrics.Operation.PARK, 2).getCount());
+        assertEquals(5, metrics.getLatency(ParkingMetrics.Operation.PARK).getCount());
+        assertEquals(6, metrics.getLockWait(1, true).getCount() + metrics.getLockWait(2, true).getCount());
+        assertEquals(1, metrics.getLockWait(2, false).getCount());
+        assertEquals(Long.valueOf(1), metrics.getCounts().get("parkFull"));
+        assertEquals(Long.valueOf(1), metrics.getCounts().get("query"));
+        assertEquals(Integer.valueOf(2), metrics.getOccupancy().get("level1"));
+        assertEquals(Integer.valueOf(1), metrics.getOccupancy().get("level2"));
+        assertTrue(metrics.dump().contains("park.level1"));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.parkinglot:type=ParkingMetrics,lot=" + ObjectName.quote("metrics"));
+        TabularData counts = (TabularData) server.getAttribute(name, "Counts");
+        CompositeData leave = counts.get(new Object[]{"leave"});
+        assertEquals(1L, leave.get("value"));
+
+        // one claim in eight is timed
+        for (int i = 0; i < 15; i++) {
+            int slot = parkingService.park(2, new Car("KA-03-HH-" + i, "Blue")).get();
+            parkingService.unPark(2, slot);
+        }
+        assertEquals(2, metrics.getAllocation(2).getCount());
+
+        metrics.reset();
+        assertEquals(0, metrics.getLatency(ParkingMetrics.Operation.PARK).getCount());
+        parkingService.cleanup();
+        parkingService = null;
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test(expected = ParkingException.class)
+    public void whenNoLot_shouldRecordNothing() throws ParkingException {
+        parkingService = new ParkingServiceImpl("metrics");
+        try {
+            parkingService.park(1, new Car("KA-01-HH-1", "White"));
+        }
+        finally {
+            assertEquals(0, parkingService.getMetrics().getLatency(ParkingMetrics.Operation.PARK).getCount());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.parkinglot.model;
+
+import com.parkinglot.dao.InMemoryParkingLotLevelDAOImpl;
+import com.parkinglot.dao.ParkingLotLevelDAO;
+import com.parkinglot.persistence.VehicleCodec;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Vinod Kandula
+ */
+public class VehicleTest {
+
+    @Test
+    public void whenColourSpeltDifferently_shouldShareFamilyAndKeepSpelling() {
+        Vehicle first = new Car("KA-01-HH-1234", "Teal");
+        Vehicle second = new Car("KA-01-HH-9999", "TEAL");
+
+        assertEquals("Teal", first.getColor());
+        assertEquals("TEAL", second.getColor());
+        assertNotEquals(first.getColorCode(), second.getColorCode());
+        assertEquals(first.getColorFamily(), second.getColorFamily());
+        assertEquals(first.getColorFamily(), ColorDictionary.find("teal"));
+        assertEquals(ColorDictionary.NOT_FOUND, ColorDictionary.find("Never-Parked-Colour"));
+    }
+
+    @Test
+    public void whenComparingRegistration_shouldIgnoreCase() {
+        Vehicle vehicle = new Car("KA-01-HH-1234", "White");
+
+        assertTrue(vehicle.hasRegistration("ka-01-hh-1234"));
+        assertFalse(vehicle.hasRegistration("KA-01-HH-123"));
+        assertEquals(13, vehicle.getRegistrationLength());
+        assertEquals('K', vehicle.getRegistrationChar(0));
+    }
+
+    @Test
+    public void whenExternalized_shouldRoundTrip() throws IOException, ClassNotFoundException {
+        Vehicle[] vehicles = { new Car("KA-01-HH-1234", "White"), new Van("KA-02-\u00c4\u00d6-7", "Gr\u00fcn"),
+                new Motorbike("KA-03-\u0905-1", "Red") };
+        for (Vehicle vehicle : vehicles) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(vehicle);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                assertEquals(vehicle, in.readObject());
+            }
+        }
+    }
+
+    @Test
+    public void whenEncoded_shouldRoundTripThroughCodec() throws IOException {
+        Vehicle vehicle = new ElectricCar("KA-04-EV-42", "Blue");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VehicleCodec.write(new DataOutputStream(bytes), vehicle);
+
+        Vehicle read = VehicleCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(vehicle, read);
+        assertEquals(VehicleType.ELECTRIC_CAR, read.getType());
+        assertEquals("KA-04-EV-42", read.getRegistrationNumber());
+    }
+
+    @Test
+    public void whenColourMissing_shouldHaveNone() throws IOException {
+        assertNull(new Car().getColor());
+        Vehicle vehicle = new Car("KA-01-HH-7777", null);
+        assertNull(vehicle.getColor());
+        assertEquals(ColorDictionary.NO_COLOR, vehicle.getColorFamily());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VehicleCodec.write(new DataOutputStream(bytes), vehicle);
+        Vehicle read = VehicleCodec.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(vehicle, read);
+        assertNull(read.getColor());
+
+        ParkingLotLevelDAO<Vehicle> level = InMemoryParkingLotLevelDAOImpl.newInstance(1, 2, null);
+        level.park(vehicle);
+        level.park(new Car("KA-01-HH-1234", "White"));
+        assertEquals(Arrays.asList(1, 2), level.getSlotNumbersFromColor(null));
+        assertEquals(Arrays.asList("KA-01-HH-1234"), level.getRegNumberForColor("white"));
+        assertEquals(1, level.unPark(1).getSlotNumber());
+    }
+
+    @Test
+    public void whenDictionaryFull_shouldKeepSpellingsItCannotTake() {
+        Vehicle olive = new Car("KA-01-HH-4444", "Olive");
+        ParkingLotLevelDAO<Vehicle> level = InMemoryParkingLotLevelDAOImpl.newInstance(1, 4, null);
+        int capacity = ColorDictionary.capacity;
+        ColorDictionary.capacity = 0;
+        try {
+            Vehicle rare = new Car("KA-01-HH-1111", "Puce-" + System.nanoTime());
+            Vehicle respelt = new Car("KA-01-HH-2222", "oLiVe");
+            assertEquals(ColorDictionary.UNCOMMON, rare.getColorCode());
+            assertEquals(ColorDictionary.UNCOMMON, rare.getColorFamily());
+            assertEquals(new Car("KA-01-HH-1111", rare.getColor()), rare);
+            assertEquals("oLiVe", respelt.getColor());
+            assertEquals(olive.getColorFamily(), respelt.getColorFamily());
+
+            level.park(rare);
+            level.park(new Car("KA-01-HH-3333", "Mauve-" + System.nanoTime()));
+            level.park(olive);
+            level.park(respelt);
+            assertEquals(Arrays.asList("KA-01-HH-1111"), level.getRegNumberForColor(rare.getColor().toLowerCase()));
+            assertEquals(Arrays.asList(3, 4), level.getSlotNumbersFromColor("olive"));
+            assertEquals(0, level.getSlotNumbersFromColor("Never-Parked-Colour").size());
+            level.unPark(1);
+            assertEquals(0, level.getSlotNumbersFromColor(rare.getColor()).size());
+        }
+        finally {
+            ColorDictionary.capacity = capacity;
+        }
+    }
+
+    @Test
+    public void whenRegistrationMissing_shouldRoundTripAsNull() throws IOException {
+        Vehicle vehicle = new Car();
+        vehicle.setRegistrationNumber(null);
+        assertNull(vehicle.getRegistrationNumber());
+        assertFalse(vehicle.hasRegistration("KA-01-HH-1234"));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VehicleCodec.write(new DataOutputStream(bytes), vehicle);
+        VehicleCodec.write(new DataOutputStream(bytes), new Car("KA-01-HH-1234", "White"));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(vehicle, VehicleCodec.read(in));
+        assertEquals("KA-01-HH-1234", VehicleCodec.read(in).getRegistrationNumber());
+    }
+
+    @Test
+    public void whenValueTooLongToEncode_shouldRefuseWithoutWriting() {
+        char[] registration = new char[0xFFFF];
+        Arrays.fill(registration, 'K');
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            new Car(new String(registration), "White").writeTo(new DataOutputStream(bytes));
+            fail("a 65535 byte registration was written");
+        }
+        catch (IOException expected) {
+        }
+        try {
+            new Car("KA-01-HH-1234", new String(registration)).writeTo(new DataOutputStream(bytes));
+            fail("a 65535 byte colour was written");
+        }
+        catch (IOException expected) {
+        }
+        assertEquals(0, bytes.size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.constants.Constants;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class NearestFirstParkingStrategyTest {
+
+    private NearestFirstParkingStrategy strategyWith(int capacity) {
+        NearestFirstParkingStrategy strategy = new NearestFirstParkingStrategy(capacity);
+        for (int i = 1; i <= capacity; i++)
+            strategy.add(i);
+        return strategy;
+    }
+
+    @Test
+    public void whenClaimingSlots_shouldAllotNearestFirst() {
+        ParkingStrategy strategy = strategyWith(130);
+        for (int i = 1; i <= 130; i++)
+            assertEquals(i, strategy.claimSlot());
+        assertEquals(Constants.NOT_AVAILABLE, strategy.claimSlot());
+        assertEquals(Constants.NOT_AVAILABLE, strategy.getSlot());
+    }
+
+    @Test
+    public void whenSlotFreed_shouldBeClaimedAgainBeforeHigherSlots() {
+        ParkingStrategy strategy = strategyWith(200);
+        for (int i = 1; i <= 150; i++)
+            strategy.claimSlot();
+        strategy.add(70);
+        strategy.add(3);
+        assertEquals(3, strategy.getSlot());
+        assertEquals(3, strategy.claimSlot());
+        assertEquals(70, strategy.claimSlot());
+        assertEquals(151, strategy.claimSlot());
+    }
+
+    @Test
+    public void whenSlotRemoved_shouldBeSkipped() {
+        ParkingStrategy strategy = strategyWith(5);
+        strategy.removeSlot(1);
+        strategy.removeSlot(2);
+        assertEquals(3, strategy.claimSlot());
+    }
+
+    @Test
+    public void whenSlotsAddedWithoutCapacity_shouldGrow() {
+        ParkingStrategy strategy = new NearestFirstParkingStrategy();
+        for (int i = 1; i <= 5000; i++)
+            strategy.add(i);
+        for (int i = 1; i <= 5000; i++)
+            assertEquals(i, strategy.claimSlot());
+    }
+
+    @Test
+    public void whenClaimingConcurrently_shouldNeverHandOutSameSlotTwice() throws Exception {
+        final int capacity = 20000;
+        final ParkingStrategy strategy = strategyWith(capacity);
+        final BitSet claimed = new BitSet(capacity + 1);
+        final AtomicInteger duplicates = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+                int slot;
+                while ((slot = strategy.claimSlot()) != Constants.NOT_AVAILABLE) {
+                    synchronized (claimed) {
+                        if (claimed.get(slot))
+                            duplicates.incrementAndGet();
+                        claimed.set(slot);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+        assertEquals(0, duplicates.get());
+        assertEquals(capacity, claimed.cardinality());
+    }
+}
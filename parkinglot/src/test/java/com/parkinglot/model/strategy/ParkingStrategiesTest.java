@@ -0,0 +1,139 @@
+package com.parkinglot.model.strategy;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.dao.InMemoryParkingLotDAOImpl;
+import com.parkinglot.dao.ParkingLotDAO;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.ElectricCar;
+import com.parkinglot.model.Motorbike;
+import com.parkinglot.model.SlotType;
+import com.parkinglot.model.Van;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.parkinglot.model.SlotType.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class ParkingStrategiesTest {
+
+    private static <S extends ParkingStrategy> S filled(S strategy, int capacity) {
+        for (int i = 1; i <= capacity; i++)
+            strategy.add(i);
+        return strategy;
+    }
+
+    @Test
+    public void whenFarthestFirst_shouldAllotHighestFreeSlot() {
+        ParkingStrategy strategy = filled(new FarthestFirstParkingStrategy(100), 100);
+        assertEquals(100, strategy.claimSlot());
+        assertEquals(99, strategy.claimSlot());
+        strategy.add(100);
+        assertEquals(100, strategy.getSlot());
+        assertEquals(100, strategy.claimSlot());
+        strategy.removeSlot(98);
+        assertEquals(97, strategy.claimSlot());
+    }
+
+    @Test
+    public void whenRoundRobin_shouldMoveOnAndWrapAround() {
+        ParkingStrategy strategy = filled(new RoundRobinParkingStrategy(4), 4);
+        assertEquals(1, strategy.claimSlot());
+        assertEquals(2, strategy.claimSlot());
+        strategy.add(1);
+        assertEquals(3, strategy.claimSlot());
+        assertEquals(4, strategy.claimSlot());
+        assertEquals(1, strategy.claimSlot());
+        assertEquals(Constants.NOT_AVAILABLE, strategy.claimSlot());
+    }
+
+    @Test
+    public void whenZoned_shouldFillZonesInPreferenceOrder() {
+        // zones: slots 1-3, 4-5, 6-9; fill zone 2, then 0, then 1
+        ZonedParkingStrategy strategy = filled(new ZonedParkingStrategy(new int[]{3, 2, 4}, new int[]{2, 0, 1}), 9);
+        assertEquals(6, strategy.claimSlot());
+        assertEquals(4, strategy.claimSlot(1));
+        assertEquals(7, strategy.claimSlot());
+        assertEquals(8, strategy.claimSlot());
+        assertEquals(9, strategy.claimSlot());
+        assertEquals(1, strategy.claimSlot());
+        assertEquals(5, strategy.claimSlot(1));
+        assertEquals(Constants.NOT_AVAILABLE, strategy.claimSlot(1));
+        assertEquals(1, strategy.zoneOf(5));
+    }
+
+    @Test
+    public void whenClosestToExit_shouldAllotByDistance() {
+        ParkingStrategy strategy = filled(ClosestToExitParkingStrategy.withExitAt(10, 7), 10);
+        assertEquals(7, strategy.claimSlot());
+        assertEquals(6, strategy.claimSlot());
+        assertEquals(8, strategy.claimSlot());
+        strategy.add(7);
+        assertEquals(7, strategy.claimSlot());
+        strategy.removeSlot(5);
+        assertEquals(9, strategy.claimSlot());
+    }
+
+    @Test
+    public void whenStrategiesGivenPerLevel_shouldUseThemPerLevel() {
+        ParkingLotDAO<Vehicle> lot = InMemoryParkingLotDAOImpl.newInstance(3, 10,
+                Arrays.asList(new FarthestFirstParkingStrategy(10), null, ClosestToExitParkingStrategy.withExitAt(10, 4)));
+        assertEquals(10, lot.park(1, new Car("KA-01-HH-1234", "White")));
+        assertEquals(1, lot.park(2, new Car("KA-01-HH-9999", "White")));
+        assertEquals(4, lot.park(3, new Car("KA-01-BB-0001", "Black")));
+    }
+
+    @Test
+    public void whenTyped_shouldClaimFromTheVehiclesPoolsInFallbackOrder() {
+        // slots 1-2 bikes, 3-5 cars, 6 van, 7 charging bay
+        TypedParkingStrategy strategy = filled(new TypedParkingStrategy(
+                new SlotType[]{MOTORBIKE, MOTORBIKE, CAR, CAR, CAR, VAN, EV_CHARGING}), 7);
+        Motorbike bike = new Motorbike("KA-01-M-1", "Red");
+        ElectricCar electric = new ElectricCar("KA-01-E-1", "White");
+        Van van = new Van("KA-01-V-1", "White");
+        assertEquals(1, strategy.claimSlot(bike));
+        assertEquals(2, strategy.claimSlot(bike));
+        assertEquals(3, strategy.claimSlot(bike));
+        assertEquals(7, strategy.claimSlot(electric));
+        assertEquals(4, strategy.claimSlot(electric));
+        assertEquals(6, strategy.claimSlot(van));
+        assertEquals(Constants.NOT_AVAILABLE, strategy.claimSlot(van));
+        assertEquals(5, strategy.claimSlot());
+        assertEquals(Constants.NOT_AVAILABLE, strategy.claimSlot(electric));
+
+        strategy.add(6);
+        assertEquals(6, strategy.claimSlot(electric));
+        strategy.add(2);
+        assertEquals(Constants.NOT_AVAILABLE, strategy.claimSlot(new Car("KA-01-C-1", "Black")));
+        assertEquals(2, strategy.claimSlot(bike));
+        assertEquals(VAN, strategy.getSlotType(6));
+    }
+
+    @Test
+    public void whenLevelHasNoSlotTheVehicleFits_shouldParkOnTheNextLevel() throws Exception {
+        ParkingService service = new ParkingServiceImpl("typed");
+        try {
+            service.setParkingStrategies(Arrays.asList(
+                    new TypedParkingStrategy(new SlotType[]{MOTORBIKE, MOTORBIKE}),
+                    new TypedParkingStrategy(new SlotType[]{MOTORBIKE, VAN}),
+                    new TypedParkingStrategy(new SlotType[]{CAR, VAN})));
+            service.createParkingLot(3, 2);
+            assertEquals(new SlotLocation(2, 2), service.park(new Van("KA-01-V-1", "White")));
+            assertEquals(new SlotLocation(3, 1), service.park(new Car("KA-01-C-1", "White")));
+            assertEquals(new SlotLocation(3, 2), service.park(new Car("KA-01-C-2", "White")));
+            assertEquals(Constants.NOT_AVAILABLE, service.park(new Van("KA-01-V-2", "White")).getSlotNumber());
+            assertEquals(new SlotLocation(1, 1), service.park(new Motorbike("KA-01-M-1", "Red")));
+        }
+        finally {
+            service.cleanup();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.parkinglot.model.strategy;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class SlotBitmapTest {
+
+    @Test
+    public void whenRandomlySettingAndClaiming_shouldMatchBitSet() {
+        // three hint levels above the leaves
+        final int bits = 300_000;
+        SlotBitmap bitmap = new SlotBitmap(bits);
+        BitSet expected = new BitSet(bits);
+        Random random = new Random(3);
+
+        for (int round = 0; round < 200_000; round++) {
+            int index = random.nextInt(bits);
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    bitmap.set(index);
+                    expected.set(index);
+                    break;
+                case 2:
+                    assertEquals(expected.get(index), bitmap.clear(index));
+                    expected.clear(index);
+                    break;
+                case 3:
+                    assertEquals(expected.nextSetBit(index), bitmap.next(index));
+                    assertEquals(expected.previousSetBit(index), bitmap.previous(index));
+                    break;
+                default: {
+                    int to = index + random.nextInt(5000);
+                    int claimed = bitmap.claimNext(index, to);
+                    int next = expected.nextSetBit(index);
+                    assertEquals(next >= 0 && next < to ? next : -1, claimed);
+                    if (claimed >= 0)
+                        expected.clear(claimed);
+                }
+            }
+        }
+        assertEquals(expected.length() - 1, bitmap.claimLast());
+        assertEquals(expected.nextSetBit(0), bitmap.claimFirst());
+    }
+
+    @Test
+    public void whenSetBeyondSize_shouldGrowAndKeepBits() {
+        SlotBitmap bitmap = new SlotBitmap(1);
+        bitmap.set(5);
+        bitmap.set(70_000);
+        assertTrue(bitmap.size() > 70_000);
+        assertEquals(5, bitmap.next(0));
+        assertEquals(70_000, bitmap.next(6));
+        assertEquals(70_000, bitmap.previous(Integer.MAX_VALUE));
+    }
+}
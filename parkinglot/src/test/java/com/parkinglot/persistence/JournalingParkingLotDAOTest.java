@@ -0,0 +1,248 @@
+package com.parkinglot.persistence;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.dao.InMemoryParkingLotDAOImpl;
+import com.parkinglot.dao.SlotChangeLog;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Motorbike;
+import com.parkinglot.model.SlotOperation;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import com.parkinglot.service.BufferedResultSink;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class JournalingParkingLotDAOTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static ParkingService newService(Path directory) {
+        ParkingService service = new ParkingServiceImpl("durable");
+        service.setResultSink(new BufferedResultSink(new ByteArrayOutputStream()));
+        service.setDataDirectory(directory);
+        return service;
+    }
+
+    @Test
+    public void whenRestarted_shouldRecoverSnapshotAndJournalTail() throws Exception {
+        Path directory = folder.getRoot().toPath().resolve("lot");
+
+        ParkingService service = newService(directory);
+        assertFalse(service.recover());
+        service.createParkingLot(2, 4);
+        service.park(1, new Car("KA-01-HH-1234", "White"));
+        service.park(1, new Car("KA-01-HH-9999", "White"));
+        service.park(2, new Car("KA-01-BB-0001", "Black"));
+        service.unPark(1, 1);
+        service.snapshot();
+        service.park(1, new Car("KA-01-HH-7777", "Red"));
+        service.park(1, new Car("KA-01-HH-2701", "Blue"));
+        service.unPark(2, 1);
+        service.cleanup();
+
+        ParkingService restarted = newService(directory);
+        assertTrue(restarted.recover());
+        assertEquals(1, restarted.getSlotNoFromRegistrationNo(1, "KA-01-HH-7777"));
+        assertEquals(2, restarted.getSlotNoFromRegistrationNo(1, "KA-01-HH-9999"));
+        assertEquals(3, restarted.getSlotNoFromRegistrationNo(1, "KA-01-HH-2701"));
+        assertEquals(-1, restarted.getSlotNoFromRegistrationNo(1, "KA-01-HH-1234"));
+        assertEquals(Collections.emptyList(), restarted.getStatus(2));
+        assertEquals(Integer.valueOf(1), restarted.getAvailableSlotsCount(1).get());
+
+        // the recovered lot keeps journaling
+        restarted.park(2, new Car("KA-01-BB-0002", "Black"));
+        restarted.cleanup();
+
+        ParkingService again = newService(directory);
+        assertTrue(again.recover());
+        assertEquals(1, again.getSlotNoFromRegistrationNo(2, "KA-01-BB-0002"));
+        again.cleanup();
+    }
+
+    @Test
+    public void whenJournalHasTornTail_shouldReplayCompleteRecords() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        JournalingParkingLotDAO<Vehicle> lot = JournalingParkingLotDAO.create(directory, 1, 3);
+        lot.park(1, new Motorbike("KA-01-HH-1234", "White"));
+        lot.park(1, new Car("KA-01-HH-9999", "White"));
+        lot.cleanup();
+
+        Path file = ParkingJournal.fileFor(directory, 0);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        JournalingParkingLotDAO<Vehicle> recovered = JournalingParkingLotDAO.recover(directory);
+        assertEquals(1, recovered.getSlotNoFromRegistrationNo(1, "KA-01-HH-1234"));
+        assertEquals(VehicleType.MOTORBIKE, recovered.getVehicle(1, 1).getType());
+        assertEquals(-1, recovered.getSlotNoFromRegistrationNo(1, "KA-01-HH-9999"));
+        assertEquals(2, recovered.getAvailableSlotsCount(1));
+        recovered.cleanup();
+    }
+
+    @Test
+    public void whenParkReturns_shouldAlreadyBeOnDisk() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        JournalingParkingLotDAO<Vehicle> lot = JournalingParkingLotDAO.create(directory, 1, 3);
+        assertEquals(1, lot.park(1, new Car("KA-01-HH-1234", "White")));
+        assertNotNull(lot.unPark(1, 1));
+
+        List<String> records = new ArrayList<>();
+        ParkingJournal.replay(ParkingJournal.fileFor(directory, 0), new ParkingJournal.RecordVisitor() {
+            @Override
+            public void layout(long sequence, int[] capacities) {
+            }
+
+            @Override
+            public void park(long sequence, int level, int slot, Vehicle vehicle, long entryTime) {
+                records.add("park " + slot + " " + vehicle.getRegistrationNumber());
+            }
+
+            @Override
+            public void leave(long sequence, int level, int slot) {
+                records.add("leave " + slot);
+            }
+        });
+        assertEquals(Arrays.asList("park 1 KA-01-HH-1234", "leave 1"), records);
+        lot.cleanup();
+    }
+
+    @Test
+    public void whenBatchIsAcknowledged_shouldAllBeOnDisk() throws Exception {
+        Path directory = folder.getRoot().toPath().resolve("lot");
+        ParkingService service = newService(directory);
+        service.createParkingLot(1, 100);
+        List<SlotOperation> operations = new ArrayList<>();
+        for (int i = 1; i <= 64; i++)
+            operations.add(SlotOperation.park(new Car("KA-01-HH-" + i, "White")));
+        operations.add(SlotOperation.leave(64));
+        service.applyBatch(1, operations);
+
+        int[] records = new int[2];
+        ParkingJournal.replay(ParkingJournal.fileFor(directory, 0), new ParkingJournal.RecordVisitor() {
+            @Override
+            public void layout(long sequence, int[] capacities) {
+            }
+
+            @Override
+            public void park(long sequence, int level, int slot, Vehicle vehicle, long entryTime) {
+                records[0]++;
+            }
+
+            @Override
+            public void leave(long sequence, int level, int slot) {
+                records[1]++;
+            }
+        });
+        assertArrayEquals(new int[]{ 64, 1 }, records);
+        service.cleanup();
+    }
+
+    @Test
+    public void whenChangeLogRefuses_shouldLeaveTheLotUnchanged() {
+        InMemoryParkingLotDAOImpl<Vehicle> lot = InMemoryParkingLotDAOImpl.newInstance(1, 2);
+        assertEquals(1, lot.park(1, new Car("KA-01-HH-1234", "White")));
+        lot.setChangeLog(new SlotChangeLog() {
+            @Override
+            public void parking(int level, int slotNumber, Vehicle vehicle, long entryTime) {
+                throw new IllegalStateException("Journal is no longer writable");
+            }
+
+            @Override
+            public void leaving(int level, int slotNumber) {
+                throw new IllegalStateException("Journal is no longer writable");
+            }
+        });
+        try {
+            lot.park(1, new Car("KA-01-HH-9999", "White"));
+            fail();
+        }
+        catch (IllegalStateException expected) {
+        }
+        try {
+            lot.unPark(1, 1);
+            fail();
+        }
+        catch (IllegalStateException expected) {
+        }
+        assertEquals(1, lot.getAvailableSlotsCount(1));
+        assertNull(lot.getSlotLocation("KA-01-HH-9999"));
+        assertEquals(1, lot.getSlotNoFromRegistrationNo(1, "KA-01-HH-1234"));
+
+        lot.setChangeLog(null);
+        assertEquals(2, lot.park(1, new Car("KA-01-HH-9999", "White")));
+        assertEquals(Constants.NOT_AVAILABLE, lot.park(1, new Car("KA-01-HH-7777", "White")));
+    }
+
+    @Test
+    public void whenRestarted_shouldKeepEntryTimesForBilling() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        JournalingParkingLotDAO<Vehicle> lot = JournalingParkingLotDAO.create(directory, 1, 3);
+        lot.parkAt(1, 1, new Car("KA-01-HH-1234", "White"), 1_000L);
+        lot.snapshot(level -> lot.getLevelLock(level).readLock());
+        lot.parkAt(1, 2, new Car("KA-01-HH-9999", "White"), 2_000L);
+        lot.cleanup();
+
+        JournalingParkingLotDAO<Vehicle> recovered = JournalingParkingLotDAO.recover(directory);
+        assertEquals(1_000L, recovered.getEntryTime(1, 1));
+        assertEquals(2_000L, recovered.getEntryTime(1, 2));
+        assertEquals(1_000L, recovered.unPark(1, 1).getEntryTime());
+        recovered.cleanup();
+    }
+
+    @Test
+    public void whenParkLandsBeforeTheSnapshotLocks_shouldKeepItInTheImage() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        JournalingParkingLotDAO<Vehicle> lot = JournalingParkingLotDAO.create(directory, 1, 3);
+        lot.park(1, new Car("KA-01-HH-1234", "White"));
+        lot.snapshot(level -> {
+            lot.park(level, new Car("KA-01-HH-9999", "White"));
+            return lot.getLevelLock(level).readLock();
+        });
+        lot.cleanup();
+
+        JournalingParkingLotDAO<Vehicle> recovered = JournalingParkingLotDAO.recover(directory);
+        assertEquals("KA-01-HH-9999", recovered.getVehicle(1, 2).getRegistrationNumber());
+        assertEquals(1, recovered.getAvailableSlotsCount(1));
+        recovered.cleanup();
+    }
+
+    @Test
+    public void whenVehicleCannotBeEncoded_shouldRefuseItAndKeepJournaling() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        JournalingParkingLotDAO<Vehicle> lot = JournalingParkingLotDAO.create(directory, 1, 3);
+        char[] registration = new char[0xFFFF];
+        Arrays.fill(registration, 'K');
+        try {
+            lot.park(1, new Car(new String(registration), "White"));
+            fail("a vehicle the journal cannot hold was parked");
+        }
+        catch (UncheckedIOException expected) {
+        }
+        assertEquals(3, lot.getAvailableSlotsCount(1));
+        assertEquals(1, lot.park(1, new Car("KA-01-HH-1234", "White")));
+        lot.cleanup();
+
+        JournalingParkingLotDAO<Vehicle> recovered = JournalingParkingLotDAO.recover(directory);
+        assertEquals(1, recovered.getSlotNoFromRegistrationNo(1, "KA-01-HH-1234"));
+        assertEquals(2, recovered.getAvailableSlotsCount(1));
+        recovered.cleanup();
+    }
+}
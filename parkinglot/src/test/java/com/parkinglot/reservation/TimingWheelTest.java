@@ -0,0 +1,81 @@
+package com.parkinglot.reservation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class TimingWheelTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final TimingWheel wheel = new TimingWheel(10, clock::get);
+
+    @Test
+    public void whenTimeoutsSpanEveryWheel_shouldFireOnceAndNeverEarly() {
+        long[] delays = {0, 1, 10, 15, 630, 640, 650, 6_400, 40_950, 40_960, 41_000, 655_360, 2_621_440, 170_000_000};
+        long[] firedAt = new long[delays.length];
+        int[] runs = new int[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            int timeout = i;
+            wheel.schedule(delays[i], TimeUnit.MILLISECONDS, () -> {
+                runs[timeout]++;
+                firedAt[timeout] = clock.get();
+            });
+        }
+        long start = clock.get();
+        // steps of a few ticks at a time, coarser once the near timeouts are done
+        while (clock.get() - start <= 170_000_100) {
+            clock.addAndGet(clock.get() - start < 50_000 ? 30 : 4_990);
+            wheel.advance();
+        }
+        for (int i = 0; i < delays.length; i++) {
+            assertEquals("delay " + delays[i], 1, runs[i]);
+            assertTrue("delay " + delays[i] + " fired early", firedAt[i] - start >= delays[i]);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void whenAdvancedTickByTick_shouldFireWithinATick() {
+        List<Long> late = new ArrayList<>();
+        long start = clock.get();
+        for (long delay = 5; delay < 50_000; delay += 997) {
+            long due = start + delay;
+            wheel.schedule(delay, TimeUnit.MILLISECONDS, () -> late.add(clock.get() - due));
+        }
+        for (int tick = 0; tick < 5_100; tick++) {
+            clock.addAndGet(10);
+            wheel.advance();
+        }
+        assertEquals(51, late.size());
+        for (long lateness : late)
+            assertTrue("fired " + lateness + " ms late", lateness >= 0 && lateness < 20);
+    }
+
+    @Test
+    public void whenCancelled_shouldNotFire() {
+        AtomicLong runs = new AtomicLong();
+        TimingWheel.Timeout near = wheel.schedule(50, TimeUnit.MILLISECONDS, runs::incrementAndGet);
+        TimingWheel.Timeout far = wheel.schedule(1, TimeUnit.HOURS, runs::incrementAndGet);
+        TimingWheel.Timeout kept = wheel.schedule(60, TimeUnit.MILLISECONDS, runs::incrementAndGet);
+        assertEquals(3, wheel.size());
+
+        assertTrue(near.cancel());
+        assertTrue(far.cancel());
+        assertFalse(near.cancel());
+        assertEquals(1, wheel.size());
+
+        clock.addAndGet(TimeUnit.HOURS.toMillis(2));
+        wheel.advance();
+        assertEquals(1, runs.get());
+        assertFalse(kept.cancel());
+        assertEquals(0, wheel.size());
+    }
+}
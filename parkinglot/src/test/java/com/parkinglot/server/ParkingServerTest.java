@@ -0,0 +1,98 @@
+package com.parkinglot.server;
+
+import com.parkinglot.cmd.CmdRequestProcessor;
+import com.parkinglot.cmd.CmdRequestProcessorImpl;
+import com.parkinglot.service.ParkingService;
+import com.parkinglot.service.ParkingServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class ParkingServerTest {
+
+    private ParkingService parkingService;
+    private ParkingServer server;
+
+    @Before
+    public void init() throws Exception {
+        CmdRequestProcessor processor = new CmdRequestProcessorImpl();
+        parkingService = new ParkingServiceImpl("server");
+        processor.setService(parkingService);
+        server = new ParkingServer(processor, parkingService, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+
+    @After
+    public void cleanUp() throws Exception {
+        server.close();
+        parkingService.cleanup();
+    }
+
+    @Test
+    public void whenCommandsArePipelined_shouldAnswerEachInOrder() throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("create_parking_lot 2\r\n"
+                    + "park KA-01-HH-1234 White\n"
+                    + "\n"
+                    + "park KA-01-HH-9999 White\n"
+                    + "park KA-01-BB-0001 Black\n"
+                    + "leave 1\n"
+                    + "status\n"
+                    + "registration_numbers_for_cars_with_colour White\n"
+                    + "bogus\n"
+                    + "exit\n"
+                    + "status\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            List<List<String>> answers = new ArrayList<>();
+            List<String> answer = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty()) {
+                    answers.add(answer);
+                    answer = new ArrayList<>();
+                }
+                else
+                    answer.add(line);
+            }
+
+            assertEquals(8, answers.size());
+            assertEquals(Arrays.asList("Created a parking lot with 2 slots"), answers.get(0));
+            assertEquals(Arrays.asList("Allocated slot number: 1"), answers.get(1));
+            assertEquals(Arrays.asList("Allocated slot number: 2"), answers.get(2));
+            assertEquals(Arrays.asList("Sorry, parking lot is full"), answers.get(3));
+            assertEquals(Arrays.asList("Slot number 1 is free"), answers.get(4));
+            assertEquals(2, answers.get(5).size());
+            assertTrue(answers.get(5).get(1).contains("KA-01-HH-9999"));
+            assertEquals(Arrays.asList("KA-01-HH-9999"), answers.get(6));
+            assertEquals(Arrays.asList("Input arguments Validation Failed"), answers.get(7));
+        }
+    }
+
+    @Test
+    public void whenLoadGeneratorRuns_shouldGetEveryAnswerRight() throws Exception {
+        LoadGenerator generator = new LoadGenerator(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 4, 500, 16);
+        LoadGenerator.Report report = generator.run();
+        assertEquals(0, report.getErrors());
+        assertEquals(4 * 500 * 2, report.getRequests());
+    }
+}
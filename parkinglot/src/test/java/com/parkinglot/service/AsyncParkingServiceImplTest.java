@@ -0,0 +1,117 @@
+package com.parkinglot.service;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.dao.ParkingLotRegistry;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.SlotOperation;
+import com.parkinglot.model.VehicleType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class AsyncParkingServiceImplTest {
+
+    private static final String LOT_ID = "async";
+
+    private AsyncParkingService service;
+
+    private AsyncParkingService serviceWith(int levels, int capacity) throws ParkingException {
+        ParkingLotRegistry.getInstance().createParkingLot(LOT_ID, levels, capacity);
+        service = new AsyncParkingServiceImpl(LOT_ID);
+        return service;
+    }
+
+    @After
+    public void cleanUp() {
+        if (service != null)
+            service.shutdown();
+        ParkingLotRegistry.getInstance().removeParkingLot(LOT_ID);
+    }
+
+    @Test
+    public void whenManyClientsParkAtOnce_shouldFillEverySlotOnce() throws Exception {
+        AsyncParkingService service = serviceWith(4, 250);
+        List<CompletableFuture<SlotLocation>> parks = new ArrayList<>();
+        for (int i = 0; i < 1001; i++)
+            parks.add(service.park(new Car("KA-01-HH-" + i, i % 2 == 0 ? "White" : "Red")));
+        CompletableFuture.allOf(parks.toArray(new CompletableFuture[0])).join();
+
+        boolean[][] taken = new boolean[5][251];
+        int full = 0;
+        for (CompletableFuture<SlotLocation> park : parks) {
+            SlotLocation location = park.join();
+            if (location.getSlotNumber() == Constants.NOT_AVAILABLE) {
+                full++;
+                continue;
+            }
+            assertFalse(taken[location.getLevel()][location.getSlotNumber()]);
+            taken[location.getLevel()][location.getSlotNumber()] = true;
+        }
+        assertEquals(1, full);
+        for (int level = 1; level <= 4; level++)
+            assertEquals(0, service.getAvailableSlotsCount(level).join().intValue());
+        assertEquals(125, service.getSlotNumbersFromColor(1, "White").join().size());
+    }
+
+    @Test
+    public void whenWritesAndReadsAreQueued_shouldSeeThemInOrder() throws Exception {
+        AsyncParkingService service = serviceWith(2, 3);
+        CompletableFuture<Integer> first = service.park(2, new Car("KA-01-HH-1234", "White"));
+        CompletableFuture<List<String>> batch = service.applyBatch(2, Arrays.asList(
+                SlotOperation.park(new Car("KA-01-HH-9999", "White")), SlotOperation.leave(1), SlotOperation.leave(9)));
+        assertEquals(1, first.join().intValue());
+        assertEquals(Arrays.asList("Allocated slot number: 2", "Slot number 1 is free", "slot_number value is incorrect"),
+                batch.join());
+        assertEquals(Arrays.asList("2\t\tKA-01-HH-9999\t\tWhite"), service.getStatus(2).join());
+        assertEquals(new SlotLocation(2, 2), service.getSlotLocationFromRegistrationNo("KA-01-HH-9999").join());
+        assertEquals(2, service.unPark(2, 2).join().getSlotNumber());
+    }
+
+    @Test
+    public void whenSlotDoesNotExist_shouldFailTheFuture() throws Exception {
+        AsyncParkingService service = serviceWith(1, 3);
+        try {
+            service.unPark(1, 7).join();
+            fail();
+        }
+        catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ParkingException);
+            assertEquals(ParkingServiceImpl.INVALID_SLOT_MESSAGE, e.getCause().getMessage());
+        }
+        assertTrue(service.getStatus(5).isCompletedExceptionally());
+    }
+
+    @Test
+    public void whenVehicleWasBookedThroughTheSyncService_shouldTakeItsHeldSlot() throws Exception {
+        ParkingService booking = new ParkingServiceImpl(LOT_ID);
+        booking.setResultSink(new BufferedResultSink(new ByteArrayOutputStream()));
+        booking.createParkingLot(2, 2);
+        service = new AsyncParkingServiceImpl(LOT_ID);
+
+        assertEquals(1, booking.reserve("KA-01-HH-1234", VehicleType.CAR, 1, TimeUnit.MINUTES).getSlotNumber());
+        assertEquals(new SlotLocation(1, 2), service.park(new Car("KA-01-BB-0001", "White")).join());
+        assertEquals(new SlotLocation(1, 1), service.park(new Car("KA-01-HH-1234", "Black")).join());
+        assertNull(ParkingLotRegistry.getInstance().getParkingLot(LOT_ID).getReservations()
+                .get("KA-01-HH-1234"));
+
+        // level 1 is full, so the hold is on level 2
+        assertEquals(2, booking.reserve("KA-01-HH-5678", VehicleType.CAR, 1, TimeUnit.MINUTES).getLevel());
+        assertEquals(1, service.park(2, new Car("KA-01-HH-5678", "Black")).join().intValue());
+        assertEquals(1, service.getAvailableSlotsCount(2).join().intValue());
+        booking.cleanup();
+    }
+}
@@ -0,0 +1,171 @@
+package com.parkinglot.service;
+
+import com.parkinglot.constants.Constants;
+import com.parkinglot.dao.InMemoryParkingLotDAOImpl;
+import com.parkinglot.dao.ParkingLotRegistry;
+import com.parkinglot.dao.SlotChangeLog;
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Reservation;
+import com.parkinglot.model.SlotLocation;
+import com.parkinglot.model.SlotType;
+import com.parkinglot.model.Van;
+import com.parkinglot.model.Vehicle;
+import com.parkinglot.model.VehicleType;
+import com.parkinglot.model.strategy.TypedParkingStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Vinod Kandula
+ */
+public class ParkingServiceReservationTest {
+
+    private final List<String> output = new ArrayList<>();
+    private final ResultSink sink = new ResultSink() {
+        @Override
+        public void write(String line) {
+            output.add(line);
+        }
+
+        @Override
+        public void flush() {
+        }
+    };
+    private ParkingService service;
+
+    @Before
+    public void init() throws Exception {
+        service = new ParkingServiceImpl("reservations");
+        service.setResultSink(sink);
+        service.createParkingLot(2, 2);
+        output.clear();
+    }
+
+    @After
+    public void cleanUp() {
+        service.cleanup();
+    }
+
+    @Test
+    public void whenSlotIsHeld_shouldNotBeHandedOutAndShouldGoToTheBookedVehicle() throws Exception {
+        Reservation reservation = service.reserve("KA-01-HH-1234", VehicleType.CAR, 1, TimeUnit.MINUTES);
+        assertEquals(new SlotLocation(1, 1), new SlotLocation(reservation.getLevel(), reservation.getSlotNumber()));
+        assertEquals("Reserved slot number: 1 on level 1", output.get(0));
+        assertEquals(Optional.of(1), service.getAvailableSlotsCount(1));
+
+        assertEquals(new SlotLocation(1, 2), service.park(new Car("KA-01-BB-0001", "White")));
+        assertEquals(new SlotLocation(2, 1), service.park(new Car("KA-01-BB-0002", "White")));
+        assertNull(service.reserve("ka-01-hh-1234", VehicleType.CAR, 1, TimeUnit.MINUTES));
+        assertEquals(ParkingServiceImpl.ALREADY_RESERVED_MESSAGE, output.get(output.size() - 1));
+
+        assertEquals(new SlotLocation(1, 1), service.park(new Car("KA-01-HH-1234", "Black")));
+        assertEquals(Optional.of(0), service.getAvailableSlotsCount(1));
+        assertFalse(service.cancelReservation("KA-01-HH-1234"));
+        assertNull(service.reserve("KA-01-HH-1234", VehicleType.CAR, 1, TimeUnit.MINUTES));
+        assertEquals("Sorry, vehicle is already parked.", output.get(output.size() - 1));
+    }
+
+    @Test
+    public void whenHoldRunsOutOrIsCancelled_shouldFreeTheSlot() throws Exception {
+        service.reserve("KA-01-HH-1234", VehicleType.CAR, 200, TimeUnit.MILLISECONDS);
+        service.reserve("KA-01-HH-9999", VehicleType.CAR, 1, TimeUnit.MINUTES);
+        assertEquals(Optional.of(0), service.getAvailableSlotsCount(1));
+
+        assertTrue(service.cancelReservation("KA-01-HH-9999"));
+        assertEquals(Optional.of(1), service.getAvailableSlotsCount(1));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (service.getAvailableSlotsCount(1).get() != 2 && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+        assertEquals(Optional.of(2), service.getAvailableSlotsCount(1));
+        // the vehicle arrives too late and parks like any other
+        assertEquals(new SlotLocation(1, 1), service.park(new Car("KA-01-HH-1234", "Black")));
+    }
+
+    @Test
+    public void whenBookedVehicleParksOnAnotherLevel_shouldReleaseTheHold() throws Exception {
+        service.reserve("KA-01-HH-1234", VehicleType.CAR, 1, TimeUnit.MINUTES);
+        assertEquals(Optional.of(1), service.park(2, new Car("KA-01-HH-1234", "Black")));
+        assertEquals(Optional.of(2), service.getAvailableSlotsCount(1));
+
+        service.park(new Car("KA-01-BB-0001", "White"));
+        service.park(new Car("KA-01-BB-0002", "White"));
+        service.park(new Car("KA-01-BB-0003", "White"));
+        assertNull(service.reserve("KA-01-HH-5678", VehicleType.CAR, 1, TimeUnit.MINUTES));
+        assertEquals("Sorry, parking lot is full", output.get(output.size() - 1));
+        assertEquals(Constants.NOT_AVAILABLE, service.park(new Car("KA-01-BB-0004", "White")).getSlotNumber());
+    }
+
+    @Test
+    public void whenHoldIsForAType_shouldComeFromThatTypesSlots() throws Exception {
+        ParkingService typed = typedLot("reservations-typed");
+        try {
+            Reservation reservation = typed.reserve("VAN-1", VehicleType.VAN, 1, TimeUnit.MINUTES);
+            assertEquals(2, reservation.getSlotNumber());
+            assertEquals(Optional.of(2), typed.park(1, new Van("VAN-1", "White")));
+        }
+        finally {
+            typed.cleanup();
+        }
+    }
+
+    @Test
+    public void whenBookedVehicleDoesNotFitTheHeldSlot_shouldReleaseItAndParkAsUsual() throws Exception {
+        ParkingService typed = typedLot("reservations-misfit");
+        try {
+            assertEquals(1, typed.reserve("VAN-1", VehicleType.CAR, 1, TimeUnit.MINUTES).getSlotNumber());
+            assertEquals(new SlotLocation(1, 2), typed.park(new Van("VAN-1", "White")));
+            assertEquals(Optional.of(1), typed.getAvailableSlotsCount(1));
+            assertEquals(Optional.of(1), typed.park(1, new Car("KA-01-BB-0001", "White")));
+        }
+        finally {
+            typed.cleanup();
+        }
+    }
+
+    @Test
+    public void whenParkingTheBookedVehicleThrows_shouldReleaseTheHold() throws Exception {
+        InMemoryParkingLotDAOImpl<Vehicle> lot =
+                (InMemoryParkingLotDAOImpl<Vehicle>) ParkingLotRegistry.getInstance().<Vehicle>getParkingLot("reservations");
+        service.reserve("KA-01-HH-1234", VehicleType.CAR, 1, TimeUnit.MINUTES);
+        lot.setChangeLog(new SlotChangeLog() {
+            @Override
+            public void parking(int level, int slotNumber, Vehicle vehicle, long entryTime) {
+                throw new IllegalStateException("Journal is no longer writable");
+            }
+
+            @Override
+            public void leaving(int level, int slotNumber) {
+            }
+        });
+        try {
+            service.park(1, new Car("KA-01-HH-1234", "Black"));
+            fail("park went through a refusing change log");
+        }
+        catch (ParkingException expected) {
+        }
+        lot.setChangeLog(null);
+
+        assertEquals(Optional.of(2), service.getAvailableSlotsCount(1));
+        assertEquals(new SlotLocation(1, 1), service.park(new Car("KA-01-BB-0001", "White")));
+    }
+
+    private ParkingService typedLot(String lotId) throws Exception {
+        ParkingService typed = new ParkingServiceImpl(lotId);
+        typed.setResultSink(sink);
+        typed.setParkingStrategies(Collections.singletonList(
+                new TypedParkingStrategy(new SlotType[] { SlotType.CAR, SlotType.VAN })));
+        typed.createParkingLot(1, 2);
+        return typed;
+    }
+}
@@ -0,0 +1,120 @@
+package com.parkinglot.service;
+
+import com.parkinglot.exception.ParkingException;
+import com.parkinglot.model.Car;
+import com.parkinglot.model.Van;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Vinod Kandula
+ */
+public class StreamingQueryTest {
+
+    private static final int CAPACITY = 10_000;
+
+    private final List<String> output = new ArrayList<>();
+    private ParkingService service;
+
+    @Before
+    public void init() throws Exception {
+        service = new ParkingServiceImpl("streaming");
+        service.setResultSink(new ResultSink() {
+            @Override
+            public void write(String line) {
+                output.add(line);
+            }
+
+            @Override
+            public void flush() {
+            }
+        });
+        service.createParkingLot(2, CAPACITY);
+        // level 1 fills up with every third slot left again, level 2 stays empty
+        for (int i = 1; i <= CAPACITY; i++)
+            service.park(1, i % 2 == 0 ? new Car("KA-01-" + i, "White") : new Van("KA-02-" + i, "Black"));
+        for (int slot = 3; slot <= CAPACITY; slot += 3)
+            service.unPark(1, slot);
+        output.clear();
+    }
+
+    @After
+    public void cleanUp() {
+        service.cleanup();
+    }
+
+    @Test
+    public void whenStreamingStatus_shouldWriteWhatGetStatusWrites() throws Exception {
+        service.getStatus(1);
+        List<String> expected = new ArrayList<>(output);
+        output.clear();
+
+        assertEquals(expected.size() - 1, service.streamStatus(1));
+        assertEquals(expected, output);
+
+        output.clear();
+        assertEquals(0, service.streamStatus(2));
+        assertEquals("Sorry, parking lot is empty.", output.get(1));
+    }
+
+    @Test
+    public void whenStreamingALevelTheLotLacks_shouldRefuseBeforeWriting() throws Exception {
+        for (int level : new int[]{ 0, 7 }) {
+            try {
+                service.streamStatus(level);
+                fail("level " + level + " streamed");
+            }
+            catch (ParkingException e) {
+                assertEquals("level value is incorrect", e.getMessage());
+            }
+            try {
+                service.forEachRegNumberForColor(level, "White", null, output::add);
+                fail("level " + level + " streamed");
+            }
+            catch (ParkingException e) {
+                assertEquals("level value is incorrect", e.getMessage());
+            }
+        }
+        assertTrue(output.isEmpty());
+    }
+
+    @Test
+    public void whenStreamingLotStatus_shouldHeadEachOccupiedLevel() throws Exception {
+        Map<Integer, List<String>> status = service.getStatus();
+        output.clear();
+
+        assertEquals(status.get(1).size(), service.streamStatus());
+        assertEquals("Level 1", output.get(1));
+        assertEquals(status.get(1), output.subList(2, output.size()));
+    }
+
+    @Test(timeout = 10_000)
+    public void whenStreamingRegistrations_shouldMatchListAndRunOutsideTheLock() throws Exception {
+        List<String> expected = service.getRegNumberForColor(1, "white", null);
+        List<String> streamed = new ArrayList<>();
+
+        // leaving from inside the action would deadlock if the read lock were still held
+        int count = service.forEachRegNumberForColor(1, "WHITE", null, registration -> {
+            streamed.add(registration);
+            try {
+                service.unPark(1, Integer.parseInt(registration.substring("KA-01-".length())));
+            }
+            catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(expected.size(), count);
+        assertEquals(expected, streamed);
+        assertEquals(0, service.getRegNumberForColor(1, "White", null).size());
+    }
+}